@@ -0,0 +1,49 @@
+package com.rn.currencyexchange.service;
+
+import com.rn.currencyexchange.config.ConversionProperties;
+import com.rn.currencyexchange.repository.ExchangeRateRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.mockito.Mockito;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+
+/**
+ * Wires services for benchmarks without a Spring context.
+ * The repository never finds stored rates, so every refresh goes through the stubbed Riksbank API.
+ */
+final class BenchmarkFixtures {
+
+    private BenchmarkFixtures() {
+    }
+
+    static ExchangeRateService newExchangeRateService(RiksbankFetchExecutor riksbankFetchExecutor, RefreshMode refreshMode) {
+        // Stub only mocks do not record invocations, so they do not grow during a benchmark
+        ExchangeRateRepository repository = Mockito.mock(ExchangeRateRepository.class, Mockito.withSettings().stubOnly());
+
+        ExchangeRateService service = new ExchangeRateService();
+        ReflectionTestUtils.setField(service, "riksbankApiService", new StubRiksbankApiService());
+        ReflectionTestUtils.setField(service, "exchangeRateRepository", repository);
+        ReflectionTestUtils.setField(service, "riksbankFetchExecutor", riksbankFetchExecutor);
+        ReflectionTestUtils.setField(service, "historicalRateStore", newHistoricalRateStore());
+        ReflectionTestUtils.setField(service, "metrics", new ExchangeRateMetrics(new SimpleMeterRegistry()));
+        ReflectionTestUtils.setField(service, "eventPublisher", (ApplicationEventPublisher) event -> {
+        });
+        ReflectionTestUtils.setField(service, "fixedPointConverter", new FixedPointConverter(new ConversionProperties()));
+        ReflectionTestUtils.setField(service, "refreshMode", refreshMode);
+
+        return service;
+    }
+
+    static HistoricalRateStore newHistoricalRateStore() {
+        HistoricalRateStore historicalRateStore = new HistoricalRateStore();
+        ReflectionTestUtils.setField(historicalRateStore, "rateAnalytics", new RateAnalytics());
+
+        return historicalRateStore;
+    }
+
+    static RiksbankFetchExecutor newRiksbankFetchExecutor() {
+        return new RiksbankFetchExecutor(4, Duration.ofSeconds(10));
+    }
+}
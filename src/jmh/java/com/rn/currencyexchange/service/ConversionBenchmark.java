@@ -0,0 +1,59 @@
+package com.rn.currencyexchange.service;
+
+import com.rn.currencyexchange.dto.ConversionRequest;
+import com.rn.currencyexchange.model.Currency;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the /convert hot path against a warm in-memory rate source.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ConversionBenchmark {
+
+    private RiksbankFetchExecutor riksbankFetchExecutor;
+    private ExchangeRateService exchangeRateService;
+    private ConversionRequest latestRateRequest;
+    private ConversionRequest historicalRateRequest;
+
+    @Setup
+    public void setUp() {
+        riksbankFetchExecutor = BenchmarkFixtures.newRiksbankFetchExecutor();
+        exchangeRateService = BenchmarkFixtures.newExchangeRateService(riksbankFetchExecutor, RefreshMode.TRIANGULATE);
+        exchangeRateService.updateAndFetchLatestExchangeRates();
+
+        latestRateRequest = createRequest();
+        historicalRateRequest = createRequest();
+        historicalRateRequest.setRateDate(StubRiksbankApiService.RATE_DATE.plusDays(1));
+    }
+
+    @TearDown
+    public void tearDown() {
+        riksbankFetchExecutor.destroy();
+    }
+
+    @Benchmark
+    public BigDecimal convertAtLatestRate() {
+        return exchangeRateService.convertAmount(latestRateRequest);
+    }
+
+    @Benchmark
+    public BigDecimal convertAtHistoricalRate() {
+        return exchangeRateService.convertAmount(historicalRateRequest);
+    }
+
+    private static ConversionRequest createRequest() {
+        ConversionRequest request = new ConversionRequest();
+        request.setFromCurrency(Currency.EUR);
+        request.setToCurrency(Currency.USD);
+        request.setAmount(new BigDecimal("1234.56"));
+        return request;
+    }
+}
@@ -0,0 +1,46 @@
+package com.rn.currencyexchange.service;
+
+import com.rn.currencyexchange.config.ConversionProperties;
+import com.rn.currencyexchange.model.Currency;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the fixed-point multiplication of a conversion with the equivalent BigDecimal arithmetic.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FixedPointBenchmark {
+
+    private FixedPointConverter converter;
+    private BigDecimal amount;
+    private BigDecimal rate;
+    private long unscaledRate;
+    private int rateScale;
+
+    @Setup
+    public void setUp() {
+        converter = new FixedPointConverter(new ConversionProperties());
+        amount = new BigDecimal("1234.56");
+        rate = new BigDecimal("1.166124739155417");
+        unscaledRate = rate.unscaledValue().longValue();
+        rateScale = rate.scale();
+    }
+
+    @Benchmark
+    public BigDecimal fixedPoint() {
+        return converter.convert(amount, unscaledRate, rateScale, Currency.USD);
+    }
+
+    @Benchmark
+    public BigDecimal bigDecimal() {
+        return rate.multiply(amount).setScale(2, RoundingMode.HALF_EVEN);
+    }
+}
@@ -0,0 +1,41 @@
+package com.rn.currencyexchange.service;
+
+import com.rn.currencyexchange.model.Currency;
+import com.rn.currencyexchange.model.ExchangeRate;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures inverse rate computation as done for every rate fetched from the CrossRates endpoint.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class InverseRateBenchmark {
+
+    private RiksbankFetchExecutor riksbankFetchExecutor;
+    private ExchangeRateService exchangeRateService;
+    private ExchangeRate rate;
+
+    @Setup
+    public void setUp() {
+        riksbankFetchExecutor = BenchmarkFixtures.newRiksbankFetchExecutor();
+        exchangeRateService = BenchmarkFixtures.newExchangeRateService(riksbankFetchExecutor, RefreshMode.CROSS_RATES);
+        rate = new ExchangeRate(Currency.SEK, Currency.EUR, new BigDecimal("0.0907235"), StubRiksbankApiService.RATE_DATE);
+    }
+
+    @TearDown
+    public void tearDown() {
+        riksbankFetchExecutor.destroy();
+    }
+
+    @Benchmark
+    public ExchangeRate createInverseExchangeRate() {
+        return exchangeRateService.createInverseExchangeRate(rate);
+    }
+}
@@ -0,0 +1,58 @@
+package com.rn.currencyexchange.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.rn.currencyexchange.model.Currency;
+import com.rn.currencyexchange.model.ExchangeRate;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures Jackson serialization of the rate list returned by /latestExchangeRates.
+ * The number of days is varied to cover both the latest rates and a history response.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RateSerializationBenchmark {
+
+    @Param({"1", "250"})
+    private int days;
+
+    private ObjectMapper objectMapper;
+    private List<ExchangeRate> rates;
+
+    @Setup
+    public void setUp() {
+        // Same date handling as the ObjectMapper Spring Boot configures for the controllers
+        objectMapper = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+
+        rates = new ArrayList<>();
+        for (int day = 0; day < days; day++) {
+            for (Currency fromCurrency : Currency.values()) {
+                for (Currency toCurrency : Currency.values()) {
+                    if (fromCurrency != toCurrency) {
+                        rates.add(new ExchangeRate(fromCurrency, toCurrency, new BigDecimal("1.1660690596337554"),
+                                StubRiksbankApiService.RATE_DATE.minusDays(day)));
+                    }
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    public byte[] serializeRates() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(rates);
+    }
+}
@@ -0,0 +1,42 @@
+package com.rn.currencyexchange.service;
+
+import com.rn.currencyexchange.model.ExchangeRate;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures a full refresh of the latest rates against an in-process stub of Riksbankens API,
+ * for both refresh modes. Upstream latency is excluded so the numbers show the service's own overhead.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RefreshBenchmark {
+
+    @Param({"CROSS_RATES", "TRIANGULATE"})
+    private RefreshMode refreshMode;
+
+    private RiksbankFetchExecutor riksbankFetchExecutor;
+    private ExchangeRateService exchangeRateService;
+
+    @Setup
+    public void setUp() {
+        riksbankFetchExecutor = BenchmarkFixtures.newRiksbankFetchExecutor();
+        exchangeRateService = BenchmarkFixtures.newExchangeRateService(riksbankFetchExecutor, refreshMode);
+    }
+
+    @TearDown
+    public void tearDown() {
+        riksbankFetchExecutor.destroy();
+    }
+
+    @Benchmark
+    public List<ExchangeRate> updateAndFetchLatestExchangeRates() {
+        return exchangeRateService.updateAndFetchLatestExchangeRates();
+    }
+}
@@ -0,0 +1,57 @@
+package com.rn.currencyexchange.service;
+
+import com.rn.currencyexchange.model.CrossRate;
+import com.rn.currencyexchange.model.Currency;
+import com.rn.currencyexchange.model.Observation;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * In-process stand-in for Riksbankens API that answers from fixed data without any network access.
+ */
+class StubRiksbankApiService extends RiksbankApiService {
+
+    static final LocalDate RATE_DATE = LocalDate.of(2025, 10, 17);
+
+    private final BigDecimal[] sekPerUnit = new BigDecimal[Currency.values().length];
+    private final List<Observation> sekObservations = new ArrayList<>();
+
+    StubRiksbankApiService() {
+        for (Currency currency : Currency.values()) {
+            sekPerUnit[currency.getIndex()] = currency == Currency.SEK
+                    ? BigDecimal.ONE
+                    : new BigDecimal("9.4527").add(BigDecimal.valueOf(currency.getIndex(), 1));
+
+            if (currency != Currency.SEK) {
+                Observation observation = new Observation();
+                observation.setSeriesId(currency.getSeriesId());
+                observation.setDate(RATE_DATE.toString());
+                observation.setValue(sekPerUnit[currency.getIndex()]);
+                sekObservations.add(observation);
+            }
+        }
+    }
+
+    @Override
+    public LocalDate getLatestBankDay() {
+        return RATE_DATE;
+    }
+
+    @Override
+    public List<CrossRate> getLatestCrossRates(Currency fromCurrency, Currency toCurrency) {
+        CrossRate crossRate = new CrossRate();
+        crossRate.setDate(RATE_DATE.toString());
+        crossRate.setValue(sekPerUnit[fromCurrency.getIndex()].divide(sekPerUnit[toCurrency.getIndex()], MathContext.DECIMAL64));
+
+        return List.of(crossRate);
+    }
+
+    @Override
+    public List<Observation> getLatestSekObservations() {
+        return sekObservations;
+    }
+}
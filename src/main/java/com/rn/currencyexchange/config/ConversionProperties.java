@@ -0,0 +1,109 @@
+package com.rn.currencyexchange.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.math.RoundingMode;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Rounding of converted amounts. An amount converted to a currency is rounded to that currency's minor units,
+ * taken from ISO 4217 unless overridden under {@code riksbank.conversion.currencies.<code>},
+ * e.g. {@code riksbank.conversion.currencies.JPY.minor-units}.
+ */
+@Component
+@ConfigurationProperties(prefix = "riksbank.conversion")
+public class ConversionProperties {
+
+    /**
+     * Minor units of currencies without ISO 4217 minor units and no override.
+     */
+    static final int DEFAULT_MINOR_UNITS = 2;
+
+    private RoundingMode rounding = RoundingMode.HALF_EVEN;
+    private Map<String, CurrencyPolicy> currencies = new HashMap<>();
+
+    /**
+     * Returns the number of decimals converted amounts in the given currency are rounded to.
+     *
+     * @param code the currency code
+     * @return the configured minor units, otherwise the ISO 4217 minor units
+     */
+    public int minorUnitsOf(String code) {
+        CurrencyPolicy override = currencies.get(code);
+
+        if (override != null && override.getMinorUnits() != null) {
+            return override.getMinorUnits();
+        }
+
+        try {
+            int minorUnits = java.util.Currency.getInstance(code).getDefaultFractionDigits();
+            // Pseudo currencies such as XAU have no minor units
+            return minorUnits < 0 ? DEFAULT_MINOR_UNITS : minorUnits;
+        } catch (IllegalArgumentException ex) {
+            return DEFAULT_MINOR_UNITS;
+        }
+    }
+
+    /**
+     * Returns the rounding mode of converted amounts in the given currency.
+     *
+     * @param code the currency code
+     * @return the configured rounding mode of the currency, otherwise {@link #getRounding()}
+     */
+    public RoundingMode roundingOf(String code) {
+        CurrencyPolicy override = currencies.get(code);
+
+        return override != null && override.getRounding() != null ? override.getRounding() : rounding;
+    }
+
+    public RoundingMode getRounding() {
+        return rounding;
+    }
+
+    public void setRounding(RoundingMode rounding) {
+        this.rounding = rounding;
+    }
+
+    public Map<String, CurrencyPolicy> getCurrencies() {
+        return currencies;
+    }
+
+    public void setCurrencies(Map<String, CurrencyPolicy> currencies) {
+        this.currencies = currencies;
+    }
+
+    /**
+     * Rounding of converted amounts in one currency.
+     */
+    public static class CurrencyPolicy {
+
+        private Integer minorUnits;
+        private RoundingMode rounding;
+
+        public CurrencyPolicy() {
+        }
+
+        public CurrencyPolicy(Integer minorUnits, RoundingMode rounding) {
+            this.minorUnits = minorUnits;
+            this.rounding = rounding;
+        }
+
+        public Integer getMinorUnits() {
+            return minorUnits;
+        }
+
+        public void setMinorUnits(Integer minorUnits) {
+            this.minorUnits = minorUnits;
+        }
+
+        public RoundingMode getRounding() {
+            return rounding;
+        }
+
+        public void setRounding(RoundingMode rounding) {
+            this.rounding = rounding;
+        }
+    }
+}
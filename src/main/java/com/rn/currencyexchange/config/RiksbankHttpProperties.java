@@ -0,0 +1,137 @@
+package com.rn.currencyexchange.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * HTTP client settings for the Riksbank API.
+ * Timeouts and retries default to {@code riksbank.http.defaults} and can be overridden per endpoint
+ * under {@code riksbank.http.endpoints.<endpoint>}, e.g. {@code riksbank.http.endpoints.CalendarDays.read-timeout}.
+ */
+@Component
+@ConfigurationProperties(prefix = "riksbank.http")
+public class RiksbankHttpProperties {
+
+    private String baseUrl = "https://api.riksbank.se/swea/v1/";
+    private HttpClient.Version version = HttpClient.Version.HTTP_2;
+    private Duration connectTimeout = Duration.ofSeconds(2);
+    private boolean compression = true;
+    private EndpointPolicy defaults = new EndpointPolicy(Duration.ofSeconds(10), 3, Duration.ofMillis(200));
+    private Map<String, EndpointPolicy> endpoints = new HashMap<>();
+
+    /**
+     * Returns the policy of an endpoint, falling back to the defaults for settings the endpoint does not override.
+     *
+     * @param endpoint the endpoint name
+     * @return the effective policy
+     */
+    public EndpointPolicy policyFor(String endpoint) {
+        EndpointPolicy override = endpoints.get(endpoint);
+
+        if (override == null) {
+            return defaults;
+        }
+
+        return new EndpointPolicy(
+                override.getReadTimeout() != null ? override.getReadTimeout() : defaults.getReadTimeout(),
+                override.getMaxAttempts() != null ? override.getMaxAttempts() : defaults.getMaxAttempts(),
+                override.getInitialBackoff() != null ? override.getInitialBackoff() : defaults.getInitialBackoff());
+    }
+
+    public String getBaseUrl() {
+        return baseUrl;
+    }
+
+    public void setBaseUrl(String baseUrl) {
+        this.baseUrl = baseUrl;
+    }
+
+    public HttpClient.Version getVersion() {
+        return version;
+    }
+
+    public void setVersion(HttpClient.Version version) {
+        this.version = version;
+    }
+
+    public Duration getConnectTimeout() {
+        return connectTimeout;
+    }
+
+    public void setConnectTimeout(Duration connectTimeout) {
+        this.connectTimeout = connectTimeout;
+    }
+
+    public boolean isCompression() {
+        return compression;
+    }
+
+    public void setCompression(boolean compression) {
+        this.compression = compression;
+    }
+
+    public EndpointPolicy getDefaults() {
+        return defaults;
+    }
+
+    public void setDefaults(EndpointPolicy defaults) {
+        this.defaults = defaults;
+    }
+
+    public Map<String, EndpointPolicy> getEndpoints() {
+        return endpoints;
+    }
+
+    public void setEndpoints(Map<String, EndpointPolicy> endpoints) {
+        this.endpoints = endpoints;
+    }
+
+    /**
+     * Timeout and retry policy of one endpoint. Only idempotent GET requests are retried, on I/O errors,
+     * timeouts, 429 and 5xx responses, with exponential backoff between attempts.
+     */
+    public static class EndpointPolicy {
+
+        private Duration readTimeout;
+        private Integer maxAttempts;
+        private Duration initialBackoff;
+
+        public EndpointPolicy() {
+        }
+
+        public EndpointPolicy(Duration readTimeout, Integer maxAttempts, Duration initialBackoff) {
+            this.readTimeout = readTimeout;
+            this.maxAttempts = maxAttempts;
+            this.initialBackoff = initialBackoff;
+        }
+
+        public Duration getReadTimeout() {
+            return readTimeout;
+        }
+
+        public void setReadTimeout(Duration readTimeout) {
+            this.readTimeout = readTimeout;
+        }
+
+        public Integer getMaxAttempts() {
+            return maxAttempts;
+        }
+
+        public void setMaxAttempts(Integer maxAttempts) {
+            this.maxAttempts = maxAttempts;
+        }
+
+        public Duration getInitialBackoff() {
+            return initialBackoff;
+        }
+
+        public void setInitialBackoff(Duration initialBackoff) {
+            this.initialBackoff = initialBackoff;
+        }
+    }
+}
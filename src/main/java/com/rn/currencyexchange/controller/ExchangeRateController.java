@@ -1,31 +1,195 @@
 package com.rn.currencyexchange.controller;
 
+import com.rn.currencyexchange.dto.BackfillStatus;
 import com.rn.currencyexchange.dto.ConversionRequest;
+import com.rn.currencyexchange.dto.LatestExchangeRates;
+import com.rn.currencyexchange.dto.RateStatistics;
+import com.rn.currencyexchange.dto.RefreshStatus;
+import com.rn.currencyexchange.model.Currency;
 import com.rn.currencyexchange.model.ExchangeRate;
+import com.rn.currencyexchange.service.BackfillService;
+import com.rn.currencyexchange.service.BatchConversionService;
+import com.rn.currencyexchange.service.ExchangeRateRefreshService;
 import com.rn.currencyexchange.service.ExchangeRateService;
+import com.rn.currencyexchange.service.ExportFormat;
+import com.rn.currencyexchange.service.LatestRatesDocument;
+import com.rn.currencyexchange.service.RateAnalytics;
+import com.rn.currencyexchange.service.RateExportService;
+import com.rn.currencyexchange.service.RateUpdateBroadcaster;
+import com.rn.currencyexchange.service.RefreshRequestExecutor;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.web.bind.annotation.PostMapping;
-import org.springframework.web.bind.annotation.RequestBody;
-import org.springframework.web.bind.annotation.RequestMapping;
-import org.springframework.web.bind.annotation.RestController;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("api/exchange-rate")
 public class ExchangeRateController {
 
+    static final String RATE_DATE_HEADER = "X-Rates-Date";
+    static final String STALE_HEADER = "X-Rates-Stale";
+    static final String REVALIDATING_HEADER = "X-Rates-Revalidating";
+    static final String STALE_WARNING = "110 - \"Response is Stale\"";
+
     @Autowired
     private ExchangeRateService exchangeRateService;
 
+    @Autowired
+    private BatchConversionService batchConversionService;
+
+    @Autowired
+    private ExchangeRateRefreshService exchangeRateRefreshService;
+
+    @Autowired
+    private BackfillService backfillService;
+
+    @Autowired
+    private LatestRatesDocument latestRatesDocument;
+
+    @Autowired
+    private RateExportService rateExportService;
+
+    @Autowired
+    private RateUpdateBroadcaster rateUpdateBroadcaster;
+
+    @Autowired
+    private RefreshRequestExecutor refreshRequestExecutor;
+
+    @Autowired
+    private RateAnalytics rateAnalytics;
+
+    /**
+     * Returns the latest rates as a JSON array, refreshing them if needed. In async mode the refresh runs on its own
+     * bounded executor and the request thread is released while it waits for Riksbanken.
+     * The rate date and whether the rates are stale are returned in headers, so the body stays a plain array.
+     */
     @PostMapping("/latestExchangeRates")
-    public List<ExchangeRate> updateAndFetchLatestExchangeRates() {
-        return exchangeRateService.updateAndFetchLatestExchangeRates();
+    public CompletableFuture<ResponseEntity<List<ExchangeRate>>> updateAndFetchLatestExchangeRates() {
+        return refreshRequestExecutor.submit(exchangeRateRefreshService::getLatestRates)
+                .thenApply(ExchangeRateController::toResponse);
+    }
+
+    /**
+     * Returns the latest rate set without refreshing it. Responses carry a strong ETag and a Last-Modified time,
+     * and conditional requests with a matching If-None-Match or If-Modified-Since get 304 Not Modified.
+     */
+    @GetMapping(value = "/latestExchangeRates", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<byte[]> getLatestExchangeRates() {
+        LatestRatesDocument.Document document = latestRatesDocument.get();
+
+        return ResponseEntity.ok()
+                .eTag(document.getEtag())
+                .lastModified(document.getLastModified())
+                // Caches may store the rates but must revalidate, they change when a refresh completes
+                .cacheControl(CacheControl.noCache().cachePublic())
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(document.getBody());
+    }
+
+    /**
+     * Subscribes to the latest rates as Server-Sent Events. An event is sent whenever newer rates are stored,
+     * and a reconnecting client only receives rates newer than its Last-Event-ID.
+     */
+    @GetMapping(value = "/latestExchangeRates/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter subscribeToLatestExchangeRates(@RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        return rateUpdateBroadcaster.subscribe(lastEventId);
+    }
+
+    @GetMapping("/refreshStatus")
+    public RefreshStatus getRefreshStatus() {
+        return exchangeRateRefreshService.getStatus();
     }
 
     @PostMapping("/convert")
     public BigDecimal getConversionRate(@RequestBody ConversionRequest request) {
         return exchangeRateService.convertAmount(request);
     }
+
+    @PostMapping(value = "/convert/batch",
+            consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE},
+            produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public void convertBatch(InputStream requestBody, HttpServletResponse response) throws IOException {
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        batchConversionService.convert(requestBody, response.getOutputStream());
+    }
+
+    /**
+     * Returns moving averages and volatility of a currency pair, kept up to date in memory as rates are stored.
+     */
+    @GetMapping("/analytics")
+    public RateStatistics getRateStatistics(@RequestParam Currency fromCurrency, @RequestParam Currency toCurrency) {
+        RateStatistics statistics = rateAnalytics.getStatistics(fromCurrency, toCurrency);
+
+        if (statistics == null) {
+            throw new IllegalArgumentException("No exchange rate found for " + fromCurrency + " to " + toCurrency);
+        }
+
+        return statistics;
+    }
+
+    @PostMapping("/backfill")
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    public BackfillStatus startBackfill(@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                        @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return backfillService.start(from, to);
+    }
+
+    @GetMapping("/backfill/status")
+    public BackfillStatus getBackfillStatus() {
+        return backfillService.getStatus();
+    }
+
+    /**
+     * Streams the stored rate history as CSV or NDJSON, optionally filtered by currency and rate date range.
+     * Rows are written as they are read from the database, so exports of any size use the same amount of memory.
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportRates(@RequestParam(defaultValue = "csv") String format,
+                                                             @RequestParam(required = false) Currency fromCurrency,
+                                                             @RequestParam(required = false) Currency toCurrency,
+                                                             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        ExportFormat exportFormat = ExportFormat.of(format);
+        rateExportService.checkRange(from, to);
+
+        StreamingResponseBody body = output -> rateExportService.export(exportFormat, fromCurrency, toCurrency, from, to, output);
+
+        return ResponseEntity.ok()
+                .contentType(exportFormat.getMediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename("exchange-rates." + exportFormat.getExtension())
+                        .build()
+                        .toString())
+                .body(body);
+    }
+
+    private static ResponseEntity<List<ExchangeRate>> toResponse(LatestExchangeRates latestRates) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .header(STALE_HEADER, String.valueOf(latestRates.isStale()))
+                .header(REVALIDATING_HEADER, String.valueOf(latestRates.isRevalidating()));
+
+        if (latestRates.getRateDate() != null) {
+            response.header(RATE_DATE_HEADER, latestRates.getRateDate().toString());
+        }
+        if (latestRates.isStale()) {
+            response.header(HttpHeaders.WARNING, STALE_WARNING);
+        }
+
+        return response.body(latestRates.getRates());
+    }
 }
@@ -0,0 +1,54 @@
+package com.rn.currencyexchange.dto;
+
+import com.rn.currencyexchange.model.BackfillCheckpoint;
+
+import java.time.LocalDate;
+
+public class BackfillStatus {
+
+    private final LocalDate fromDate;
+    private final LocalDate toDate;
+    private final LocalDate nextDate;
+    private final BackfillCheckpoint.State state;
+    private final long rowsWritten;
+    private final double rowsPerSecond;
+    private final String lastError;
+
+    public BackfillStatus(BackfillCheckpoint checkpoint, double rowsPerSecond) {
+        this.fromDate = checkpoint.getFromDate();
+        this.toDate = checkpoint.getToDate();
+        this.nextDate = checkpoint.getNextDate();
+        this.state = checkpoint.getState();
+        this.rowsWritten = checkpoint.getRowsWritten();
+        this.rowsPerSecond = rowsPerSecond;
+        this.lastError = checkpoint.getLastError();
+    }
+
+    public LocalDate getFromDate() {
+        return fromDate;
+    }
+
+    public LocalDate getToDate() {
+        return toDate;
+    }
+
+    public LocalDate getNextDate() {
+        return nextDate;
+    }
+
+    public BackfillCheckpoint.State getState() {
+        return state;
+    }
+
+    public long getRowsWritten() {
+        return rowsWritten;
+    }
+
+    public double getRowsPerSecond() {
+        return rowsPerSecond;
+    }
+
+    public String getLastError() {
+        return lastError;
+    }
+}
@@ -3,12 +3,14 @@ package com.rn.currencyexchange.dto;
 import com.rn.currencyexchange.model.Currency;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 
 public class ConversionRequest {
 
     private Currency fromCurrency;
     private Currency toCurrency;
     private BigDecimal amount;
+    private LocalDate rateDate;
 
     public Currency getFromCurrency() {
         return fromCurrency;
@@ -33,5 +35,12 @@ public class ConversionRequest {
     public void setAmount(BigDecimal amount) {
         this.amount = amount;
     }
-}
 
+    public LocalDate getRateDate() {
+        return rateDate;
+    }
+
+    public void setRateDate(LocalDate rateDate) {
+        this.rateDate = rateDate;
+    }
+}
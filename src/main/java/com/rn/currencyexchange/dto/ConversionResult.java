@@ -0,0 +1,93 @@
+package com.rn.currencyexchange.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.rn.currencyexchange.model.Currency;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ConversionResult {
+
+    private long line;
+    private Currency fromCurrency;
+    private Currency toCurrency;
+    private BigDecimal amount;
+    private LocalDate rateDate;
+    private BigDecimal convertedAmount;
+    private String error;
+
+    public static ConversionResult success(long line, ConversionRequest request, BigDecimal convertedAmount) {
+        ConversionResult result = new ConversionResult();
+        result.setLine(line);
+        result.setFromCurrency(request.getFromCurrency());
+        result.setToCurrency(request.getToCurrency());
+        result.setAmount(request.getAmount());
+        result.setRateDate(request.getRateDate());
+        result.setConvertedAmount(convertedAmount);
+        return result;
+    }
+
+    public static ConversionResult failure(long line, String error) {
+        ConversionResult result = new ConversionResult();
+        result.setLine(line);
+        result.setError(error);
+        return result;
+    }
+
+    public long getLine() {
+        return line;
+    }
+
+    public void setLine(long line) {
+        this.line = line;
+    }
+
+    public Currency getFromCurrency() {
+        return fromCurrency;
+    }
+
+    public void setFromCurrency(Currency fromCurrency) {
+        this.fromCurrency = fromCurrency;
+    }
+
+    public Currency getToCurrency() {
+        return toCurrency;
+    }
+
+    public void setToCurrency(Currency toCurrency) {
+        this.toCurrency = toCurrency;
+    }
+
+    public BigDecimal getAmount() {
+        return amount;
+    }
+
+    public void setAmount(BigDecimal amount) {
+        this.amount = amount;
+    }
+
+    public LocalDate getRateDate() {
+        return rateDate;
+    }
+
+    public void setRateDate(LocalDate rateDate) {
+        this.rateDate = rateDate;
+    }
+
+    public BigDecimal getConvertedAmount() {
+        return convertedAmount;
+    }
+
+    public void setConvertedAmount(BigDecimal convertedAmount) {
+        this.convertedAmount = convertedAmount;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+}
@@ -0,0 +1,51 @@
+package com.rn.currencyexchange.dto;
+
+import com.rn.currencyexchange.model.Currency;
+import com.rn.currencyexchange.model.ExchangeRate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Read-only projection of a stored exchange rate. Queries select it with a constructor expression, so reading rates
+ * does not create managed entities in the persistence context.
+ */
+public final class ExchangeRateView {
+
+    private final Currency fromCurrency;
+    private final Currency toCurrency;
+    private final BigDecimal conversionRate;
+    private final LocalDate rateDate;
+
+    public ExchangeRateView(Currency fromCurrency, Currency toCurrency, BigDecimal conversionRate, LocalDate rateDate) {
+        this.fromCurrency = fromCurrency;
+        this.toCurrency = toCurrency;
+        this.conversionRate = conversionRate;
+        this.rateDate = rateDate;
+    }
+
+    public Currency getFromCurrency() {
+        return fromCurrency;
+    }
+
+    public Currency getToCurrency() {
+        return toCurrency;
+    }
+
+    public BigDecimal getConversionRate() {
+        return conversionRate;
+    }
+
+    public LocalDate getRateDate() {
+        return rateDate;
+    }
+
+    /**
+     * Returns the rate as a detached exchange rate, e.g. for the in-memory snapshot.
+     *
+     * @return a new exchange rate that is not managed by any persistence context
+     */
+    public ExchangeRate toExchangeRate() {
+        return new ExchangeRate(fromCurrency, toCurrency, conversionRate, rateDate);
+    }
+}
@@ -0,0 +1,37 @@
+package com.rn.currencyexchange.dto;
+
+import com.rn.currencyexchange.model.ExchangeRate;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public class LatestExchangeRates {
+
+    private final List<ExchangeRate> rates;
+    private final LocalDate rateDate;
+    private final boolean stale;
+    private final boolean revalidating;
+
+    public LatestExchangeRates(List<ExchangeRate> rates, LocalDate rateDate, boolean stale, boolean revalidating) {
+        this.rates = rates;
+        this.rateDate = rateDate;
+        this.stale = stale;
+        this.revalidating = revalidating;
+    }
+
+    public List<ExchangeRate> getRates() {
+        return rates;
+    }
+
+    public LocalDate getRateDate() {
+        return rateDate;
+    }
+
+    public boolean isStale() {
+        return stale;
+    }
+
+    public boolean isRevalidating() {
+        return revalidating;
+    }
+}
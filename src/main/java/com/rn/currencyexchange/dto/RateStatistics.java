@@ -0,0 +1,79 @@
+package com.rn.currencyexchange.dto;
+
+import com.rn.currencyexchange.model.Currency;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+public class RateStatistics {
+
+    private final Currency fromCurrency;
+    private final Currency toCurrency;
+    private final LocalDate rateDate;
+    private final BigDecimal conversionRate;
+    private final List<Window> windows;
+
+    public RateStatistics(Currency fromCurrency, Currency toCurrency, LocalDate rateDate, BigDecimal conversionRate, List<Window> windows) {
+        this.fromCurrency = fromCurrency;
+        this.toCurrency = toCurrency;
+        this.rateDate = rateDate;
+        this.conversionRate = conversionRate;
+        this.windows = List.copyOf(windows);
+    }
+
+    public Currency getFromCurrency() {
+        return fromCurrency;
+    }
+
+    public Currency getToCurrency() {
+        return toCurrency;
+    }
+
+    public LocalDate getRateDate() {
+        return rateDate;
+    }
+
+    public BigDecimal getConversionRate() {
+        return conversionRate;
+    }
+
+    public List<Window> getWindows() {
+        return windows;
+    }
+
+    /**
+     * Statistics over the latest {@code bankDays} rates of a pair. The volatility is the sample standard deviation
+     * of the daily log returns, null until the pair has at least three rates.
+     */
+    public static class Window {
+
+        private final int bankDays;
+        private final int observations;
+        private final double movingAverage;
+        private final Double volatility;
+
+        public Window(int bankDays, int observations, double movingAverage, Double volatility) {
+            this.bankDays = bankDays;
+            this.observations = observations;
+            this.movingAverage = movingAverage;
+            this.volatility = volatility;
+        }
+
+        public int getBankDays() {
+            return bankDays;
+        }
+
+        public int getObservations() {
+            return observations;
+        }
+
+        public double getMovingAverage() {
+            return movingAverage;
+        }
+
+        public Double getVolatility() {
+            return volatility;
+        }
+    }
+}
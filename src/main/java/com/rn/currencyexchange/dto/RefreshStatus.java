@@ -0,0 +1,60 @@
+package com.rn.currencyexchange.dto;
+
+import java.time.Instant;
+import java.time.LocalDate;
+
+public class RefreshStatus {
+
+    private final Instant lastStartedAt;
+    private final Instant lastCompletedAt;
+    private final long lastDurationMillis;
+    private final Instant lastSuccessAt;
+    private final LocalDate lastRateDate;
+    private final String lastError;
+    private final boolean refreshInProgress;
+    private final String circuitState;
+
+    public RefreshStatus(Instant lastStartedAt, Instant lastCompletedAt, long lastDurationMillis, Instant lastSuccessAt,
+                         LocalDate lastRateDate, String lastError, boolean refreshInProgress, String circuitState) {
+        this.lastStartedAt = lastStartedAt;
+        this.lastCompletedAt = lastCompletedAt;
+        this.lastDurationMillis = lastDurationMillis;
+        this.lastSuccessAt = lastSuccessAt;
+        this.lastRateDate = lastRateDate;
+        this.lastError = lastError;
+        this.refreshInProgress = refreshInProgress;
+        this.circuitState = circuitState;
+    }
+
+    public Instant getLastStartedAt() {
+        return lastStartedAt;
+    }
+
+    public Instant getLastCompletedAt() {
+        return lastCompletedAt;
+    }
+
+    public long getLastDurationMillis() {
+        return lastDurationMillis;
+    }
+
+    public Instant getLastSuccessAt() {
+        return lastSuccessAt;
+    }
+
+    public LocalDate getLastRateDate() {
+        return lastRateDate;
+    }
+
+    public String getLastError() {
+        return lastError;
+    }
+
+    public boolean isRefreshInProgress() {
+        return refreshInProgress;
+    }
+
+    public String getCircuitState() {
+        return circuitState;
+    }
+}
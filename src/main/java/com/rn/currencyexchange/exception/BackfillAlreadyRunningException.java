@@ -0,0 +1,7 @@
+package com.rn.currencyexchange.exception;
+
+public class BackfillAlreadyRunningException extends RuntimeException {
+    public BackfillAlreadyRunningException(String message) {
+        super(message);
+    }
+}
@@ -23,6 +23,17 @@ public class GlobalExceptionHandler {
         return buildResponse(HttpStatus.BAD_REQUEST, ex.getMessage());
     }
 
+    /**
+     * Handles BackfillAlreadyRunningException, thrown when a backfill is started while another one is running.
+     *
+     * @param ex the exception
+     * @return a ResponseEntity containing error details with HTTP 409 Conflict
+     */
+    @ExceptionHandler(BackfillAlreadyRunningException.class)
+    public ResponseEntity<Map<String, String>> handleBackfillAlreadyRunningException(BackfillAlreadyRunningException ex) {
+        return buildResponse(HttpStatus.CONFLICT, ex.getMessage());
+    }
+
     /**
      * Handles RiksbankApiException thrown when there is an issue calling the Riksbank API.
      *
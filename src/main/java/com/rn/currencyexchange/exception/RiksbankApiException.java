@@ -4,4 +4,8 @@ public class RiksbankApiException extends RuntimeException {
     public RiksbankApiException(String message) {
         super(message);
     }
+
+    public RiksbankApiException(String message, Throwable cause) {
+        super(message, cause);
+    }
 }
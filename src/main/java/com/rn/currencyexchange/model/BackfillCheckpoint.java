@@ -0,0 +1,120 @@
+package com.rn.currencyexchange.model;
+
+import jakarta.persistence.*;
+
+import java.time.Instant;
+import java.time.LocalDate;
+
+@Entity
+public class BackfillCheckpoint {
+
+    public enum State {
+        RUNNING,
+        FAILED,
+        COMPLETED
+    }
+
+    public static final int MAX_ERROR_LENGTH = 1000;
+
+    @Id
+    private String id;
+
+    private LocalDate fromDate;
+
+    private LocalDate toDate;
+
+    private LocalDate nextDate;
+
+    private long rowsWritten;
+
+    @Enumerated(EnumType.STRING)
+    private State state;
+
+    @Column(length = MAX_ERROR_LENGTH)
+    private String lastError;
+
+    private Instant updatedAt;
+
+    public BackfillCheckpoint() {
+    }
+
+    public BackfillCheckpoint(LocalDate fromDate, LocalDate toDate) {
+        this.id = idOf(fromDate, toDate);
+        this.fromDate = fromDate;
+        this.toDate = toDate;
+        this.nextDate = fromDate;
+        this.state = State.RUNNING;
+        this.updatedAt = Instant.now();
+    }
+
+    public static String idOf(LocalDate fromDate, LocalDate toDate) {
+        return fromDate + "/" + toDate;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public LocalDate getFromDate() {
+        return fromDate;
+    }
+
+    public void setFromDate(LocalDate fromDate) {
+        this.fromDate = fromDate;
+    }
+
+    public LocalDate getToDate() {
+        return toDate;
+    }
+
+    public void setToDate(LocalDate toDate) {
+        this.toDate = toDate;
+    }
+
+    public LocalDate getNextDate() {
+        return nextDate;
+    }
+
+    public void setNextDate(LocalDate nextDate) {
+        this.nextDate = nextDate;
+    }
+
+    public long getRowsWritten() {
+        return rowsWritten;
+    }
+
+    public void setRowsWritten(long rowsWritten) {
+        this.rowsWritten = rowsWritten;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    public void setState(State state) {
+        this.state = state;
+    }
+
+    public String getLastError() {
+        return lastError;
+    }
+
+    /**
+     * Sets the error of a failed run, truncated to the length of the column.
+     */
+    public void setLastError(String lastError) {
+        this.lastError = lastError == null || lastError.length() <= MAX_ERROR_LENGTH ? lastError : lastError.substring(0, MAX_ERROR_LENGTH);
+    }
+
+    public Instant getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(Instant updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
@@ -1,24 +1,177 @@
 package com.rn.currencyexchange.model;
 
-public enum Currency {
-    SEK("SEKETT", 1),
-    EUR("SEKEURPMI", 2),
-    USD("SEKUSDPMI", 3);
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
 
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A currency with a Riksbank SEK series. Every registered currency has a dense index starting at 0,
+ * so rates of all currency pairs can be held in arrays of size count * count.
+ * SEK, EUR and USD are always registered. Further currencies are registered once at startup, before any rates are
+ * loaded, after which the registry is frozen so indices never change. Instances are unique per code and can be compared with ==.
+ */
+public final class Currency {
+
+    private static final Object LOCK = new Object();
+    private static volatile Currency[] currencies = new Currency[0];
+    private static volatile Map<String, Currency> byCode = Map.of();
+    private static volatile Map<String, Currency> bySeriesId = Map.of();
+    private static volatile boolean frozen;
+
+    public static final Currency SEK = register("SEK", "SEKETT");
+    public static final Currency EUR = register("EUR", "SEKEURPMI");
+    public static final Currency USD = register("USD", "SEKUSDPMI");
+
+    private final String code;
     private final String seriesId;
-    private final int id;
+    private final int unit;
+    private final int index;
 
-    Currency(String seriesId, int id) {
+    private Currency(String code, String seriesId, int unit, int index) {
+        this.code = code;
         this.seriesId = seriesId;
-        this.id = id;
+        this.unit = unit;
+        this.index = index;
+    }
+
+    /**
+     * Registers a currency whose series is quoted per unit of the currency.
+     *
+     * @param code     the ISO 4217 code, e.g. NOK
+     * @param seriesId the Riksbank series with the number of SEK per unit of the currency, e.g. SEKNOKPMI
+     * @return the registered currency
+     * @throws IllegalStateException if the registry is frozen
+     * @see #register(String, String, int)
+     */
+    public static Currency register(String code, String seriesId) {
+        return register(code, seriesId, 1);
+    }
+
+    /**
+     * Registers a currency and assigns it the next free index. Registering a code again returns the existing currency.
+     *
+     * @param code     the ISO 4217 code, e.g. JPY
+     * @param seriesId the Riksbank series with the number of SEK per {@code unit} units of the currency, e.g. SEKJPYPMI
+     * @param unit     the number of units of the currency the series is quoted for, e.g. 100 for JPY
+     * @return the registered currency
+     * @throws IllegalStateException if the registry is frozen
+     */
+    public static Currency register(String code, String seriesId, int unit) {
+        synchronized (LOCK) {
+            Currency existing = byCode.get(code);
+            if (existing != null) {
+                return existing;
+            }
+
+            if (frozen) {
+                throw new IllegalStateException("Currencies can only be registered during startup, " + code + " was not registered");
+            }
+
+            Currency currency = new Currency(code, seriesId, unit, currencies.length);
+
+            Map<String, Currency> codes = new HashMap<>(byCode);
+            codes.put(code, currency);
+            Map<String, Currency> seriesIds = new HashMap<>(bySeriesId);
+            seriesIds.put(seriesId, currency);
+
+            byCode = Map.copyOf(codes);
+            bySeriesId = Map.copyOf(seriesIds);
+            currencies = Arrays.copyOf(currencies, currencies.length + 1);
+            currencies[currency.index] = currency;
+
+            return currency;
+        }
+    }
+
+    /**
+     * Stops further registrations, so every array sized by {@link #count()} stays valid.
+     */
+    public static void freeze() {
+        synchronized (LOCK) {
+            frozen = true;
+        }
+    }
+
+    /**
+     * Returns all registered currencies in index order.
+     *
+     * @return a new array of the currencies
+     */
+    public static Currency[] values() {
+        return currencies.clone();
+    }
+
+    /**
+     * Returns the number of registered currencies.
+     */
+    public static int count() {
+        return currencies.length;
+    }
+
+    /**
+     * Returns the currency at the given index.
+     *
+     * @param index the currency index
+     * @return the currency
+     * @throws ArrayIndexOutOfBoundsException if no currency has the index
+     */
+    public static Currency ofIndex(int index) {
+        return currencies[index];
+    }
+
+    /**
+     * Returns the registered currency with the given code.
+     *
+     * @param code the currency code
+     * @return the currency
+     * @throws IllegalArgumentException if the currency is not registered
+     */
+    @JsonCreator
+    public static Currency valueOf(String code) {
+        Currency currency = byCode.get(code);
+
+        if (currency == null) {
+            throw new IllegalArgumentException("Unknown currency " + code);
+        }
+
+        return currency;
+    }
+
+    /**
+     * Returns the registered currency of a Riksbank series.
+     *
+     * @param seriesId the series id
+     * @return the currency, or null if no registered currency has the series
+     */
+    public static Currency ofSeriesId(String seriesId) {
+        return bySeriesId.get(seriesId);
+    }
+
+    @JsonValue
+    public String getCode() {
+        return code;
     }
 
     public String getSeriesId() {
         return seriesId;
     }
 
-    public int getId() {
-        return id;
+    /**
+     * Returns the number of units of the currency its SEK series is quoted for, e.g. 100 for JPY and 1 for most currencies.
+     */
+    public int getUnit() {
+        return unit;
     }
-}
 
+    public int getIndex() {
+        return index;
+    }
+
+    @Override
+    public String toString() {
+        return code;
+    }
+}
@@ -0,0 +1,21 @@
+package com.rn.currencyexchange.model;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+/**
+ * Stores a currency by its code.
+ */
+@Converter(autoApply = true)
+public class CurrencyConverter implements AttributeConverter<Currency, String> {
+
+    @Override
+    public String convertToDatabaseColumn(Currency currency) {
+        return currency == null ? null : currency.getCode();
+    }
+
+    @Override
+    public Currency convertToEntityAttribute(String code) {
+        return code == null ? null : Currency.valueOf(code);
+    }
+}
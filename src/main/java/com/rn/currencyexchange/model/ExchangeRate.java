@@ -6,17 +6,22 @@ import java.math.BigDecimal;
 import java.time.LocalDate;
 
 @Entity
+@Table(uniqueConstraints = @UniqueConstraint(
+        name = "uk_exchange_rate_pair_date",
+        columnNames = {"from_currency", "to_currency", "rate_date"}))
 public class ExchangeRate {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "exchange_rate_seq")
+    @SequenceGenerator(name = "exchange_rate_seq", sequenceName = "exchange_rate_seq", allocationSize = 50)
     private Long id;
 
+    @Column(precision = 38, scale = 16)
     private BigDecimal conversionRate;
 
-    @Enumerated(EnumType.STRING)
+    @Column(length = 3)
     private Currency fromCurrency;
 
-    @Enumerated(EnumType.STRING)
+    @Column(length = 3)
     private Currency toCurrency;
 
     private LocalDate rateDate;
@@ -0,0 +1,34 @@
+package com.rn.currencyexchange.model;
+
+import java.math.BigDecimal;
+
+public class Observation {
+
+    private String seriesId;
+    private String date;
+    private BigDecimal value;
+
+    public String getSeriesId() {
+        return seriesId;
+    }
+
+    public void setSeriesId(String seriesId) {
+        this.seriesId = seriesId;
+    }
+
+    public String getDate() {
+        return date;
+    }
+
+    public void setDate(String date) {
+        this.date = date;
+    }
+
+    public BigDecimal getValue() {
+        return value;
+    }
+
+    public void setValue(BigDecimal value) {
+        this.value = value;
+    }
+}
@@ -0,0 +1,59 @@
+package com.rn.currencyexchange.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+
+import java.time.Instant;
+import java.time.LocalDate;
+
+/**
+ * A lease on a refresh shared by all nodes through the database. The node named by holder runs the refresh until
+ * the lease is released or expires, and rateDate is the newest rate date stored by a completed refresh.
+ */
+@Entity
+public class RefreshLease {
+
+    @Id
+    private String id;
+
+    private String holder;
+
+    private Instant expiresAt;
+
+    private LocalDate rateDate;
+
+    public RefreshLease() {
+    }
+
+    public RefreshLease(String id) {
+        this.id = id;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getHolder() {
+        return holder;
+    }
+
+    public void setHolder(String holder) {
+        this.holder = holder;
+    }
+
+    public Instant getExpiresAt() {
+        return expiresAt;
+    }
+
+    public void setExpiresAt(Instant expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+
+    public LocalDate getRateDate() {
+        return rateDate;
+    }
+
+    public void setRateDate(LocalDate rateDate) {
+        this.rateDate = rateDate;
+    }
+}
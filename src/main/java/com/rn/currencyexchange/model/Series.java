@@ -0,0 +1,41 @@
+package com.rn.currencyexchange.model;
+
+public class Series {
+
+    private String seriesId;
+    private String shortDescription;
+    private String longDescription;
+    private boolean seriesClosed;
+
+    public String getSeriesId() {
+        return seriesId;
+    }
+
+    public void setSeriesId(String seriesId) {
+        this.seriesId = seriesId;
+    }
+
+    public String getShortDescription() {
+        return shortDescription;
+    }
+
+    public void setShortDescription(String shortDescription) {
+        this.shortDescription = shortDescription;
+    }
+
+    public String getLongDescription() {
+        return longDescription;
+    }
+
+    public void setLongDescription(String longDescription) {
+        this.longDescription = longDescription;
+    }
+
+    public boolean isSeriesClosed() {
+        return seriesClosed;
+    }
+
+    public void setSeriesClosed(boolean seriesClosed) {
+        this.seriesClosed = seriesClosed;
+    }
+}
@@ -0,0 +1,16 @@
+package com.rn.currencyexchange.repository;
+
+import com.rn.currencyexchange.model.BackfillCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface BackfillCheckpointRepository extends JpaRepository<BackfillCheckpoint, String> {
+
+    List<BackfillCheckpoint> findByState(BackfillCheckpoint.State state);
+
+    Optional<BackfillCheckpoint> findFirstByOrderByUpdatedAtDesc();
+}
@@ -1,18 +1,66 @@
 package com.rn.currencyexchange.repository;
 
+import com.rn.currencyexchange.dto.ExchangeRateView;
 import com.rn.currencyexchange.model.Currency;
 import com.rn.currencyexchange.model.ExchangeRate;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface ExchangeRateRepository extends JpaRepository<ExchangeRate, Long> {
+public interface ExchangeRateRepository extends JpaRepository<ExchangeRate, Long>, ExchangeRateRepositoryCustom {
 
     Optional<ExchangeRate> findByFromCurrencyAndToCurrencyAndRateDate(Currency from, Currency to, LocalDate rateDate);
 
-    Optional<ExchangeRate> findFirstByFromCurrencyAndToCurrencyOrderByRateDateDesc(Currency fromCurrency, Currency toCurrency);
+    List<ExchangeRate> findByRateDate(LocalDate rateDate);
+
+    /**
+     * Returns the latest rate of every currency pair in a single query. Rates are ranked newest first within their pair
+     * in one pass over the table, instead of looking up the newest date of the pair for every row.
+     *
+     * @return the latest rates, projected without managed entities
+     */
+    @Query("select new com.rn.currencyexchange.dto.ExchangeRateView(latest.fromCurrency, latest.toCurrency, latest.conversionRate, latest.rateDate) " +
+            "from (select r.fromCurrency as fromCurrency, r.toCurrency as toCurrency, r.conversionRate as conversionRate, r.rateDate as rateDate, " +
+            "row_number() over (partition by r.fromCurrency, r.toCurrency order by r.rateDate desc) as position " +
+            "from ExchangeRate r) latest " +
+            "where latest.position = 1")
+    List<ExchangeRateView> findAllLatestRates();
+
+    /**
+     * Returns the latest rate of a currency pair, projected without a managed entity.
+     */
+    @Query("select new com.rn.currencyexchange.dto.ExchangeRateView(r.fromCurrency, r.toCurrency, r.conversionRate, r.rateDate) " +
+            "from ExchangeRate r " +
+            "where r.fromCurrency = :fromCurrency and r.toCurrency = :toCurrency and r.rateDate = " +
+            "(select max(l.rateDate) from ExchangeRate l where l.fromCurrency = :fromCurrency and l.toCurrency = :toCurrency)")
+    Optional<ExchangeRateView> findLatestRate(@Param("fromCurrency") Currency fromCurrency, @Param("toCurrency") Currency toCurrency);
+
+    /**
+     * Returns the rate of a currency pair on the given date, or on the closest earlier date with a rate,
+     * projected without a managed entity.
+     */
+    @Query("select new com.rn.currencyexchange.dto.ExchangeRateView(r.fromCurrency, r.toCurrency, r.conversionRate, r.rateDate) " +
+            "from ExchangeRate r " +
+            "where r.fromCurrency = :fromCurrency and r.toCurrency = :toCurrency and r.rateDate = " +
+            "(select max(l.rateDate) from ExchangeRate l where l.fromCurrency = :fromCurrency and l.toCurrency = :toCurrency and l.rateDate <= :rateDate)")
+    Optional<ExchangeRateView> findRateOnOrBefore(@Param("fromCurrency") Currency fromCurrency, @Param("toCurrency") Currency toCurrency,
+                                                  @Param("rateDate") LocalDate rateDate);
+
+    @Query("select r from ExchangeRate r order by r.rateDate")
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<ExchangeRate> streamAllOrderedByRateDate();
 }
 
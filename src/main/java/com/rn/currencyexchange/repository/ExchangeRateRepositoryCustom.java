@@ -0,0 +1,32 @@
+package com.rn.currencyexchange.repository;
+
+import com.rn.currencyexchange.model.Currency;
+import com.rn.currencyexchange.model.ExchangeRate;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.stream.Stream;
+
+public interface ExchangeRateRepositoryCustom {
+
+    /**
+     * Inserts or updates the given rates in JDBC batches, keyed on currency pair and rate date.
+     * Writing the same rates again only updates the conversion rate, so retries never create duplicate rows.
+     *
+     * @param rates the rates to write
+     */
+    void upsertAll(Collection<ExchangeRate> rates);
+
+    /**
+     * Streams the matching rates from a forward-only JDBC cursor, ordered by currency pair and rate date.
+     * Rows are fetched in pages and mapped to detached entities, so memory use does not grow with the number of rows.
+     * The stream holds a database connection and must be closed.
+     *
+     * @param fromCurrency only rates from this currency, or null for all
+     * @param toCurrency   only rates to this currency, or null for all
+     * @param fromDate     first rate date, inclusive, or null for no lower bound
+     * @param toDate       last rate date, inclusive, or null for no upper bound
+     * @return the matching rates
+     */
+    Stream<ExchangeRate> streamRates(Currency fromCurrency, Currency toCurrency, LocalDate fromDate, LocalDate toDate);
+}
@@ -0,0 +1,92 @@
+package com.rn.currencyexchange.repository;
+
+import com.rn.currencyexchange.model.Currency;
+import com.rn.currencyexchange.model.ExchangeRate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+public class ExchangeRateRepositoryCustomImpl implements ExchangeRateRepositoryCustom {
+
+    private static final int BATCH_SIZE = 500;
+    private static final int FETCH_SIZE = 1_000;
+
+    private static final String UPSERT_SQL = """
+            MERGE INTO exchange_rate target
+            USING (VALUES (CAST(? AS VARCHAR(3)), CAST(? AS VARCHAR(3)), CAST(? AS DATE), CAST(? AS NUMERIC(38, 16))))
+                AS source (from_currency, to_currency, rate_date, conversion_rate)
+            ON target.from_currency = source.from_currency
+                AND target.to_currency = source.to_currency
+                AND target.rate_date = source.rate_date
+            WHEN MATCHED THEN
+                UPDATE SET conversion_rate = source.conversion_rate
+            WHEN NOT MATCHED THEN
+                INSERT (id, from_currency, to_currency, rate_date, conversion_rate)
+                VALUES (NEXT VALUE FOR exchange_rate_seq, source.from_currency, source.to_currency, source.rate_date, source.conversion_rate)
+            """;
+
+    private static final String STREAM_SQL = "SELECT from_currency, to_currency, rate_date, conversion_rate FROM exchange_rate WHERE 1 = 1";
+
+    // Matches the unique index on pair and date, so the rows are read in index order without sorting
+    private static final String STREAM_ORDER = " ORDER BY from_currency, to_currency, rate_date";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Override
+    @Transactional
+    public void upsertAll(Collection<ExchangeRate> rates) {
+        jdbcTemplate.batchUpdate(UPSERT_SQL, rates, BATCH_SIZE, (statement, rate) -> {
+            statement.setString(1, rate.getFromCurrency().getCode());
+            statement.setString(2, rate.getToCurrency().getCode());
+            statement.setDate(3, Date.valueOf(rate.getRateDate()));
+            statement.setBigDecimal(4, rate.getConversionRate());
+        });
+    }
+
+    @Override
+    public Stream<ExchangeRate> streamRates(Currency fromCurrency, Currency toCurrency, LocalDate fromDate, LocalDate toDate) {
+        StringBuilder sql = new StringBuilder(STREAM_SQL);
+        List<Object> parameters = new ArrayList<>();
+
+        if (fromCurrency != null) {
+            sql.append(" AND from_currency = ?");
+            parameters.add(fromCurrency.getCode());
+        }
+        if (toCurrency != null) {
+            sql.append(" AND to_currency = ?");
+            parameters.add(toCurrency.getCode());
+        }
+        if (fromDate != null) {
+            sql.append(" AND rate_date >= ?");
+            parameters.add(Date.valueOf(fromDate));
+        }
+        if (toDate != null) {
+            sql.append(" AND rate_date <= ?");
+            parameters.add(Date.valueOf(toDate));
+        }
+        sql.append(STREAM_ORDER);
+
+        return jdbcTemplate.queryForStream(connection -> {
+            PreparedStatement statement = connection.prepareStatement(sql.toString(), ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(FETCH_SIZE);
+            for (int i = 0; i < parameters.size(); i++) {
+                statement.setObject(i + 1, parameters.get(i));
+            }
+            return statement;
+        }, (resultSet, rowNum) -> new ExchangeRate(
+                Currency.valueOf(resultSet.getString(1)),
+                Currency.valueOf(resultSet.getString(2)),
+                resultSet.getBigDecimal(4),
+                resultSet.getDate(3).toLocalDate()));
+    }
+}
@@ -0,0 +1,39 @@
+package com.rn.currencyexchange.repository;
+
+import com.rn.currencyexchange.model.RefreshLease;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.time.LocalDate;
+
+@Repository
+public interface RefreshLeaseRepository extends JpaRepository<RefreshLease, String> {
+
+    /**
+     * Takes the lease if it is free, expired or already held by the holder. The conditional update is atomic,
+     * so when several nodes try at once exactly one of them gets the lease.
+     *
+     * @return 1 if the holder now holds the lease, otherwise 0
+     */
+    @Transactional
+    @Modifying
+    @Query("update RefreshLease l set l.holder = :holder, l.expiresAt = :expiresAt " +
+            "where l.id = :id and (l.holder is null or l.holder = :holder or l.expiresAt < :now)")
+    int acquire(@Param("id") String id, @Param("holder") String holder, @Param("now") Instant now, @Param("expiresAt") Instant expiresAt);
+
+    /**
+     * Releases the lease if it is held by the holder and records the rate date stored by the refresh, if any.
+     *
+     * @return 1 if the lease was released, 0 if the holder no longer held it
+     */
+    @Transactional
+    @Modifying
+    @Query("update RefreshLease l set l.holder = null, l.expiresAt = null, l.rateDate = coalesce(:rateDate, l.rateDate) " +
+            "where l.id = :id and l.holder = :holder")
+    int release(@Param("id") String id, @Param("holder") String holder, @Param("rateDate") LocalDate rateDate);
+}
@@ -0,0 +1,291 @@
+package com.rn.currencyexchange.service;
+
+import com.rn.currencyexchange.dto.BackfillStatus;
+import com.rn.currencyexchange.exception.BackfillAlreadyRunningException;
+import com.rn.currencyexchange.model.BackfillCheckpoint;
+import com.rn.currencyexchange.model.Currency;
+import com.rn.currencyexchange.model.ExchangeRate;
+import com.rn.currencyexchange.model.Observation;
+import com.rn.currencyexchange.repository.BackfillCheckpointRepository;
+import com.rn.currencyexchange.repository.ExchangeRateRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Loads historical exchange rates for a date range from Riksbanken.
+ * The range is processed in pages: the SEK series of every currency is fetched once per page, cross rates are
+ * computed locally and written in JDBC batches. Progress is checkpointed after every page, so a restart or an
+ * upstream failure resumes from the first unfinished page.
+ */
+@Service
+public class BackfillService {
+
+    private static final Logger log = LoggerFactory.getLogger(BackfillService.class);
+
+    @Autowired
+    private RiksbankApiService riksbankApiService;
+
+    @Autowired
+    private RiksbankFetchExecutor riksbankFetchExecutor;
+
+    @Autowired
+    private ExchangeRateRepository exchangeRateRepository;
+
+    @Autowired
+    private BackfillCheckpointRepository backfillCheckpointRepository;
+
+    @Autowired
+    private HistoricalRateStore historicalRateStore;
+
+    @Autowired
+    private ExchangeRateService exchangeRateService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${riksbank.backfill.page-days:366}")
+    private int pageDays = 366;
+
+    @Value("${riksbank.backfill.write-batch-size:5000}")
+    private int writeBatchSize = 5000;
+
+    @Value("${riksbank.backfill.max-attempts:5}")
+    private int maxAttempts = 5;
+
+    @Value("${riksbank.backfill.initial-backoff:2s}")
+    private Duration initialBackoff = Duration.ofSeconds(2);
+
+    @Value("${riksbank.refresh.rate-precision:16}")
+    private int ratePrecision = 16;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    private volatile long runStartedNanos;
+    private volatile long rowsWrittenThisRun;
+    private volatile double lastRowsPerSecond;
+
+    /**
+     * Starts a backfill of the given date range in the background, resuming from its checkpoint if the
+     * same range has been started before.
+     *
+     * @param fromDate first date of the range, inclusive
+     * @param toDate   last date of the range, inclusive
+     * @return the status of the started backfill
+     * @throws IllegalArgumentException        if the range is invalid
+     * @throws BackfillAlreadyRunningException if a backfill is already running
+     */
+    public BackfillStatus start(LocalDate fromDate, LocalDate toDate) {
+        if (fromDate.isAfter(toDate)) {
+            throw new IllegalArgumentException("Backfill fromDate must not be after toDate");
+        }
+
+        if (!running.compareAndSet(false, true)) {
+            throw new BackfillAlreadyRunningException("A backfill is already running");
+        }
+
+        BackfillCheckpoint checkpoint;
+
+        try {
+            checkpoint = backfillCheckpointRepository.findById(BackfillCheckpoint.idOf(fromDate, toDate))
+                    .orElseGet(() -> new BackfillCheckpoint(fromDate, toDate));
+            checkpoint.setState(BackfillCheckpoint.State.RUNNING);
+            checkpoint.setLastError(null);
+            checkpoint.setUpdatedAt(Instant.now());
+            checkpoint = backfillCheckpointRepository.save(checkpoint);
+        } catch (RuntimeException ex) {
+            running.set(false);
+            throw ex;
+        }
+
+        BackfillCheckpoint started = checkpoint;
+        Thread.ofVirtual().name("rate-backfill").start(() -> run(started));
+
+        return new BackfillStatus(started, 0);
+    }
+
+    /**
+     * Returns the status of the most recently updated backfill.
+     *
+     * @return the backfill status
+     * @throws IllegalArgumentException if no backfill has been started
+     */
+    public BackfillStatus getStatus() {
+        BackfillCheckpoint checkpoint = backfillCheckpointRepository.findFirstByOrderByUpdatedAtDesc()
+                .orElseThrow(() -> new IllegalArgumentException("No backfill has been started"));
+
+        return new BackfillStatus(checkpoint, running.get() ? currentRowsPerSecond() : lastRowsPerSecond);
+    }
+
+    /**
+     * Resumes a backfill that was still running when the application stopped.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeInterruptedBackfill() {
+        backfillCheckpointRepository.findByState(BackfillCheckpoint.State.RUNNING).stream()
+                .findFirst()
+                .ifPresent(checkpoint -> {
+                    log.info("Resuming backfill {} from {}", checkpoint.getId(), checkpoint.getNextDate());
+                    start(checkpoint.getFromDate(), checkpoint.getToDate());
+                });
+    }
+
+    void run(BackfillCheckpoint checkpoint) {
+        runStartedNanos = System.nanoTime();
+        rowsWrittenThisRun = 0;
+
+        try {
+            while (!checkpoint.getNextDate().isAfter(checkpoint.getToDate())) {
+                LocalDate pageStart = checkpoint.getNextDate();
+                LocalDate pageEnd = pageStart.plusDays(pageDays - 1L);
+                if (pageEnd.isAfter(checkpoint.getToDate())) {
+                    pageEnd = checkpoint.getToDate();
+                }
+
+                long rows = backfillPageWithRetries(pageStart, pageEnd);
+
+                rowsWrittenThisRun += rows;
+                checkpoint.setNextDate(pageEnd.plusDays(1));
+                checkpoint.setRowsWritten(checkpoint.getRowsWritten() + rows);
+                checkpoint.setUpdatedAt(Instant.now());
+                backfillCheckpointRepository.save(checkpoint);
+            }
+
+            checkpoint.setState(BackfillCheckpoint.State.COMPLETED);
+            log.info("Backfill {} completed, {} rows at {} rows/s", checkpoint.getId(), checkpoint.getRowsWritten(), Math.round(currentRowsPerSecond()));
+
+            historicalRateStore.loadFromRepository();
+            exchangeRateService.loadLatestRatesFromRepository();
+            eventPublisher.publishEvent(new RatesUpdatedEvent(exchangeRateService.getLatestRateSnapshot().getExchangeRates()));
+        } catch (RuntimeException ex) {
+            log.error("Backfill {} failed at {}", checkpoint.getId(), checkpoint.getNextDate(), ex);
+            checkpoint.setState(BackfillCheckpoint.State.FAILED);
+            checkpoint.setLastError(ex.getMessage());
+        } finally {
+            try {
+                lastRowsPerSecond = currentRowsPerSecond();
+                checkpoint.setUpdatedAt(Instant.now());
+                backfillCheckpointRepository.save(checkpoint);
+            } catch (RuntimeException ex) {
+                log.error("Could not save the final state of backfill {}", checkpoint.getId(), ex);
+            } finally {
+                // A failed save must not block every later backfill
+                running.set(false);
+            }
+        }
+    }
+
+    private long backfillPageWithRetries(LocalDate pageStart, LocalDate pageEnd) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return backfillPage(pageStart, pageEnd);
+            } catch (RuntimeException ex) {
+                if (attempt >= maxAttempts) {
+                    throw ex;
+                }
+
+                Duration backoff = initialBackoff.multipliedBy(1L << (attempt - 1));
+                log.warn("Backfill of {} to {} failed on attempt {}, retrying in {}: {}", pageStart, pageEnd, attempt, backoff, ex.getMessage());
+                sleep(backoff);
+            }
+        }
+    }
+
+    /**
+     * Fetches one page of SEK observations for every currency and writes the triangulated cross rates.
+     * Only days where every currency has an observation are written.
+     *
+     * @return the number of rows written
+     */
+    private long backfillPage(LocalDate pageStart, LocalDate pageEnd) {
+        Currency[] currencies = Currency.values();
+        List<Currency> fetchedCurrencies = Arrays.stream(currencies).filter(currency -> currency != Currency.SEK).toList();
+
+        List<Callable<List<Observation>>> fetches = new ArrayList<>();
+        for (Currency currency : fetchedCurrencies) {
+            fetches.add(() -> riksbankApiService.getSekObservations(currency, pageStart, pageEnd));
+        }
+        List<List<Observation>> observations = riksbankFetchExecutor.invokeAll(fetches);
+
+        // Value of the SEK series of every currency, indexed by day within the page and currency index
+        BigDecimal[][] sekQuotes = new BigDecimal[(int) ChronoUnit.DAYS.between(pageStart, pageEnd) + 1][];
+
+        for (int i = 0; i < fetchedCurrencies.size(); i++) {
+            int currencyIndex = fetchedCurrencies.get(i).getIndex();
+
+            for (Observation observation : observations.get(i)) {
+                int day = (int) ChronoUnit.DAYS.between(pageStart, LocalDate.parse(observation.getDate()));
+
+                if (day >= 0 && day < sekQuotes.length) {
+                    if (sekQuotes[day] == null) {
+                        sekQuotes[day] = new BigDecimal[currencies.length];
+                        sekQuotes[day][Currency.SEK.getIndex()] = BigDecimal.ONE;
+                    }
+                    sekQuotes[day][currencyIndex] = observation.getValue();
+                }
+            }
+        }
+
+        MathContext mathContext = new MathContext(ratePrecision, RoundingMode.HALF_EVEN);
+        List<ExchangeRate> batch = new ArrayList<>(writeBatchSize);
+        long rows = 0;
+
+        for (int day = 0; day < sekQuotes.length; day++) {
+            if (sekQuotes[day] == null || Arrays.stream(sekQuotes[day]).anyMatch(Objects::isNull)) {
+                continue;
+            }
+
+            batch.addAll(CrossRateTriangulator.triangulate(sekQuotes[day], pageStart.plusDays(day), mathContext));
+
+            if (batch.size() >= writeBatchSize) {
+                rows += flush(batch);
+            }
+        }
+
+        return rows + flush(batch);
+    }
+
+    private long flush(List<ExchangeRate> batch) {
+        if (batch.isEmpty()) {
+            return 0;
+        }
+
+        exchangeRateRepository.upsertAll(batch);
+        int rows = batch.size();
+        batch.clear();
+        return rows;
+    }
+
+    private double currentRowsPerSecond() {
+        double seconds = (System.nanoTime() - runStartedNanos) / 1_000_000_000.0;
+        return seconds > 0 ? rowsWrittenThisRun / seconds : 0;
+    }
+
+    private void sleep(Duration duration) {
+        try {
+            Thread.sleep(duration);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Backfill was interrupted", ex);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.rn.currencyexchange.service;
+
+import com.rn.currencyexchange.model.CalendarDay;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+
+/**
+ * Immutable calendar of Swedish bank days for a fixed date range.
+ * Bank days are stored as sorted epoch days so lookups are a binary search without any allocation.
+ */
+public final class BankDayCalendar {
+
+    public static final BankDayCalendar EMPTY = new BankDayCalendar(LocalDate.MAX, LocalDate.MIN, new long[0]);
+
+    private final LocalDate firstDay;
+    private final LocalDate lastDay;
+    private final long[] bankDays;
+
+    private BankDayCalendar(LocalDate firstDay, LocalDate lastDay, long[] bankDays) {
+        this.firstDay = firstDay;
+        this.lastDay = lastDay;
+        this.bankDays = bankDays;
+    }
+
+    /**
+     * Builds a calendar covering the given range from the calendar days returned by Riksbanken.
+     *
+     * @param firstDay     first day of the range, inclusive
+     * @param lastDay      last day of the range, inclusive
+     * @param calendarDays the calendar days in the range
+     * @return a new calendar
+     */
+    public static BankDayCalendar of(LocalDate firstDay, LocalDate lastDay, CalendarDay[] calendarDays) {
+        long[] bankDays = Arrays.stream(calendarDays)
+                .filter(CalendarDay::isSwedishBankday)
+                .mapToLong(day -> LocalDate.parse(day.getCalendarDate()).toEpochDay())
+                .filter(day -> day >= firstDay.toEpochDay() && day <= lastDay.toEpochDay())
+                .sorted()
+                .distinct()
+                .toArray();
+
+        return new BankDayCalendar(firstDay, lastDay, bankDays);
+    }
+
+    /**
+     * Returns whether the given date lies within the range of this calendar.
+     *
+     * @param date the date to check
+     * @return true if the calendar can answer lookups for the date
+     */
+    public boolean covers(LocalDate date) {
+        return !date.isBefore(firstDay) && !date.isAfter(lastDay);
+    }
+
+    /**
+     * Returns the latest Swedish bank day on or before the given date, skipping weekends and holidays.
+     *
+     * @param date the date to look up
+     * @return the latest bank day, or null if there is no bank day on or before the date within this calendar
+     */
+    public LocalDate latestBankDayOnOrBefore(LocalDate date) {
+        int index = Arrays.binarySearch(bankDays, date.toEpochDay());
+
+        // A negative result encodes the insertion point, the bank day before it is the one we want
+        if (index < 0) {
+            index = -index - 2;
+        }
+
+        return index < 0 ? null : LocalDate.ofEpochDay(bankDays[index]);
+    }
+
+    public LocalDate getFirstDay() {
+        return firstDay;
+    }
+
+    public LocalDate getLastDay() {
+        return lastDay;
+    }
+}
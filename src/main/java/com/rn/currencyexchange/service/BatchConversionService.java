@@ -0,0 +1,147 @@
+package com.rn.currencyexchange.service;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.rn.currencyexchange.dto.ConversionRequest;
+import com.rn.currencyexchange.dto.ConversionResult;
+import com.rn.currencyexchange.model.Currency;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+
+@Service
+public class BatchConversionService {
+
+    private static final int FLUSH_INTERVAL = 256;
+
+    @Autowired
+    private ExchangeRateService exchangeRateService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ExchangeRateMetrics metrics;
+
+    @Autowired
+    private FixedPointConverter fixedPointConverter;
+
+    /**
+     * Converts a stream of conversion requests and writes one NDJSON result per request as soon as it is computed.
+     * The input may be either a JSON array or newline delimited JSON objects. Only one request is held in memory
+     * at a time and each currency pair's latest rate is resolved once per batch. Requests with a rate date are
+     * looked up in the in-memory rate history.
+     * Invalid requests and failed conversions produce an error line and do not stop the batch.
+     *
+     * @param input  the request body
+     * @param output the response body
+     * @throws IOException if reading or writing the stream fails
+     */
+    public void convert(InputStream input, OutputStream output) throws IOException {
+        BatchRates rates = new BatchRates();
+
+        // The iterator unwraps a top level JSON array and otherwise reads whitespace separated root values
+        try (MappingIterator<ConversionRequest> requests = objectMapper.readerFor(ConversionRequest.class).readValues(input);
+             SequenceWriter results = objectMapper.writer().withRootValueSeparator("\n").writeValues(output)) {
+
+            long line = 0;
+
+            while (true) {
+                ConversionRequest request;
+                // A malformed value can fail in hasNextValue or nextValue, either way it is reported on its own line
+                line++;
+
+                try {
+                    if (!requests.hasNextValue()) {
+                        line--;
+                        break;
+                    }
+                    request = requests.nextValue();
+                } catch (JsonParseException ex) {
+                    // Malformed JSON cannot be resynchronised, report it and end the batch
+                    results.write(ConversionResult.failure(line, "Malformed JSON: " + ex.getOriginalMessage()));
+                    break;
+                } catch (JsonProcessingException ex) {
+                    results.write(ConversionResult.failure(line, "Invalid conversion request: " + ex.getOriginalMessage()));
+                    continue;
+                }
+
+                results.write(convert(line, request, rates));
+
+                if (line % FLUSH_INTERVAL == 0) {
+                    results.flush();
+                }
+            }
+
+            if (line > 0) {
+                results.flush();
+                output.write('\n');
+            }
+        }
+    }
+
+    private ConversionResult convert(long line, ConversionRequest request, BatchRates rates) {
+        if (request.getFromCurrency() == null || request.getToCurrency() == null || request.getAmount() == null) {
+            return ConversionResult.failure(line, "fromCurrency, toCurrency and amount are required");
+        }
+
+        long start = System.nanoTime();
+
+        try {
+            // Same as a single conversion, an amount in the target currency is returned as is
+            if (request.getFromCurrency() == request.getToCurrency()) {
+                return ConversionResult.success(line, request, request.getAmount());
+            }
+
+            BigDecimal rate = request.getRateDate() == null
+                    ? rates.get(request.getFromCurrency(), request.getToCurrency())
+                    : exchangeRateService.getRateOnOrBefore(request.getFromCurrency(), request.getToCurrency(), request.getRateDate());
+            return ConversionResult.success(line, request, fixedPointConverter.convert(request.getAmount(), rate, request.getToCurrency()));
+        } catch (RuntimeException ex) {
+            // Any failure of a single conversion is reported on its line, the response has already started
+            return ConversionResult.failure(line, messageOf(ex));
+        } finally {
+            metrics.recordConversion(request.getFromCurrency(), request.getToCurrency(), System.nanoTime() - start);
+        }
+    }
+
+    private static String messageOf(RuntimeException ex) {
+        return ex.getMessage() != null ? ex.getMessage() : ex.getClass().getSimpleName();
+    }
+
+    /**
+     * Rates resolved during a single batch, indexed by currency index. Failed lookups are remembered as well
+     * so a missing pair is only looked up once.
+     */
+    private class BatchRates {
+
+        private final int size = Currency.count();
+        private final BigDecimal[] rates = new BigDecimal[size * size];
+        private final String[] errors = new String[size * size];
+
+        BigDecimal get(Currency fromCurrency, Currency toCurrency) {
+            int index = fromCurrency.getIndex() * size + toCurrency.getIndex();
+
+            if (rates[index] == null && errors[index] == null) {
+                try {
+                    rates[index] = exchangeRateService.getLatestRate(fromCurrency, toCurrency);
+                } catch (RuntimeException ex) {
+                    errors[index] = messageOf(ex);
+                }
+            }
+
+            if (errors[index] != null) {
+                throw new IllegalArgumentException(errors[index]);
+            }
+
+            return rates[index];
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.rn.currencyexchange.service;
+
+import com.rn.currencyexchange.model.RefreshLease;
+import com.rn.currencyexchange.repository.RefreshLeaseRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Elects the node that refreshes the latest rates when several replicas share one database.
+ * <p>
+ * The lease is a single row in the refresh_lease table. A node takes it with a conditional update that only succeeds
+ * if the lease is free or has expired, so at most one node calls Riksbanken at a time. When the refresh completes the
+ * holder releases the lease and records the newest stored rate date in the same row, which the other nodes poll to
+ * reload their in-memory rates from the database. A node that dies while holding the lease blocks refreshes only
+ * until the lease expires.
+ */
+@Component
+public class ClusterRefreshLease {
+
+    static final String LATEST_RATES = "latest-rates";
+
+    private static final Duration RELEASE_POLL_INTERVAL = Duration.ofMillis(250);
+
+    @Autowired
+    private RefreshLeaseRepository refreshLeaseRepository;
+
+    @Value("${riksbank.cluster.enabled:false}")
+    private boolean enabled;
+
+    @Value("${riksbank.cluster.node-id:}")
+    private String nodeId = "";
+
+    // Must be longer than a refresh takes, or another node may start refreshing before this one is done
+    @Value("${riksbank.cluster.lease-duration:2m}")
+    private Duration leaseDuration = Duration.ofMinutes(2);
+
+    @Value("${riksbank.cluster.poll-interval:30s}")
+    private Duration pollInterval = Duration.ofSeconds(30);
+
+    @PostConstruct
+    void init() {
+        if (nodeId == null || nodeId.isBlank()) {
+            nodeId = UUID.randomUUID().toString();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    public Duration getPollInterval() {
+        return pollInterval;
+    }
+
+    /**
+     * Takes the lease for this node if no other node holds it.
+     *
+     * @return true if this node holds the lease and should refresh
+     */
+    public boolean tryAcquire() {
+        if (!refreshLeaseRepository.existsById(LATEST_RATES)) {
+            try {
+                refreshLeaseRepository.save(new RefreshLease(LATEST_RATES));
+            } catch (DataIntegrityViolationException ex) {
+                // Another node created the row first
+            }
+        }
+
+        Instant now = Instant.now();
+        return refreshLeaseRepository.acquire(LATEST_RATES, nodeId, now, now.plus(leaseDuration)) == 1;
+    }
+
+    /**
+     * Releases the lease held by this node.
+     *
+     * @param rateDate the newest rate date stored by the refresh, or null if it failed
+     */
+    public void release(LocalDate rateDate) {
+        refreshLeaseRepository.release(LATEST_RATES, nodeId, rateDate);
+    }
+
+    /**
+     * Waits until no other node holds the lease, at most for the lease duration since the lease expires by then.
+     */
+    public void awaitRelease() {
+        long deadline = System.nanoTime() + leaseDuration.toNanos();
+
+        try {
+            while (isHeldByOtherNode() && System.nanoTime() < deadline) {
+                Thread.sleep(RELEASE_POLL_INTERVAL);
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Returns the newest rate date stored by a refresh on any node.
+     *
+     * @return the rate date, or null if no refresh has completed
+     */
+    public LocalDate getPublishedRateDate() {
+        return refreshLeaseRepository.findById(LATEST_RATES)
+                .map(RefreshLease::getRateDate)
+                .orElse(null);
+    }
+
+    private boolean isHeldByOtherNode() {
+        return refreshLeaseRepository.findById(LATEST_RATES)
+                .filter(lease -> lease.getHolder() != null && !lease.getHolder().equals(nodeId))
+                .filter(lease -> lease.getExpiresAt() != null && lease.getExpiresAt().isAfter(Instant.now()))
+                .isPresent();
+    }
+}
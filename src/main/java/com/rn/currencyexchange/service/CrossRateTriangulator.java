@@ -0,0 +1,61 @@
+package com.rn.currencyexchange.service;
+
+import com.rn.currencyexchange.model.Currency;
+import com.rn.currencyexchange.model.ExchangeRate;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Computes cross rates between all currencies from their SEK rates.
+ */
+public final class CrossRateTriangulator {
+
+    private CrossRateTriangulator() {
+    }
+
+    /**
+     * Computes the rate and inverse rate for every currency pair from the values of the SEK series.
+     * Series are quoted per {@link Currency#getUnit()} units of their currency, e.g. SEK per 100 JPY,
+     * so the rate from A to B is (SEK per unit of A) / (SEK per unit of B) = (quote of A * unit of B) / (quote of B * unit of A).
+     * Rates are returned in the same order as the pair loop in {@link ExchangeRateService}, each followed by its inverse.
+     *
+     * @param sekQuotes   the value of the SEK series of each currency, indexed by currency index
+     * @param rateDate    the date of the rates
+     * @param mathContext precision and rounding used for the divisions
+     * @return all cross rates including inverse rates
+     */
+    public static List<ExchangeRate> triangulate(BigDecimal[] sekQuotes, LocalDate rateDate, MathContext mathContext) {
+        Currency[] currencies = Currency.values();
+        int[] units = new int[currencies.length];
+
+        for (Currency currency : currencies) {
+            units[currency.getIndex()] = currency.getUnit();
+        }
+
+        return triangulate(sekQuotes, units, rateDate, mathContext);
+    }
+
+    static List<ExchangeRate> triangulate(BigDecimal[] sekQuotes, int[] units, LocalDate rateDate, MathContext mathContext) {
+        Currency[] currencies = Currency.values();
+        List<ExchangeRate> rates = new ArrayList<>(currencies.length * (currencies.length - 1));
+
+        for (Currency fromCurrency : currencies) {
+            for (Currency toCurrency : currencies) {
+                if (fromCurrency.getIndex() < toCurrency.getIndex()) {
+                    // Scaling by whole units is exact, so quotes per 100 units cost no precision
+                    BigDecimal from = sekQuotes[fromCurrency.getIndex()].multiply(BigDecimal.valueOf(units[toCurrency.getIndex()]));
+                    BigDecimal to = sekQuotes[toCurrency.getIndex()].multiply(BigDecimal.valueOf(units[fromCurrency.getIndex()]));
+
+                    rates.add(new ExchangeRate(fromCurrency, toCurrency, from.divide(to, mathContext), rateDate));
+                    rates.add(new ExchangeRate(toCurrency, fromCurrency, to.divide(from, mathContext), rateDate));
+                }
+            }
+        }
+
+        return rates;
+    }
+}
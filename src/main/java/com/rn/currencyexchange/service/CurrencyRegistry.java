@@ -0,0 +1,213 @@
+package com.rn.currencyexchange.service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rn.currencyexchange.exception.RiksbankApiException;
+import com.rn.currencyexchange.model.Currency;
+import com.rn.currencyexchange.model.Series;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Registers every currency Riksbanken publishes a SEK series for, before any rates are loaded.
+ * The currencies are read from a local cache file, or from Riksbankens series metadata when the cache is missing or older
+ * than the configured max age. The metadata also gives the number of units each series is quoted for, e.g. SEK per 100 JPY. If neither is available the application starts with SEK, EUR and USD only.
+ * Once loaded the registry is frozen, so the currency indices used by the rate arrays never change.
+ */
+@Component
+// Must be frozen before any rate array is created, also with lazy initialization
+@Lazy(false)
+public class CurrencyRegistry {
+
+    private static final Logger log = LoggerFactory.getLogger(CurrencyRegistry.class);
+    private static final Pattern SEK_SERIES = Pattern.compile("SEK([A-Z]{3})PMI");
+    private static final Pattern QUOTED_UNIT = Pattern.compile("\\b(\\d+) ?([A-Z]{3})\\b");
+
+    @Autowired
+    private RiksbankApiService riksbankApiService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${riksbank.currencies.load-on-startup:true}")
+    private boolean loadOnStartup = true;
+
+    @Value("${riksbank.currencies.cache-path:data/currencies.json}")
+    private Path cachePath = Path.of("data/currencies.json");
+
+    @Value("${riksbank.currencies.cache-max-age:7d}")
+    private Duration cacheMaxAge = Duration.ofDays(7);
+
+    /**
+     * Registers the currencies in code order and freezes the registry.
+     */
+    @PostConstruct
+    public void load() {
+        if (loadOnStartup) {
+            resolveSeriesByCode().forEach((code, series) -> Currency.register(code, series.getSeriesId(), series.getUnit()));
+        }
+
+        Currency.freeze();
+        log.info("Registered {} currencies", Currency.count());
+    }
+
+    /**
+     * Returns every registered currency in index order.
+     *
+     * @return the currencies
+     */
+    public List<Currency> getCurrencies() {
+        return List.of(Currency.values());
+    }
+
+    /**
+     * Returns the series of every currency to register by currency code, from the cache if it is fresh
+     * and otherwise from Riksbanken. A stale cache is still used if Riksbanken cannot be reached.
+     */
+    Map<String, CurrencySeries> resolveSeriesByCode() {
+        Map<String, CurrencySeries> cached = readCache();
+
+        if (cached != null && !isExpired()) {
+            return cached;
+        }
+
+        try {
+            Map<String, CurrencySeries> fetched = seriesByCode(riksbankApiService.getSekExchangeRateSeries());
+            writeCache(fetched);
+            return fetched;
+        } catch (RiksbankApiException ex) {
+            log.warn("Could not load currencies from Riksbanken, using {}: {}", cached == null ? "SEK, EUR and USD" : "cached currencies", ex.getMessage());
+            return cached == null ? Map.of() : cached;
+        }
+    }
+
+    /**
+     * Maps every open SEK series of the form SEK&lt;code&gt;PMI to its currency code, ordered by code.
+     *
+     * @param series the series of the SEK exchange rate group
+     * @return the series id and quoted unit of every currency by currency code
+     */
+    static Map<String, CurrencySeries> seriesByCode(List<Series> series) {
+        Map<String, CurrencySeries> seriesByCode = new TreeMap<>();
+
+        for (Series entry : series) {
+            Matcher matcher = SEK_SERIES.matcher(entry.getSeriesId());
+
+            if (!entry.isSeriesClosed() && matcher.matches()) {
+                String code = matcher.group(1);
+                seriesByCode.put(code, new CurrencySeries(entry.getSeriesId(), quotedUnit(entry, code)));
+            }
+        }
+
+        return seriesByCode;
+    }
+
+    /**
+     * Returns the number of units of the currency a series is quoted for, read from its descriptions, e.g. 100 from
+     * "100 JPY". Series whose descriptions do not state a unit are quoted per unit.
+     */
+    static int quotedUnit(Series series, String code) {
+        for (String description : new String[]{series.getShortDescription(), series.getLongDescription()}) {
+            Matcher matcher = description == null ? null : QUOTED_UNIT.matcher(description);
+
+            while (matcher != null && matcher.find()) {
+                if (matcher.group(2).equals(code)) {
+                    return Integer.parseInt(matcher.group(1));
+                }
+            }
+        }
+
+        return 1;
+    }
+
+    private Map<String, CurrencySeries> readCache() {
+        if (!Files.exists(cachePath)) {
+            return null;
+        }
+
+        try {
+            return objectMapper.readValue(cachePath.toFile(), new TypeReference<TreeMap<String, CurrencySeries>>() {
+            });
+        } catch (IOException ex) {
+            log.warn("Ignoring currency cache {}: {}", cachePath, ex.getMessage());
+            return null;
+        }
+    }
+
+    private boolean isExpired() {
+        try {
+            Instant modified = Files.getLastModifiedTime(cachePath).toInstant();
+            return modified.plus(cacheMaxAge).isBefore(Instant.now());
+        } catch (IOException ex) {
+            return true;
+        }
+    }
+
+    private void writeCache(Map<String, CurrencySeries> seriesByCode) {
+        try {
+            Path directory = cachePath.toAbsolutePath().getParent();
+            Files.createDirectories(directory);
+            Path temp = Files.createTempFile(directory, cachePath.getFileName().toString(), ".tmp");
+
+            try {
+                objectMapper.writeValue(temp.toFile(), seriesByCode);
+                Files.move(temp, cachePath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        } catch (IOException ex) {
+            log.warn("Could not write currency cache {}: {}", cachePath, ex.getMessage());
+        }
+    }
+
+    /**
+     * The SEK series of a currency and the number of units of the currency it is quoted for.
+     */
+    static class CurrencySeries {
+
+        private String seriesId;
+        private int unit = 1;
+
+        CurrencySeries() {
+        }
+
+        CurrencySeries(String seriesId, int unit) {
+            this.seriesId = seriesId;
+            this.unit = unit;
+        }
+
+        public String getSeriesId() {
+            return seriesId;
+        }
+
+        public void setSeriesId(String seriesId) {
+            this.seriesId = seriesId;
+        }
+
+        public int getUnit() {
+            return unit;
+        }
+
+        public void setUnit(int unit) {
+            this.unit = unit;
+        }
+
+    }
+}
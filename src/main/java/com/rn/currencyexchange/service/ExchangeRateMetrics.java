@@ -0,0 +1,158 @@
+package com.rn.currencyexchange.service;
+
+import com.rn.currencyexchange.model.Currency;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Micrometer meters for Riksbank calls, conversions and refreshes.
+ * Conversion timers are kept per currency pair in an array indexed by the currency indices, so the conversion path
+ * does not look up meters by tag. The array is built on first use, after the currency registry has been loaded.
+ * Upstream timers are cached per endpoint, pair and outcome. Meters tagged by currency pair record count, total and max
+ * only, since percentile histograms for every pair would multiply the number of series by the number of buckets.
+ * Percentiles come from a timer of the same calls without the pair tag instead. Prometheus needs every meter of a name
+ * to have the same tag keys, so the per pair timers have names of their own.
+ */
+@Component
+public class ExchangeRateMetrics {
+
+    static final String UPSTREAM_REQUESTS = "riksbank.api.requests";
+    static final String UPSTREAM_PAIR_REQUESTS = "riksbank.api.pair.requests";
+    static final String CONVERSIONS = "exchange.conversions";
+    static final String PAIR_CONVERSIONS = "exchange.pair.conversions";
+    static final String REFRESHES = "exchange.refresh";
+    static final String REFRESH_ROWS = "exchange.refresh.rows";
+    static final String NO_PAIR = "none";
+
+    private final MeterRegistry meterRegistry;
+    private final Counter refreshRows;
+    private final Timer successfulRefreshes;
+    private final Timer failedRefreshes;
+    private final Timer conversions;
+    private final Map<String, Timer> upstreamTimers = new ConcurrentHashMap<>();
+    private final Map<String, Timer> upstreamPairTimers = new ConcurrentHashMap<>();
+    private volatile Timer[] conversionTimers = new Timer[0];
+
+    public ExchangeRateMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+
+        refreshRows = Counter.builder(REFRESH_ROWS)
+                .description("Exchange rates returned by refreshes")
+                .register(meterRegistry);
+        successfulRefreshes = refreshTimer("success");
+        failedRefreshes = refreshTimer("error");
+        conversions = Timer.builder(CONVERSIONS)
+                .description("Latency of currency conversions")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    /**
+     * Times a call to a Riksbank endpoint, tagged by endpoint and outcome, and once more by currency pair as well.
+     *
+     * @param endpoint the endpoint name, e.g. CrossRates
+     * @param pair     the currency pair of the call, or {@link #NO_PAIR}
+     * @param call     the call to time
+     * @return the result of the call
+     */
+    public <T> T timeUpstreamCall(String endpoint, String pair, Supplier<T> call) {
+        long start = System.nanoTime();
+        String outcome = "error";
+
+        try {
+            T result = call.get();
+            outcome = "success";
+            return result;
+        } finally {
+            long nanos = System.nanoTime() - start;
+            upstreamTimer(endpoint, outcome).record(nanos, TimeUnit.NANOSECONDS);
+            upstreamPairTimer(endpoint, pair, outcome).record(nanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Records the latency of one conversion, in total and per currency pair.
+     *
+     * @param fromCurrency source currency
+     * @param toCurrency   target currency
+     * @param nanos        time taken in nanoseconds
+     */
+    public void recordConversion(Currency fromCurrency, Currency toCurrency, long nanos) {
+        int size = Currency.count();
+        Timer[] timers = conversionTimers;
+
+        if (timers.length != size * size) {
+            timers = createConversionTimers();
+        }
+
+        conversions.record(nanos, TimeUnit.NANOSECONDS);
+        timers[fromCurrency.getIndex() * size + toCurrency.getIndex()].record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Records the duration and outcome of a refresh and the number of rates it returned.
+     *
+     * @param nanos   time taken in nanoseconds
+     * @param rows    number of rates returned, 0 if the refresh failed
+     * @param success whether the refresh succeeded
+     */
+    public void recordRefresh(long nanos, int rows, boolean success) {
+        (success ? successfulRefreshes : failedRefreshes).record(nanos, TimeUnit.NANOSECONDS);
+        refreshRows.increment(rows);
+    }
+
+    /**
+     * Returns the tag value used for a currency pair, e.g. SEK/EUR.
+     */
+    public static String pair(Currency fromCurrency, Currency toCurrency) {
+        return fromCurrency.getCode() + "/" + toCurrency.getCode();
+    }
+
+    private Timer upstreamTimer(String endpoint, String outcome) {
+        return upstreamTimers.computeIfAbsent(endpoint + " " + outcome, key -> Timer.builder(UPSTREAM_REQUESTS)
+                .description("Latency of Riksbank API requests")
+                .tags("endpoint", endpoint, "outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry));
+    }
+
+    private Timer upstreamPairTimer(String endpoint, String pair, String outcome) {
+        return upstreamPairTimers.computeIfAbsent(endpoint + " " + pair + " " + outcome, key -> Timer.builder(UPSTREAM_PAIR_REQUESTS)
+                .description("Latency of Riksbank API requests per currency pair")
+                .tags("endpoint", endpoint, "pair", pair, "outcome", outcome)
+                .register(meterRegistry));
+    }
+
+    private Timer refreshTimer(String outcome) {
+        return Timer.builder(REFRESHES)
+                .description("Duration of exchange rate refreshes")
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    private synchronized Timer[] createConversionTimers() {
+        Currency[] currencies = Currency.values();
+        Timer[] timers = new Timer[currencies.length * currencies.length];
+
+        for (Currency fromCurrency : currencies) {
+            for (Currency toCurrency : currencies) {
+                // Registering an existing timer returns it, so rebuilding the array keeps recorded values
+                timers[fromCurrency.getIndex() * currencies.length + toCurrency.getIndex()] = Timer.builder(PAIR_CONVERSIONS)
+                        .description("Latency of currency conversions per currency pair")
+                        .tag("pair", pair(fromCurrency, toCurrency))
+                        .register(meterRegistry);
+            }
+        }
+
+        conversionTimers = timers;
+        return timers;
+    }
+}
@@ -0,0 +1,339 @@
+package com.rn.currencyexchange.service;
+
+import com.rn.currencyexchange.dto.LatestExchangeRates;
+import com.rn.currencyexchange.dto.RefreshStatus;
+import com.rn.currencyexchange.exception.RiksbankApiException;
+import com.rn.currencyexchange.model.ExchangeRate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.support.CronTrigger;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Coordinates refreshes of the latest exchange rates.
+ * Concurrent refresh requests are coalesced into a single in-flight refresh whose result is shared by all callers,
+ * and a daily refresh is scheduled shortly after Riksbanken publishes new rates. Every refresh runs behind a circuit
+ * breaker, and in stale-while-revalidate mode callers get the stored rates at once while a stale snapshot is
+ * refreshed in the background.
+ * <p>
+ * When several nodes share a database only the node holding the {@link ClusterRefreshLease} calls Riksbanken.
+ * The other nodes wait for it and reload the rates it stored, and poll the lease for rate dates stored by refreshes
+ * they did not take part in.
+ */
+@Service
+public class ExchangeRateRefreshService {
+
+    private static final Logger log = LoggerFactory.getLogger(ExchangeRateRefreshService.class);
+
+    @Autowired
+    private ExchangeRateService exchangeRateService;
+
+    @Autowired
+    private RiksbankApiService riksbankApiService;
+
+    @Autowired
+    private TaskScheduler taskScheduler;
+
+    @Autowired
+    private ExchangeRateMetrics metrics;
+
+    @Autowired
+    private RiksbankCircuitBreaker circuitBreaker;
+
+    @Autowired
+    private ClusterRefreshLease clusterLease;
+
+    @Value("${riksbank.refresh.serve-stale:true}")
+    private boolean serveStale = true;
+
+    @Value("${riksbank.refresh.revalidate-interval:30s}")
+    private Duration revalidateInterval = Duration.ofSeconds(30);
+
+    @Value("${riksbank.refresh.schedule.enabled:true}")
+    private boolean scheduleEnabled;
+
+    @Value("${riksbank.refresh.schedule.delay-after-publish:5m}")
+    private Duration delayAfterPublish;
+
+    @Value("${riksbank.refresh.schedule.initial-backoff:1m}")
+    private Duration initialBackoff;
+
+    @Value("${riksbank.refresh.schedule.max-backoff:30m}")
+    private Duration maxBackoff;
+
+    @Value("${riksbank.refresh.schedule.max-attempts:10}")
+    private int maxAttempts;
+
+    private final AtomicReference<CompletableFuture<List<ExchangeRate>>> inFlight = new AtomicReference<>();
+
+    private final AtomicReference<Instant> lastRevalidation = new AtomicReference<>(Instant.MIN);
+
+    private volatile RefreshStatus lastStatus = new RefreshStatus(null, null, 0, null, null, null, false, null);
+
+    /**
+     * Returns the latest exchange rates. In stale-while-revalidate mode the stored rates are returned immediately,
+     * and if they are older than the latest published bank day they are flagged as stale and refreshed in the background.
+     * Upstream is only called synchronously when there are no stored rates at all, or when stale-while-revalidate is disabled.
+     *
+     * @return the latest rates with their rate date and staleness
+     * @throws com.rn.currencyexchange.exception.RiksbankApiException if a synchronous refresh fails or the circuit is open
+     */
+    public LatestExchangeRates getLatestRates() {
+        LatestRateSnapshot snapshot = exchangeRateService.getLatestRateSnapshot();
+
+        if (!serveStale || snapshot.isEmpty()) {
+            List<ExchangeRate> rates = refresh();
+            return new LatestExchangeRates(rates, newestRateDate(rates, null), false, false);
+        }
+
+        LocalDate rateDate = snapshot.getNewestRateDate();
+        // Without a cached calendar the expected bank day is unknown, so revalidate to be safe
+        LocalDate expectedRateDate = riksbankApiService.getCachedLatestBankDay();
+        boolean stale = expectedRateDate == null || rateDate.isBefore(expectedRateDate);
+
+        boolean revalidating = stale && refreshInBackground();
+
+        return new LatestExchangeRates(snapshot.getExchangeRates(), rateDate, stale, revalidating);
+    }
+
+    /**
+     * Refreshes the latest exchange rates. If a refresh is already running the caller waits for it
+     * and receives the same result instead of starting another one.
+     *
+     * @return list of exchange rates including inverse rates
+     */
+    public List<ExchangeRate> refresh() {
+        CompletableFuture<List<ExchangeRate>> refresh = new CompletableFuture<>();
+        CompletableFuture<List<ExchangeRate>> running = inFlight.compareAndExchange(null, refresh);
+
+        if (running != null) {
+            return await(running);
+        }
+
+        Instant startedAt = Instant.now();
+        long startNanos = System.nanoTime();
+
+        try {
+            List<ExchangeRate> rates = clusterLease.isEnabled()
+                    ? refreshInCluster()
+                    : circuitBreaker.call(exchangeRateService::updateAndFetchLatestExchangeRates);
+            recordOutcome(startedAt, rates, null);
+            metrics.recordRefresh(System.nanoTime() - startNanos, rates.size(), true);
+            refresh.complete(rates);
+            return rates;
+        } catch (RuntimeException ex) {
+            recordOutcome(startedAt, null, ex);
+            metrics.recordRefresh(System.nanoTime() - startNanos, 0, false);
+            refresh.completeExceptionally(ex);
+            throw ex;
+        } finally {
+            inFlight.set(null);
+        }
+    }
+
+    /**
+     * Returns the time, duration and outcome of the last refresh.
+     *
+     * @return the refresh status
+     */
+    public RefreshStatus getStatus() {
+        RefreshStatus status = lastStatus;
+
+        return new RefreshStatus(status.getLastStartedAt(), status.getLastCompletedAt(), status.getLastDurationMillis(),
+                status.getLastSuccessAt(), status.getLastRateDate(), status.getLastError(), inFlight.get() != null,
+                circuitBreaker.getState().name());
+    }
+
+    /**
+     * Schedules the daily refresh on bank days, shortly after Riksbankens publishing time.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void scheduleDailyRefresh() {
+        if (!scheduleEnabled) {
+            return;
+        }
+
+        LocalTime runAt = RiksbankApiService.PUBLISH_TIME.plus(delayAfterPublish);
+        String cron = String.format("0 %d %d * * MON-FRI", runAt.getMinute(), runAt.getHour());
+
+        taskScheduler.schedule(() -> scheduledRefresh(1), new CronTrigger(cron, RiksbankApiService.PUBLISH_ZONE));
+    }
+
+    /**
+     * Polls the cluster lease for rates stored by other nodes, when running in a cluster.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void scheduleClusterSync() {
+        if (!clusterLease.isEnabled()) {
+            return;
+        }
+
+        taskScheduler.scheduleWithFixedDelay(this::syncFromCluster, clusterLease.getPollInterval());
+    }
+
+    /**
+     * Reloads the latest rates from the database if another node has stored a newer rate date than this node holds.
+     * Checking is a single row read, Riksbanken is never called.
+     */
+    void syncFromCluster() {
+        try {
+            LocalDate publishedRateDate = clusterLease.getPublishedRateDate();
+            LocalDate rateDate = exchangeRateService.getLatestRateSnapshot().getNewestRateDate();
+
+            if (publishedRateDate != null && (rateDate == null || publishedRateDate.isAfter(rateDate))) {
+                log.info("Reloading exchange rates for {} stored by another node", publishedRateDate);
+                exchangeRateService.reloadLatestRates();
+            }
+        } catch (RuntimeException ex) {
+            log.warn("Exchange rate sync from the cluster failed: {}", ex.getMessage());
+        }
+    }
+
+    /**
+     * Runs a scheduled refresh attempt. If the rates for the latest bank day are not available yet
+     * the attempt is rescheduled with exponential backoff until the maximum number of attempts is reached.
+     *
+     * @param attempt the attempt number, starting at 1
+     */
+    void scheduledRefresh(int attempt) {
+        String failure;
+
+        try {
+            LocalDate expectedRateDate = riksbankApiService.getLatestBankDay();
+            List<ExchangeRate> rates = refresh();
+
+            if (rates.stream().noneMatch(rate -> rate.getRateDate().isBefore(expectedRateDate))) {
+                return;
+            }
+
+            failure = "rates for " + expectedRateDate + " are not published yet";
+        } catch (RuntimeException ex) {
+            failure = ex.getMessage();
+        }
+
+        if (attempt >= maxAttempts) {
+            log.error("Scheduled exchange rate refresh failed after {} attempts: {}", attempt, failure);
+            return;
+        }
+
+        Duration backoff = backoff(attempt);
+        log.warn("Scheduled exchange rate refresh attempt {} failed, retrying in {}: {}", attempt, backoff, failure);
+
+        taskScheduler.schedule(() -> scheduledRefresh(attempt + 1), Instant.now().plus(backoff));
+    }
+
+    /**
+     * Refreshes if this node gets the cluster lease. Otherwise another node is refreshing, so this node waits for it
+     * to finish and loads the rates it stored instead of calling Riksbanken as well.
+     */
+    private List<ExchangeRate> refreshInCluster() {
+        if (clusterLease.tryAcquire()) {
+            LocalDate rateDate = null;
+
+            try {
+                List<ExchangeRate> rates = circuitBreaker.call(exchangeRateService::updateAndFetchLatestExchangeRates);
+                rateDate = newestRateDate(rates, null);
+                return rates;
+            } finally {
+                clusterLease.release(rateDate);
+            }
+        }
+
+        clusterLease.awaitRelease();
+        List<ExchangeRate> rates = exchangeRateService.reloadLatestRates();
+
+        if (rates.isEmpty()) {
+            throw new RiksbankApiException("No exchange rates were stored by the refresh on another node");
+        }
+
+        return rates;
+    }
+
+    /**
+     * Starts a refresh on the task scheduler unless one is already running. While the circuit is open, or within the
+     * revalidate interval of the previous attempt, no refresh is started, so a burst of requests for stale rates
+     * results in at most one upstream refresh.
+     *
+     * @return true if a refresh is running or has been started
+     */
+    private boolean refreshInBackground() {
+        if (inFlight.get() != null) {
+            return true;
+        }
+
+        if (circuitBreaker.getState() == RiksbankCircuitBreaker.State.OPEN) {
+            return false;
+        }
+
+        Instant now = Instant.now();
+        Instant previous = lastRevalidation.get();
+
+        if (now.isBefore(previous.plus(revalidateInterval)) || !lastRevalidation.compareAndSet(previous, now)) {
+            return false;
+        }
+
+        taskScheduler.schedule(() -> {
+            try {
+                refresh();
+            } catch (RuntimeException ex) {
+                log.warn("Background exchange rate refresh failed: {}", ex.getMessage());
+            }
+        }, now);
+
+        return true;
+    }
+
+    private Duration backoff(int attempt) {
+        Duration backoff = initialBackoff.multipliedBy(1L << Math.min(attempt - 1, 20));
+        return backoff.compareTo(maxBackoff) > 0 ? maxBackoff : backoff;
+    }
+
+    private void recordOutcome(Instant startedAt, List<ExchangeRate> rates, RuntimeException failure) {
+        Instant completedAt = Instant.now();
+        RefreshStatus previous = lastStatus;
+
+        LocalDate rateDate = rates == null ? previous.getLastRateDate() : newestRateDate(rates, previous.getLastRateDate());
+
+        lastStatus = new RefreshStatus(
+                startedAt,
+                completedAt,
+                Duration.between(startedAt, completedAt).toMillis(),
+                failure == null ? completedAt : previous.getLastSuccessAt(),
+                rateDate,
+                failure == null ? null : failure.getMessage(),
+                false,
+                null);
+    }
+
+    private static LocalDate newestRateDate(List<ExchangeRate> rates, LocalDate fallback) {
+        return rates.stream()
+                .map(ExchangeRate::getRateDate)
+                .max(LocalDate::compareTo)
+                .orElse(fallback);
+    }
+
+    private List<ExchangeRate> await(CompletableFuture<List<ExchangeRate>> running) {
+        try {
+            return running.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw ex;
+        }
+    }
+}
@@ -1,97 +1,307 @@
 package com.rn.currencyexchange.service;
 
 import com.rn.currencyexchange.dto.ConversionRequest;
+import com.rn.currencyexchange.dto.ExchangeRateView;
+import com.rn.currencyexchange.exception.RiksbankApiException;
 import com.rn.currencyexchange.model.CrossRate;
 import com.rn.currencyexchange.model.Currency;
 import com.rn.currencyexchange.model.ExchangeRate;
+import com.rn.currencyexchange.model.Observation;
 import com.rn.currencyexchange.repository.ExchangeRateRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
 import java.math.MathContext;
+import java.math.RoundingMode;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicReference;
 
 @Service
 public class ExchangeRateService {
 
+    // The built-in SEK, EUR and USD, beyond them fetching every pair from CrossRates takes too many requests
+    static final int CROSS_RATES_MAX_CURRENCIES = 3;
+
     @Autowired
     private RiksbankApiService riksbankApiService;
 
     @Autowired
     private ExchangeRateRepository exchangeRateRepository;
 
+    @Autowired
+    private RiksbankFetchExecutor riksbankFetchExecutor;
+
+    @Autowired
+    private HistoricalRateStore historicalRateStore;
+
+    @Autowired
+    private ExchangeRateMetrics metrics;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private FixedPointConverter fixedPointConverter;
+
+    @Value("${riksbank.refresh.mode:triangulate}")
+    private RefreshMode refreshMode = RefreshMode.TRIANGULATE;
+
+    @Value("${riksbank.refresh.rate-precision:16}")
+    private int ratePrecision = 16;
+
+    private final AtomicReference<LatestRateSnapshot> latestRates = new AtomicReference<>(LatestRateSnapshot.EMPTY);
+
     /**
-     * Converts an amount from one currency to another using the latest exchange rate.
+     * Converts an amount from one currency to another using the latest exchange rate,
+     * or the rate on the requested rate date if one is given.
+     * The converted amount is rounded to the minor units of the target currency.
      *
-     * @param request conversion request containing fromCurrency, toCurrency, and amount
+     * @param request conversion request containing fromCurrency, toCurrency, amount and an optional rateDate
      * @return converted amount
      * @throws IllegalArgumentException if no exchange rate is found
      */
     public BigDecimal convertAmount(ConversionRequest request) {
-        // No conversion needed if source and target currency are the same
-        if (request.getFromCurrency() == request.getToCurrency()) {
-            return request.getAmount();
+        long start = System.nanoTime();
+
+        try {
+            // No conversion needed if source and target currency are the same
+            if (request.getFromCurrency() == request.getToCurrency()) {
+                return request.getAmount();
+            }
+
+            if (request.getRateDate() == null) {
+                BigDecimal converted = latestRates.get().convert(request.getFromCurrency(), request.getToCurrency(), request.getAmount(), fixedPointConverter);
+
+                if (converted != null) {
+                    return converted;
+                }
+            }
+
+            BigDecimal rate = request.getRateDate() == null
+                    ? getLatestRate(request.getFromCurrency(), request.getToCurrency())
+                    : getRateOnOrBefore(request.getFromCurrency(), request.getToCurrency(), request.getRateDate());
+
+            return fixedPointConverter.convert(request.getAmount(), rate, request.getToCurrency());
+        } finally {
+            metrics.recordConversion(request.getFromCurrency(), request.getToCurrency(), System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Returns the exchange rate for a currency pair on the given date, or the most recent rate before it.
+     * The rate is read from the in-memory history and only falls back to the repository if the history has no match.
+     *
+     * @param fromCurrency source currency
+     * @param toCurrency target currency
+     * @param rateDate the rate date
+     * @return the conversion rate on or before the rate date
+     * @throws IllegalArgumentException if no exchange rate is found
+     */
+    public BigDecimal getRateOnOrBefore(Currency fromCurrency, Currency toCurrency, LocalDate rateDate) {
+        BigDecimal rate = historicalRateStore.getRateOnOrBefore(fromCurrency, toCurrency, rateDate);
+
+        if (rate != null) {
+            return rate;
         }
 
-        ExchangeRate rate = exchangeRateRepository.findFirstByFromCurrencyAndToCurrencyOrderByRateDateDesc(request.getFromCurrency(), request.getToCurrency())
+        return exchangeRateRepository.findRateOnOrBefore(fromCurrency, toCurrency, rateDate)
+                .map(ExchangeRateView::getConversionRate)
+                .orElseThrow(() -> new IllegalArgumentException("No exchange rate found on or before " + rateDate));
+    }
+
+    /**
+     * Returns the latest exchange rate for a currency pair.
+     * The rate is read from the in-memory snapshot and only falls back to the repository if the pair is missing.
+     *
+     * @param fromCurrency source currency
+     * @param toCurrency target currency
+     * @return the latest conversion rate
+     * @throws IllegalArgumentException if no exchange rate is found
+     */
+    public BigDecimal getLatestRate(Currency fromCurrency, Currency toCurrency) {
+        BigDecimal rate = latestRates.get().getRate(fromCurrency, toCurrency);
+
+        if (rate != null) {
+            return rate;
+        }
+
+        return exchangeRateRepository.findLatestRate(fromCurrency, toCurrency)
+                .map(ExchangeRateView::getConversionRate)
                 .orElseThrow(() -> new IllegalArgumentException("No exchange rate found, please update to latest exchange rates"));
+    }
 
-        return rate.getConversionRate().multiply(request.getAmount());
+    /**
+     * Returns the current snapshot of latest exchange rates.
+     *
+     * @return the latest rate snapshot, never null
+     */
+    public LatestRateSnapshot getLatestRateSnapshot() {
+        return latestRates.get();
+    }
+
+    /**
+     * Loads the latest stored rate for every currency pair into the in-memory snapshot, in a single query.
+     */
+    @EventListener(ApplicationStartedEvent.class)
+    public void loadLatestRatesFromRepository() {
+        List<ExchangeRate> storedRates = exchangeRateRepository.findAllLatestRates().stream()
+                .filter(rate -> rate.getFromCurrency() != rate.getToCurrency())
+                .map(ExchangeRateView::toExchangeRate)
+                .toList();
+
+        latestRates.set(LatestRateSnapshot.of(storedRates));
+    }
+
+    /**
+     * Reloads the latest rates from the repository, e.g. after another node has refreshed them, and publishes them
+     * like a refresh without calling Riksbanken.
+     *
+     * @return the reloaded latest rates
+     */
+    public List<ExchangeRate> reloadLatestRates() {
+        loadLatestRatesFromRepository();
+
+        List<ExchangeRate> rates = latestRates.get().getExchangeRates();
+        historicalRateStore.addAll(rates);
+        eventPublisher.publishEvent(new RatesUpdatedEvent(rates));
+
+        return rates;
     }
 
     /**
      * Updates and fetches all latest exchange rates for all currency combinations.
-     * Creates inverse rates for each fetched rate.
+     * Depending on the refresh mode the rates are either fetched per currency pair from the CrossRates endpoint,
+     * or computed locally from the SEK series of every currency. With more currencies than SEK, EUR and USD the rates
+     * are always computed locally, since fetching every pair would take hundreds of requests.
      *
      * @return list of exchange rates including inverse rates
      */
     public List<ExchangeRate> updateAndFetchLatestExchangeRates() {
-        List<ExchangeRate> allRates = new ArrayList<>();
-
         LocalDate latestBankDay = riksbankApiService.getLatestBankDay();
 
+        List<ExchangeRate> allRates = effectiveRefreshMode() == RefreshMode.TRIANGULATE
+                ? triangulateLatestExchangeRates(latestBankDay)
+                : fetchLatestCrossRates(latestBankDay);
+
+        LatestRateSnapshot snapshot = LatestRateSnapshot.of(allRates);
+        latestRates.set(snapshot);
+        historicalRateStore.addAll(allRates);
+        eventPublisher.publishEvent(new RatesUpdatedEvent(snapshot.getExchangeRates()));
+
+        return allRates;
+    }
+
+    RefreshMode effectiveRefreshMode() {
+        return Currency.count() > CROSS_RATES_MAX_CURRENCIES ? RefreshMode.TRIANGULATE : refreshMode;
+    }
+
+    /**
+     * Fetches every currency pair concurrently from the CrossRates endpoint and creates inverse rates for each
+     * fetched rate. Rates not yet stored for the bank day are upserted with their inverses in one batch once every
+     * pair is fetched. The result is returned in pair order.
+     */
+    private List<ExchangeRate> fetchLatestCrossRates(LocalDate latestBankDay) {
+        List<Callable<PairRate>> pairFetches = new ArrayList<>();
+
         for (Currency fromCurrency : Currency.values()) {
             for (Currency toCurrency : Currency.values()) {
                 // Make sure we only use descending order since we can manually calculate the inverse rate
-                if (fromCurrency.ordinal() < toCurrency.ordinal()) {
-                    List<ExchangeRate> rateAndInverse = fetchOrCreateExchangeRateWithInverse(fromCurrency, toCurrency, latestBankDay);
-                    allRates.addAll(rateAndInverse);
+                if (fromCurrency.getIndex() < toCurrency.getIndex()) {
+                    pairFetches.add(() -> findOrFetchExchangeRate(fromCurrency, toCurrency, latestBankDay));
                 }
             }
         }
 
+        List<ExchangeRate> allRates = new ArrayList<>();
+        List<ExchangeRate> fetchedRates = new ArrayList<>();
+
+        for (PairRate pairRate : riksbankFetchExecutor.invokeAll(pairFetches)) {
+            List<ExchangeRate> rates = List.of(pairRate.rate, createInverseExchangeRate(pairRate.rate));
+            allRates.addAll(rates);
+
+            if (pairRate.fetched) {
+                fetchedRates.addAll(rates);
+            }
+        }
+
+        if (!fetchedRates.isEmpty()) {
+            exchangeRateRepository.upsertAll(fetchedRates);
+        }
+
         return allRates;
     }
 
     /**
-     * Fetches an exchange rate for a specific currency pair and bank date.
-     * If the rate does not exist in the repository, it fetches from Riksbankens API and saves both rate and its inverse.
+     * Computes every cross and inverse rate from the SEK series of each currency, fetched in a single request.
+     * Rates already stored for the bank day are returned without calling Riksbanken, otherwise all rates are upserted in one batch.
+     */
+    private List<ExchangeRate> triangulateLatestExchangeRates(LocalDate latestBankDay) {
+        Currency[] currencies = Currency.values();
+        List<ExchangeRate> storedRates = exchangeRateRepository.findByRateDate(latestBankDay);
+
+        if (storedRates.size() == currencies.length * (currencies.length - 1)) {
+            return storedRates;
+        }
+
+        BigDecimal[] sekQuotes = new BigDecimal[currencies.length];
+        sekQuotes[Currency.SEK.getIndex()] = BigDecimal.ONE;
+
+        for (Observation observation : riksbankApiService.getLatestSekObservations()) {
+            Currency currency = Currency.ofSeriesId(observation.getSeriesId());
+
+            // The group also holds series of currencies that are not registered
+            if (currency != null && LocalDate.parse(observation.getDate()).equals(latestBankDay)) {
+                sekQuotes[currency.getIndex()] = observation.getValue();
+            }
+        }
+
+        for (Currency currency : currencies) {
+            if (sekQuotes[currency.getIndex()] == null) {
+                throw new RiksbankApiException("No observation returned from Riksbanken for " + currency + " on " + latestBankDay);
+            }
+        }
+
+        List<ExchangeRate> rates = CrossRateTriangulator.triangulate(sekQuotes, latestBankDay, new MathContext(ratePrecision, RoundingMode.HALF_EVEN));
+
+        exchangeRateRepository.upsertAll(rates);
+
+        return rates;
+    }
+
+    /**
+     * Returns the stored exchange rate of a currency pair on the bank date, or fetches it from Riksbankens API
+     * without storing it.
      *
      * @param fromCurrency source currency
      * @param toCurrency target currency
      * @param latestBankDate date for which the rate is fetched
-     * @return list containing the rate and its inverse
+     * @return the rate, and whether it was fetched
      */
-    public List<ExchangeRate> fetchOrCreateExchangeRateWithInverse(Currency fromCurrency, Currency toCurrency, LocalDate latestBankDate) {
-        ExchangeRate exchangeRate = exchangeRateRepository.findByFromCurrencyAndToCurrencyAndRateDate(fromCurrency, toCurrency, latestBankDate)
-                .orElseGet(() -> createAndSaveExchangeRateAndInverseBasedOnRiksbankenApi(fromCurrency, toCurrency));
-
-        return List.of(exchangeRate, createInverseExchangeRate(exchangeRate));
+    private PairRate findOrFetchExchangeRate(Currency fromCurrency, Currency toCurrency, LocalDate latestBankDate) {
+        return exchangeRateRepository.findByFromCurrencyAndToCurrencyAndRateDate(fromCurrency, toCurrency, latestBankDate)
+                .map(storedRate -> new PairRate(storedRate, false))
+                .orElseGet(() -> new PairRate(fetchExchangeRateFromRiksbankenApi(fromCurrency, toCurrency), true));
     }
 
-    private ExchangeRate createInverseExchangeRate(ExchangeRate exchangeRate) {
-        BigDecimal inverseRate = BigDecimal.ONE.divide(exchangeRate.getConversionRate(), MathContext.DECIMAL32);
+    ExchangeRate createInverseExchangeRate(ExchangeRate exchangeRate) {
+        // Same precision as triangulated rates, so inverse rates are as precise as the fetched ones
+        BigDecimal inverseRate = BigDecimal.ONE.divide(exchangeRate.getConversionRate(), new MathContext(ratePrecision, RoundingMode.HALF_EVEN));
 
         return new ExchangeRate(exchangeRate.getToCurrency(), exchangeRate.getFromCurrency(), inverseRate, exchangeRate.getRateDate());
     }
 
-    private ExchangeRate createAndSaveExchangeRateAndInverseBasedOnRiksbankenApi(Currency fromCurrency, Currency toCurrency) {
+    private ExchangeRate fetchExchangeRateFromRiksbankenApi(Currency fromCurrency, Currency toCurrency) {
         List<CrossRate> crossRates = riksbankApiService.getLatestCrossRates(fromCurrency, toCurrency);
 
-        ExchangeRate rateFromApi = crossRates.stream()
+        return crossRates.stream()
                 .findFirst()
                 .map(crossRate -> new ExchangeRate(
                         fromCurrency,
@@ -100,11 +310,16 @@ public class ExchangeRateService {
                         LocalDate.parse(crossRate.getDate())
                 ))
                 .orElseThrow();
+    }
 
-        ExchangeRate inverseRate = createInverseExchangeRate(rateFromApi);
+    private static final class PairRate {
 
-        exchangeRateRepository.saveAll(List.of(rateFromApi, inverseRate));
+        private final ExchangeRate rate;
+        private final boolean fetched;
 
-        return rateFromApi;
+        PairRate(ExchangeRate rate, boolean fetched) {
+            this.rate = rate;
+            this.fetched = fetched;
+        }
     }
 }
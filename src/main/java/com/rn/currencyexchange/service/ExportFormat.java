@@ -0,0 +1,52 @@
+package com.rn.currencyexchange.service;
+
+import org.springframework.http.MediaType;
+
+import java.util.Locale;
+
+/**
+ * Output format of a rate history export.
+ */
+public enum ExportFormat {
+    /**
+     * Comma separated values with a header row.
+     */
+    CSV(new MediaType("text", "csv"), "csv"),
+    /**
+     * One JSON object per line.
+     */
+    NDJSON(MediaType.APPLICATION_NDJSON, "ndjson");
+
+    private final MediaType mediaType;
+    private final String extension;
+
+    ExportFormat(MediaType mediaType, String extension) {
+        this.mediaType = mediaType;
+        this.extension = extension;
+    }
+
+    /**
+     * Returns the format with the given name, ignoring case.
+     *
+     * @param name the format name, e.g. csv
+     * @return the format
+     * @throws IllegalArgumentException if the format is not supported
+     */
+    public static ExportFormat of(String name) {
+        for (ExportFormat format : values()) {
+            if (format.name().equals(name.toUpperCase(Locale.ROOT))) {
+                return format;
+            }
+        }
+
+        throw new IllegalArgumentException("Unsupported export format " + name + ", use csv or ndjson");
+    }
+
+    public MediaType getMediaType() {
+        return mediaType;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+}
@@ -0,0 +1,187 @@
+package com.rn.currencyexchange.service;
+
+import com.rn.currencyexchange.config.ConversionProperties;
+import com.rn.currencyexchange.model.Currency;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Multiplies amounts by exchange rates in fixed-point arithmetic on longs and rounds the result to the minor units
+ * of the target currency.
+ * <p>
+ * A rate or amount with at most 18 digits is its unscaled long value together with its scale, so the product is
+ * exact as long as it fits in a long and the only rounding is the final one to the target scale. Results are equal
+ * to {@code rate.multiply(amount).setScale(minorUnits, roundingMode)}, and the conversion falls back to exactly that
+ * when a value has more digits or the product overflows.
+ * <p>
+ * The minor units and rounding mode of each currency are kept in an array indexed by currency index, built on first
+ * use after the currency registry has been loaded.
+ */
+@Component
+public class FixedPointConverter {
+
+    /**
+     * Returned by {@link #multiply} when the result does not fit in a long.
+     */
+    static final long OVERFLOW = Long.MIN_VALUE;
+
+    /**
+     * Digits of the largest power of ten that fits in a long.
+     */
+    static final int MAX_DIGITS = 18;
+
+    private static final long[] POWERS_OF_TEN = new long[MAX_DIGITS + 1];
+
+    static {
+        POWERS_OF_TEN[0] = 1;
+        for (int i = 1; i < POWERS_OF_TEN.length; i++) {
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+        }
+    }
+
+    private final ConversionProperties properties;
+    private volatile TargetRounding[] targetRounding = new TargetRounding[0];
+
+    public FixedPointConverter(ConversionProperties properties) {
+        this.properties = properties;
+    }
+
+    /**
+     * Converts an amount at the given rate.
+     *
+     * @param amount     the amount in the source currency
+     * @param rate       the conversion rate
+     * @param toCurrency the target currency, whose minor units and rounding mode are used
+     * @return the converted amount, scaled to the minor units of the target currency
+     */
+    public BigDecimal convert(BigDecimal amount, BigDecimal rate, Currency toCurrency) {
+        if (rate.precision() > MAX_DIGITS) {
+            TargetRounding rounding = roundingOf(toCurrency);
+            return rate.multiply(amount).setScale(rounding.minorUnits, rounding.roundingMode);
+        }
+
+        return convert(amount, rate.unscaledValue().longValue(), rate.scale(), toCurrency);
+    }
+
+    /**
+     * Converts an amount at a rate given in fixed-point form, i.e. {@code unscaledRate * 10^-rateScale}.
+     *
+     * @param amount       the amount in the source currency
+     * @param unscaledRate the unscaled conversion rate
+     * @param rateScale    the scale of the conversion rate
+     * @param toCurrency   the target currency, whose minor units and rounding mode are used
+     * @return the converted amount, scaled to the minor units of the target currency
+     */
+    public BigDecimal convert(BigDecimal amount, long unscaledRate, int rateScale, Currency toCurrency) {
+        TargetRounding rounding = roundingOf(toCurrency);
+
+        if (amount.precision() <= MAX_DIGITS) {
+            // Whole amounts are read without creating the BigInteger of the unscaled value
+            long unscaledAmount = amount.scale() == 0 ? amount.longValue() : amount.unscaledValue().longValue();
+            long result = multiply(unscaledRate, rateScale, unscaledAmount, amount.scale(), rounding.minorUnits, rounding.roundingMode);
+
+            if (result != OVERFLOW) {
+                return BigDecimal.valueOf(result, rounding.minorUnits);
+            }
+        }
+
+        return BigDecimal.valueOf(unscaledRate, rateScale).multiply(amount).setScale(rounding.minorUnits, rounding.roundingMode);
+    }
+
+    /**
+     * Multiplies two fixed-point values and rounds the product to the given scale.
+     *
+     * @return the unscaled result at the given scale, or {@link #OVERFLOW} if it does not fit in a long
+     * @throws ArithmeticException if the rounding mode is UNNECESSARY and the product has more decimals than the scale
+     */
+    static long multiply(long rate, int rateScale, long amount, int amountScale, int scale, RoundingMode roundingMode) {
+        long product = rate * amount;
+
+        if (Math.multiplyHigh(rate, amount) != product >> 63 || product == OVERFLOW) {
+            return OVERFLOW;
+        }
+
+        // The product has rateScale + amountScale decimals
+        long shift = (long) rateScale + amountScale - scale;
+
+        if (shift <= 0) {
+            if (product == 0) {
+                return 0;
+            }
+            if (shift < -MAX_DIGITS) {
+                return OVERFLOW;
+            }
+
+            long factor = POWERS_OF_TEN[(int) -shift];
+            long result = product * factor;
+
+            return Math.multiplyHigh(product, factor) != result >> 63 ? OVERFLOW : result;
+        }
+
+        long quotient = 0;
+        long remainder = product;
+
+        // With a larger shift the product is below 10^shift and rounds to 0 or 1 unit
+        if (shift <= MAX_DIGITS) {
+            quotient = product / POWERS_OF_TEN[(int) shift];
+            remainder = product % POWERS_OF_TEN[(int) shift];
+        }
+
+        if (remainder == 0) {
+            return quotient;
+        }
+
+        // Half the divisor is 5 * 10^(shift - 1), which fits in a long up to a shift of 19
+        int half = shift <= MAX_DIGITS + 1 ? Long.compare(Math.abs(remainder), 5 * POWERS_OF_TEN[(int) shift - 1]) : -1;
+        int signum = product < 0 ? -1 : 1;
+
+        boolean increment = switch (roundingMode) {
+            case UP -> true;
+            case DOWN -> false;
+            case CEILING -> signum > 0;
+            case FLOOR -> signum < 0;
+            case HALF_UP -> half >= 0;
+            case HALF_DOWN -> half > 0;
+            case HALF_EVEN -> half > 0 || half == 0 && (quotient & 1) != 0;
+            case UNNECESSARY -> throw new ArithmeticException("Rounding necessary");
+        };
+
+        return increment ? quotient + signum : quotient;
+    }
+
+    private TargetRounding roundingOf(Currency currency) {
+        TargetRounding[] rounding = targetRounding;
+
+        if (rounding.length != Currency.count()) {
+            rounding = createTargetRounding();
+        }
+
+        return rounding[currency.getIndex()];
+    }
+
+    private synchronized TargetRounding[] createTargetRounding() {
+        Currency[] currencies = Currency.values();
+        TargetRounding[] rounding = new TargetRounding[currencies.length];
+
+        for (Currency currency : currencies) {
+            rounding[currency.getIndex()] = new TargetRounding(
+                    properties.minorUnitsOf(currency.getCode()), properties.roundingOf(currency.getCode()));
+        }
+
+        targetRounding = rounding;
+        return rounding;
+    }
+
+    private static final class TargetRounding {
+
+        private final int minorUnits;
+        private final RoundingMode roundingMode;
+
+        TargetRounding(int minorUnits, RoundingMode roundingMode) {
+            this.minorUnits = minorUnits;
+            this.roundingMode = roundingMode;
+        }
+    }
+}
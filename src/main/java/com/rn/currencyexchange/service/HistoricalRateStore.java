@@ -0,0 +1,205 @@
+package com.rn.currencyexchange.service;
+
+import com.rn.currencyexchange.model.Currency;
+import com.rn.currencyexchange.model.ExchangeRate;
+import com.rn.currencyexchange.repository.ExchangeRateRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * In-memory history of daily rates for every currency pair, used for conversions at a past rate date.
+ * Each pair has its own immutable time series, indexed by the currency indices of the pair. Readers never lock and
+ * writers publish a new version of each series they change, once per batch. Every change is passed on to {@link RateAnalytics}.
+ */
+@Component
+public class HistoricalRateStore {
+
+    private static final int CLEAR_INTERVAL = 1_000;
+
+    @Autowired
+    private ExchangeRateRepository exchangeRateRepository;
+
+    @Autowired
+    private RateAnalytics rateAnalytics;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private volatile RateTimeSeries[] series = new RateTimeSeries[0];
+
+    private volatile long version;
+
+    /**
+     * Returns the rate for a currency pair on the given date, or on the closest earlier date with a rate.
+     *
+     * @param fromCurrency source currency
+     * @param toCurrency   target currency
+     * @param date         the rate date
+     * @return the rate, or null if there is no rate for the pair on or before the date
+     */
+    public BigDecimal getRateOnOrBefore(Currency fromCurrency, Currency toCurrency, LocalDate date) {
+        RateTimeSeries[] current = series;
+        int index = pairIndex(fromCurrency, toCurrency);
+
+        return index < current.length && current[index] != null ? current[index].rateOnOrBefore(date) : null;
+    }
+
+    /**
+     * Returns a counter that is increased whenever the history changes. Adding rates that are already stored with
+     * the same values does not change it.
+     *
+     * @return the version of the history
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Returns every rate in the history, grouped by currency pair and in ascending date order within each pair.
+     *
+     * @return all rates
+     */
+    public List<ExchangeRate> getAllRates() {
+        RateTimeSeries[] current = series;
+        Currency[] currencies = Currency.values();
+        List<ExchangeRate> rates = new ArrayList<>();
+
+        for (int index = 0; index < current.length; index++) {
+            RateTimeSeries pairSeries = current[index];
+
+            for (int i = 0; pairSeries != null && i < pairSeries.size(); i++) {
+                rates.add(new ExchangeRate(currencies[index / currencies.length], currencies[index % currencies.length],
+                        pairSeries.rateAt(i), pairSeries.dateAt(i)));
+            }
+        }
+
+        return rates;
+    }
+
+    /**
+     * Adds the given rates to the history, replacing any existing rate for the same pair and date.
+     * The rates are grouped by pair and each pair's series is updated once per call.
+     *
+     * @param rates the rates to add, in any order; of several rates for the same pair and date the last one wins
+     */
+    public synchronized void addAll(Collection<ExchangeRate> rates) {
+        RateTimeSeries[] updated = Arrays.copyOf(series, pairCount());
+        List<ExchangeRate> sorted = sortedByPairAndDate(rates);
+
+        int[] epochDays = new int[sorted.size()];
+        BigDecimal[] pairRates = new BigDecimal[sorted.size()];
+
+        boolean changed = false;
+        int start = 0;
+        while (start < sorted.size()) {
+            ExchangeRate first = sorted.get(start);
+            int index = pairIndex(first.getFromCurrency(), first.getToCurrency());
+            int count = 0;
+
+            while (start + count < sorted.size() && sorted.get(start + count).getFromCurrency() == first.getFromCurrency()
+                    && sorted.get(start + count).getToCurrency() == first.getToCurrency()) {
+                ExchangeRate rate = sorted.get(start + count);
+                epochDays[count] = (int) rate.getRateDate().toEpochDay();
+                pairRates[count++] = rate.getConversionRate();
+            }
+
+            RateTimeSeries pairSeries = updated[index] == null ? RateTimeSeries.EMPTY : updated[index];
+            updated[index] = pairSeries.withAll(epochDays, pairRates, count);
+            changed |= updated[index] != pairSeries;
+            start += count;
+        }
+
+        series = updated;
+        if (changed) {
+            version++;
+        }
+        rateAnalytics.addAll(sorted, updated);
+    }
+
+    /**
+     * Sorts rates by pair and date and keeps only the last of several rates for the same pair and date.
+     */
+    private static List<ExchangeRate> sortedByPairAndDate(Collection<ExchangeRate> rates) {
+        List<ExchangeRate> sorted = new ArrayList<>(rates);
+        // The sort is stable, so rates for the same pair and date stay in the order they were given
+        sorted.sort(Comparator.<ExchangeRate>comparingInt(rate -> pairIndex(rate.getFromCurrency(), rate.getToCurrency()))
+                .thenComparing(ExchangeRate::getRateDate));
+
+        List<ExchangeRate> unique = new ArrayList<>(sorted.size());
+        for (int i = 0; i < sorted.size(); i++) {
+            ExchangeRate rate = sorted.get(i);
+            ExchangeRate next = i + 1 < sorted.size() ? sorted.get(i + 1) : null;
+
+            if (next == null || next.getFromCurrency() != rate.getFromCurrency() || next.getToCurrency() != rate.getToCurrency()
+                    || !next.getRateDate().equals(rate.getRateDate())) {
+                unique.add(rate);
+            }
+        }
+
+        return unique;
+    }
+
+    /**
+     * Rebuilds the whole history from the repository in a single pass ordered by rate date.
+     */
+    @EventListener(ApplicationStartedEvent.class)
+    @Transactional(readOnly = true)
+    public void loadFromRepository() {
+        try (Stream<ExchangeRate> rates = exchangeRateRepository.streamAllOrderedByRateDate()) {
+            load(rates.iterator());
+        }
+    }
+
+    private synchronized void load(Iterator<ExchangeRate> rates) {
+        RateTimeSeries.Builder[] builders = new RateTimeSeries.Builder[pairCount()];
+        long count = 0;
+
+        while (rates.hasNext()) {
+            ExchangeRate rate = rates.next();
+            int index = pairIndex(rate.getFromCurrency(), rate.getToCurrency());
+
+            if (builders[index] == null) {
+                builders[index] = new RateTimeSeries.Builder();
+            }
+            builders[index].add(rate.getRateDate(), rate.getConversionRate());
+
+            // Keep the persistence context from growing with the whole history
+            if (++count % CLEAR_INTERVAL == 0) {
+                entityManager.clear();
+            }
+        }
+
+        RateTimeSeries[] loaded = new RateTimeSeries[builders.length];
+        for (int i = 0; i < builders.length; i++) {
+            loaded[i] = builders[i] == null ? null : builders[i].build();
+        }
+
+        series = loaded;
+        version++;
+        rateAnalytics.load(loaded);
+    }
+
+    // The currency registry is frozen before the history is loaded, so the pair layout never changes
+    static int pairCount() {
+        return Currency.count() * Currency.count();
+    }
+
+    static int pairIndex(Currency fromCurrency, Currency toCurrency) {
+        return fromCurrency.getIndex() * Currency.count() + toCurrency.getIndex();
+    }
+}
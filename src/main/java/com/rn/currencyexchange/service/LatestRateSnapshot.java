@@ -0,0 +1,178 @@
+package com.rn.currencyexchange.service;
+
+import com.rn.currencyexchange.model.Currency;
+import com.rn.currencyexchange.model.ExchangeRate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Immutable view of the latest exchange rate for every currency pair.
+ * Rates are held in a dense matrix indexed by currency index so a lookup is a single array access.
+ * Each rate is also kept in fixed-point form, its unscaled long value and scale, so conversions at the latest rate
+ * do not decode the BigDecimal.
+ */
+public final class LatestRateSnapshot {
+
+    public static final LatestRateSnapshot EMPTY = new LatestRateSnapshot(0, new BigDecimal[0], new LocalDate[0], 0);
+
+    // Scale of rates with more digits than fit in a long
+    private static final int NOT_FIXED_POINT = Integer.MIN_VALUE;
+
+    private final int size;
+    private final BigDecimal[] rates;
+    private final LocalDate[] rateDates;
+    private final int pairCount;
+    private final long[] unscaledRates;
+    private final int[] rateScales;
+
+    private LatestRateSnapshot(int size, BigDecimal[] rates, LocalDate[] rateDates, int pairCount) {
+        this.size = size;
+        this.rates = rates;
+        this.rateDates = rateDates;
+        this.pairCount = pairCount;
+        this.unscaledRates = new long[rates.length];
+        this.rateScales = new int[rates.length];
+
+        for (int index = 0; index < rates.length; index++) {
+            BigDecimal rate = rates[index];
+
+            if (rate != null && rate.precision() <= FixedPointConverter.MAX_DIGITS) {
+                unscaledRates[index] = rate.unscaledValue().longValue();
+                rateScales[index] = rate.scale();
+            } else {
+                rateScales[index] = NOT_FIXED_POINT;
+            }
+        }
+    }
+
+    /**
+     * Builds a snapshot from the given exchange rates. If a pair occurs more than once the rate with
+     * the newest rate date is kept.
+     *
+     * @param exchangeRates the rates to include
+     * @return a new snapshot
+     */
+    public static LatestRateSnapshot of(Collection<ExchangeRate> exchangeRates) {
+        int size = Currency.count();
+        BigDecimal[] rates = new BigDecimal[size * size];
+        LocalDate[] rateDates = new LocalDate[size * size];
+        int pairCount = 0;
+
+        for (ExchangeRate exchangeRate : exchangeRates) {
+            int index = exchangeRate.getFromCurrency().getIndex() * size + exchangeRate.getToCurrency().getIndex();
+
+            if (rates[index] == null) {
+                pairCount++;
+            } else if (!exchangeRate.getRateDate().isAfter(rateDates[index])) {
+                continue;
+            }
+
+            rates[index] = exchangeRate.getConversionRate();
+            rateDates[index] = exchangeRate.getRateDate();
+        }
+
+        return pairCount == 0 ? EMPTY : new LatestRateSnapshot(size, rates, rateDates, pairCount);
+    }
+
+    /**
+     * Returns the latest rate for the given pair.
+     *
+     * @param fromCurrency source currency
+     * @param toCurrency   target currency
+     * @return the rate, or null if the pair is not part of the snapshot
+     */
+    public BigDecimal getRate(Currency fromCurrency, Currency toCurrency) {
+        int index = indexOf(fromCurrency, toCurrency);
+        return index < 0 ? null : rates[index];
+    }
+
+    /**
+     * Converts an amount at the latest rate of the given pair.
+     *
+     * @param fromCurrency source currency
+     * @param toCurrency   target currency
+     * @param amount       the amount in the source currency
+     * @param converter    rounds the converted amount to the target currency
+     * @return the converted amount, or null if the pair is not part of the snapshot
+     */
+    public BigDecimal convert(Currency fromCurrency, Currency toCurrency, BigDecimal amount, FixedPointConverter converter) {
+        int index = indexOf(fromCurrency, toCurrency);
+
+        if (index < 0 || rates[index] == null) {
+            return null;
+        }
+
+        return rateScales[index] == NOT_FIXED_POINT
+                ? converter.convert(amount, rates[index], toCurrency)
+                : converter.convert(amount, unscaledRates[index], rateScales[index], toCurrency);
+    }
+
+    /**
+     * Returns the rate date of the latest rate for the given pair.
+     *
+     * @param fromCurrency source currency
+     * @param toCurrency   target currency
+     * @return the rate date, or null if the pair is not part of the snapshot
+     */
+    public LocalDate getRateDate(Currency fromCurrency, Currency toCurrency) {
+        int index = indexOf(fromCurrency, toCurrency);
+        return index < 0 ? null : rateDates[index];
+    }
+
+    /**
+     * Returns the newest rate date of any pair in the snapshot.
+     *
+     * @return the newest rate date, or null if the snapshot is empty
+     */
+    public LocalDate getNewestRateDate() {
+        LocalDate newest = null;
+
+        for (LocalDate rateDate : rateDates) {
+            if (rateDate != null && (newest == null || rateDate.isAfter(newest))) {
+                newest = rateDate;
+            }
+        }
+
+        return newest;
+    }
+
+    /**
+     * Returns every rate in the snapshot as exchange rates, in currency index order.
+     *
+     * @return the rates
+     */
+    public List<ExchangeRate> getExchangeRates() {
+        List<ExchangeRate> exchangeRates = new ArrayList<>(pairCount);
+
+        for (int index = 0; index < rates.length; index++) {
+            if (rates[index] != null) {
+                exchangeRates.add(new ExchangeRate(Currency.ofIndex(index / size), Currency.ofIndex(index % size), rates[index], rateDates[index]));
+            }
+        }
+
+        return exchangeRates;
+    }
+
+    public boolean isEmpty() {
+        return pairCount == 0;
+    }
+
+    public int getPairCount() {
+        return pairCount;
+    }
+
+    private int indexOf(Currency fromCurrency, Currency toCurrency) {
+        int from = fromCurrency.getIndex();
+        int to = toCurrency.getIndex();
+
+        if (from >= size || to >= size) {
+            return -1;
+        }
+
+        return from * size + to;
+    }
+}
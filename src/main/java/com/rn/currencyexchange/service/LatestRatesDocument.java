@@ -0,0 +1,117 @@
+package com.rn.currencyexchange.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.HexFormat;
+
+/**
+ * The latest rate set serialized to JSON, together with its ETag and last modified time.
+ * The document is built once per latest rate snapshot, so every refresh serializes the rates once
+ * and all requests in between are served from the same byte array.
+ */
+@Component
+public class LatestRatesDocument {
+
+    private static final int ETAG_BYTES = 16;
+
+    @Autowired
+    private ExchangeRateService exchangeRateService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private volatile Document current;
+
+    /**
+     * Returns the document of the current latest rate snapshot, building it if the snapshot changed.
+     *
+     * @return the document
+     * @throws IllegalArgumentException if there are no latest rates
+     */
+    public Document get() {
+        LatestRateSnapshot snapshot = exchangeRateService.getLatestRateSnapshot();
+        Document document = current;
+
+        if (document != null && document.snapshot == snapshot) {
+            return document;
+        }
+
+        if (snapshot.isEmpty()) {
+            throw new IllegalArgumentException("No exchange rate found, please update to latest exchange rates");
+        }
+
+        // Concurrent requests after a refresh may build the same document twice, which is harmless
+        document = build(snapshot);
+        current = document;
+        return document;
+    }
+
+    private Document build(LatestRateSnapshot snapshot) {
+        byte[] body;
+
+        try {
+            body = objectMapper.writeValueAsBytes(snapshot.getExchangeRates());
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Could not serialize latest exchange rates", ex);
+        }
+
+        LocalDate rateDate = snapshot.getNewestRateDate();
+        Instant lastModified = rateDate.atTime(RiksbankApiService.PUBLISH_TIME).atZone(RiksbankApiService.PUBLISH_ZONE).toInstant();
+
+        return new Document(snapshot, body, "\"" + digest(body) + "\"", rateDate, lastModified);
+    }
+
+    private static String digest(byte[] body) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(body);
+            return HexFormat.of().formatHex(Arrays.copyOf(hash, ETAG_BYTES));
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 is not available", ex);
+        }
+    }
+
+    /**
+     * A serialized rate set. The ETag is a strong validator derived from the serialized bytes, and the
+     * last modified time is Riksbankens publishing time on the newest rate date.
+     */
+    public static final class Document {
+
+        private final LatestRateSnapshot snapshot;
+        private final byte[] body;
+        private final String etag;
+        private final LocalDate rateDate;
+        private final Instant lastModified;
+
+        private Document(LatestRateSnapshot snapshot, byte[] body, String etag, LocalDate rateDate, Instant lastModified) {
+            this.snapshot = snapshot;
+            this.body = body;
+            this.etag = etag;
+            this.rateDate = rateDate;
+            this.lastModified = lastModified;
+        }
+
+        public byte[] getBody() {
+            return body;
+        }
+
+        public String getEtag() {
+            return etag;
+        }
+
+        public LocalDate getRateDate() {
+            return rateDate;
+        }
+
+        public Instant getLastModified() {
+            return lastModified;
+        }
+    }
+}
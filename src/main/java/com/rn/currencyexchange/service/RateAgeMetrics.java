@@ -0,0 +1,57 @@
+package com.rn.currencyexchange.service;
+
+import com.rn.currencyexchange.model.Currency;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Gauges for the age of the newest rate of every currency pair, measured from Riksbankens publishing time on the rate date.
+ * A pair without a rate reports NaN.
+ */
+@Component
+public class RateAgeMetrics implements MeterBinder {
+
+    static final String RATE_AGE = "exchange.rate.age";
+
+    @Autowired
+    private ExchangeRateService exchangeRateService;
+
+    @Autowired
+    private CurrencyRegistry currencyRegistry;
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        List<Currency> currencies = currencyRegistry.getCurrencies();
+
+        for (Currency fromCurrency : currencies) {
+            for (Currency toCurrency : currencies) {
+                if (fromCurrency != toCurrency) {
+                    Gauge.builder(RATE_AGE, exchangeRateService, service -> ageInSeconds(service, fromCurrency, toCurrency))
+                            .description("Time since the newest rate of the pair was published")
+                            .tag("pair", ExchangeRateMetrics.pair(fromCurrency, toCurrency))
+                            .baseUnit("seconds")
+                            .register(registry);
+                }
+            }
+        }
+    }
+
+    static double ageInSeconds(ExchangeRateService service, Currency fromCurrency, Currency toCurrency) {
+        LocalDate rateDate = service.getLatestRateSnapshot().getRateDate(fromCurrency, toCurrency);
+
+        if (rateDate == null) {
+            return Double.NaN;
+        }
+
+        Instant publishedAt = rateDate.atTime(RiksbankApiService.PUBLISH_TIME).atZone(RiksbankApiService.PUBLISH_ZONE).toInstant();
+        return Duration.between(publishedAt, Instant.now()).toMillis() / 1000.0;
+    }
+}
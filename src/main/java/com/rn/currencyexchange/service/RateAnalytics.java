@@ -0,0 +1,92 @@
+package com.rn.currencyexchange.service;
+
+import com.rn.currencyexchange.dto.RateStatistics;
+import com.rn.currencyexchange.model.Currency;
+import com.rn.currencyexchange.model.ExchangeRate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * Moving averages and volatility of every currency pair over fixed windows of bank days, answered from memory.
+ * <p>
+ * The accumulators are fed by {@link HistoricalRateStore}. Stored rates are added as they arrive, which updates the
+ * windows of their pair in constant time, and at startup every pair is seeded from the latest rates of its series once
+ * the history has been loaded in its single ordered pass over the repository. A rate older than the latest rate of its
+ * pair, e.g. from a backfill, reseeds only that pair from its series.
+ * <p>
+ * Statistics are published as immutable objects after every update, so readers never lock.
+ */
+@Component
+public class RateAnalytics {
+
+    @Value("${riksbank.analytics.windows:30,90}")
+    private int[] windows = {30, 90};
+
+    private RollingRateStatistics[] accumulators = new RollingRateStatistics[0];
+
+    private volatile RateStatistics[] statistics = new RateStatistics[0];
+
+    /**
+     * Returns the moving averages and volatility of a currency pair.
+     *
+     * @param fromCurrency source currency
+     * @param toCurrency   target currency
+     * @return the statistics, or null if no rate is stored for the pair
+     */
+    public RateStatistics getStatistics(Currency fromCurrency, Currency toCurrency) {
+        RateStatistics[] current = statistics;
+        int index = HistoricalRateStore.pairIndex(fromCurrency, toCurrency);
+
+        return index < current.length ? current[index] : null;
+    }
+
+    /**
+     * Adds rates that have been added to the history.
+     *
+     * @param rates  the added rates
+     * @param series the history after the rates were added, indexed by currency pair
+     */
+    synchronized void addAll(Collection<ExchangeRate> rates, RateTimeSeries[] series) {
+        RollingRateStatistics[] updatedAccumulators = Arrays.copyOf(accumulators, series.length);
+        RateStatistics[] updated = Arrays.copyOf(statistics, series.length);
+
+        for (ExchangeRate rate : rates) {
+            int index = HistoricalRateStore.pairIndex(rate.getFromCurrency(), rate.getToCurrency());
+            RollingRateStatistics accumulator = updatedAccumulators[index];
+
+            if (accumulator == null || !accumulator.add(rate.getRateDate(), rate.getConversionRate())) {
+                accumulator = RollingRateStatistics.of(windows, series[index]);
+                updatedAccumulators[index] = accumulator;
+            }
+            updated[index] = accumulator.toStatistics(rate.getFromCurrency(), rate.getToCurrency());
+        }
+
+        accumulators = updatedAccumulators;
+        statistics = updated;
+    }
+
+    /**
+     * Seeds every pair from a history that has just been loaded.
+     *
+     * @param series the history, indexed by currency pair
+     */
+    synchronized void load(RateTimeSeries[] series) {
+        Currency[] currencies = Currency.values();
+        RollingRateStatistics[] loadedAccumulators = new RollingRateStatistics[series.length];
+        RateStatistics[] loaded = new RateStatistics[series.length];
+
+        for (int index = 0; index < series.length; index++) {
+            if (series[index] != null && series[index].size() > 0) {
+                loadedAccumulators[index] = RollingRateStatistics.of(windows, series[index]);
+                loaded[index] = loadedAccumulators[index].toStatistics(
+                        currencies[index / currencies.length], currencies[index % currencies.length]);
+            }
+        }
+
+        accumulators = loadedAccumulators;
+        statistics = loaded;
+    }
+}
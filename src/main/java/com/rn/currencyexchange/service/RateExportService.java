@@ -0,0 +1,119 @@
+package com.rn.currencyexchange.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rn.currencyexchange.model.Currency;
+import com.rn.currencyexchange.model.ExchangeRate;
+import com.rn.currencyexchange.repository.ExchangeRateRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+@Service
+public class RateExportService {
+
+    static final String CSV_HEADER = "fromCurrency,toCurrency,rateDate,conversionRate";
+
+    @Autowired
+    private ExchangeRateRepository exchangeRateRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    /**
+     * Checks the date range of an export before the response is started.
+     *
+     * @param fromDate first rate date, or null
+     * @param toDate   last rate date, or null
+     * @throws IllegalArgumentException if fromDate is after toDate
+     */
+    public void checkRange(LocalDate fromDate, LocalDate toDate) {
+        if (fromDate != null && toDate != null && fromDate.isAfter(toDate)) {
+            throw new IllegalArgumentException("Export from date must not be after to date");
+        }
+    }
+
+    /**
+     * Writes the matching rate history to the output, ordered by currency pair and rate date.
+     * Rows are read from a database cursor and written one at a time, so memory use is the same for a day as for
+     * ten years of rates. Any filter may be null to include all values.
+     *
+     * @param format       the output format
+     * @param fromCurrency only rates from this currency
+     * @param toCurrency   only rates to this currency
+     * @param fromDate     first rate date, inclusive
+     * @param toDate       last rate date, inclusive
+     * @param output       the response body
+     * @return the number of rates written
+     * @throws IOException if writing the output fails
+     */
+    public long export(ExportFormat format, Currency fromCurrency, Currency toCurrency, LocalDate fromDate, LocalDate toDate,
+                       OutputStream output) throws IOException {
+        try (Stream<ExchangeRate> rates = exchangeRateRepository.streamRates(fromCurrency, toCurrency, fromDate, toDate)) {
+            return format == ExportFormat.CSV
+                    ? writeCsv(rates.iterator(), output)
+                    : writeNdjson(rates.iterator(), output);
+        }
+    }
+
+    private long writeCsv(Iterator<ExchangeRate> rates, OutputStream output) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+        long count = 0;
+
+        writer.write(CSV_HEADER);
+        writer.write('\n');
+
+        while (rates.hasNext()) {
+            ExchangeRate rate = rates.next();
+            writer.write(rate.getFromCurrency().getCode());
+            writer.write(',');
+            writer.write(rate.getToCurrency().getCode());
+            writer.write(',');
+            writer.write(rate.getRateDate().toString());
+            writer.write(',');
+            writer.write(rate.getConversionRate().toPlainString());
+            writer.write('\n');
+            count++;
+        }
+
+        writer.flush();
+        return count;
+    }
+
+    private long writeNdjson(Iterator<ExchangeRate> rates, OutputStream output) throws IOException {
+        long count = 0;
+
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(output)) {
+            generator.setRootValueSeparator(new SerializedString("\n"));
+            // The servlet container owns the response stream
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+
+            while (rates.hasNext()) {
+                ExchangeRate rate = rates.next();
+                generator.writeStartObject();
+                generator.writeStringField("fromCurrency", rate.getFromCurrency().getCode());
+                generator.writeStringField("toCurrency", rate.getToCurrency().getCode());
+                generator.writeStringField("rateDate", rate.getRateDate().toString());
+                generator.writeNumberField("conversionRate", rate.getConversionRate());
+                generator.writeEndObject();
+                count++;
+            }
+
+            if (count > 0) {
+                generator.writeRaw('\n');
+            }
+        }
+
+        return count;
+    }
+}
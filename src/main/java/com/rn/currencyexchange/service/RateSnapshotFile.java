@@ -0,0 +1,281 @@
+package com.rn.currencyexchange.service;
+
+import com.rn.currencyexchange.model.Currency;
+import com.rn.currencyexchange.model.ExchangeRate;
+import com.rn.currencyexchange.repository.ExchangeRateRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Persists the rate history to a local binary file after every change and loads it on startup, so a new instance
+ * has rates before it accepts traffic without calling Riksbanken.
+ * <p>
+ * The file is written on a writer thread of its own, so updates do not wait for it. Updates that arrive while a write
+ * is pending are covered by that write, and updates that did not change the history are not written at all.
+ * <p>
+ * File layout, big endian:
+ * <pre>
+ * int    magic "RXRS"
+ * short  format version
+ * short  number of currencies, followed by each currency code as a length prefixed UTF-8 string
+ * int    number of rates, followed by each rate as:
+ *        short from currency index, short to currency index, int epoch day, int scale,
+ *        byte length of the unscaled value, unscaled value as two's complement bytes
+ * long   CRC32 of everything before it
+ * </pre>
+ * Currencies are stored by code rather than by index, so a file stays readable when currencies are added or reordered.
+ */
+@Component
+public class RateSnapshotFile implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(RateSnapshotFile.class);
+
+    static final int MAGIC = 0x52585253;
+    static final short VERSION = 1;
+    private static final int CHECKSUM_BYTES = Long.BYTES;
+
+    @Autowired
+    private HistoricalRateStore historicalRateStore;
+
+    @Autowired
+    private ExchangeRateRepository exchangeRateRepository;
+
+    @Value("${riksbank.snapshot.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${riksbank.snapshot.path:data/rate-snapshot.bin}")
+    private Path path = Path.of("data/rate-snapshot.bin");
+
+    private final ExecutorService writer = Executors.newSingleThreadExecutor(new CustomizableThreadFactory("rate-snapshot-"));
+    private final AtomicBoolean writePending = new AtomicBoolean();
+    private volatile long writtenVersion = -1;
+
+    /**
+     * Loads the snapshot file into the repository before the in-memory rate stores are loaded from it.
+     * A missing, corrupt or unsupported file is skipped and the application starts without it.
+     */
+    @EventListener(ApplicationStartedEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void loadOnStartup() {
+        if (!enabled || !Files.exists(path)) {
+            return;
+        }
+
+        try {
+            long start = System.nanoTime();
+            List<ExchangeRate> rates = read(path);
+            exchangeRateRepository.upsertAll(rates);
+            log.info("Loaded {} rates from snapshot {} in {} ms", rates.size(), path, (System.nanoTime() - start) / 1_000_000);
+        } catch (IOException | RuntimeException ex) {
+            log.warn("Ignoring rate snapshot {}: {}", path, ex.getMessage());
+        }
+    }
+
+    /**
+     * Schedules a write of the rate history if it changed since the last write and no write is pending yet.
+     */
+    @EventListener
+    public void onRatesUpdated(RatesUpdatedEvent event) {
+        if (!enabled || historicalRateStore.getVersion() == writtenVersion || !writePending.compareAndSet(false, true)) {
+            return;
+        }
+
+        try {
+            writer.execute(this::writeLatest);
+        } catch (RejectedExecutionException ex) {
+            writePending.set(false);
+            log.warn("Could not schedule rate snapshot write, shutting down");
+        }
+    }
+
+    /**
+     * Writes the current rate history to the snapshot file unless that version is already written.
+     * A failed write is logged and retried on the next update.
+     */
+    void writeLatest() {
+        // Cleared first, so an update from here on schedules another write
+        writePending.set(false);
+        long version = historicalRateStore.getVersion();
+        if (version == writtenVersion) {
+            return;
+        }
+
+        try {
+            write(path, historicalRateStore.getAllRates());
+            writtenVersion = version;
+        } catch (IOException | RuntimeException ex) {
+            log.warn("Could not write rate snapshot {}: {}", path, ex.getMessage());
+        }
+    }
+
+    /**
+     * Lets a pending write finish before shutting down.
+     */
+    @Override
+    public void destroy() throws InterruptedException {
+        writer.shutdown();
+        if (!writer.awaitTermination(10, TimeUnit.SECONDS)) {
+            writer.shutdownNow();
+        }
+    }
+
+    /**
+     * Writes the rates to a temporary file next to the target and atomically moves it into place,
+     * so readers never see a partially written file.
+     *
+     * @param target the snapshot file
+     * @param rates  the rates to write
+     * @throws IOException if the file could not be written
+     */
+    static void write(Path target, List<ExchangeRate> rates) throws IOException {
+        Path directory = target.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path temp = Files.createTempFile(directory, target.getFileName().toString(), ".tmp");
+
+        try {
+            try (OutputStream file = new BufferedOutputStream(Files.newOutputStream(temp))) {
+                CheckedOutputStream checked = new CheckedOutputStream(file, new CRC32());
+                DataOutputStream out = new DataOutputStream(checked);
+
+                Currency[] currencies = Currency.values();
+                out.writeInt(MAGIC);
+                out.writeShort(VERSION);
+                out.writeShort(currencies.length);
+                for (Currency currency : currencies) {
+                    byte[] code = currency.getCode().getBytes(StandardCharsets.UTF_8);
+                    out.writeShort(code.length);
+                    out.write(code);
+                }
+
+                out.writeInt(rates.size());
+                for (ExchangeRate rate : rates) {
+                    byte[] unscaled = rate.getConversionRate().unscaledValue().toByteArray();
+                    out.writeShort(rate.getFromCurrency().getIndex());
+                    out.writeShort(rate.getToCurrency().getIndex());
+                    out.writeInt((int) rate.getRateDate().toEpochDay());
+                    out.writeInt(rate.getConversionRate().scale());
+                    out.writeByte(unscaled.length);
+                    out.write(unscaled);
+                }
+                out.flush();
+
+                // The checksum itself is written past the checked stream
+                new DataOutputStream(file).writeLong(checked.getChecksum().getValue());
+            }
+
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Memory maps and reads a snapshot file. Rates of currencies that are no longer known are skipped.
+     *
+     * @param source the snapshot file
+     * @return the rates in the file
+     * @throws IOException if the file could not be read, has a bad checksum or an unsupported format
+     */
+    static List<ExchangeRate> read(Path source) throws IOException {
+        try (FileChannel channel = FileChannel.open(source, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            int contentLength = buffer.limit() - CHECKSUM_BYTES;
+
+            if (contentLength < Integer.BYTES + Short.BYTES) {
+                throw new IOException("Snapshot file is truncated");
+            }
+
+            CRC32 crc = new CRC32();
+            crc.update(buffer.slice(0, contentLength));
+            if (crc.getValue() != buffer.getLong(contentLength)) {
+                throw new IOException("Snapshot checksum mismatch");
+            }
+
+            ByteBuffer content = buffer.slice(0, contentLength);
+            if (content.getInt() != MAGIC) {
+                throw new IOException("Not a rate snapshot file");
+            }
+
+            short version = content.getShort();
+            if (version != VERSION) {
+                throw new IOException("Unsupported snapshot version " + version);
+            }
+
+            try {
+                return readRates(content);
+            } catch (BufferUnderflowException ex) {
+                throw new IOException("Snapshot file is truncated", ex);
+            }
+        }
+    }
+
+    private static List<ExchangeRate> readRates(ByteBuffer content) {
+        Currency[] currencies = new Currency[content.getShort()];
+        for (int i = 0; i < currencies.length; i++) {
+            byte[] code = new byte[content.getShort()];
+            content.get(code);
+            currencies[i] = currencyOf(new String(code, StandardCharsets.UTF_8));
+        }
+
+        int count = content.getInt();
+        List<ExchangeRate> rates = new ArrayList<>(count);
+
+        for (int i = 0; i < count; i++) {
+            Currency fromCurrency = currencies[content.getShort()];
+            Currency toCurrency = currencies[content.getShort()];
+            LocalDate rateDate = LocalDate.ofEpochDay(content.getInt());
+            int scale = content.getInt();
+            byte[] unscaled = new byte[content.get() & 0xFF];
+            content.get(unscaled);
+
+            if (fromCurrency != null && toCurrency != null) {
+                rates.add(new ExchangeRate(fromCurrency, toCurrency, new BigDecimal(new BigInteger(unscaled), scale), rateDate));
+            }
+        }
+
+        return rates;
+    }
+
+    private static Currency currencyOf(String code) {
+        try {
+            return Currency.valueOf(code);
+        } catch (IllegalArgumentException ex) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package com.rn.currencyexchange.service;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Immutable time series of daily rates for one currency pair.
+ * Dates are stored as sorted primitive epoch days next to their rates, so a lookup is a binary search without allocation.
+ */
+final class RateTimeSeries {
+
+    static final RateTimeSeries EMPTY = new RateTimeSeries(new int[0], new BigDecimal[0], 0, new AtomicInteger());
+
+    private static final int MIN_CAPACITY = 16;
+
+    private final int[] epochDays;
+    private final BigDecimal[] rates;
+    private final int size;
+    // Number of slots of the arrays used by the newest series sharing them
+    private final AtomicInteger claimed;
+
+    private RateTimeSeries(int[] epochDays, BigDecimal[] rates, int size, AtomicInteger claimed) {
+        this.epochDays = epochDays;
+        this.rates = rates;
+        this.size = size;
+        this.claimed = claimed;
+    }
+
+    /**
+     * Returns the rate on the given date, or on the closest earlier date if there is no rate for the date itself.
+     *
+     * @param date the date to look up
+     * @return the rate, or null if the series has no rate on or before the date
+     */
+    BigDecimal rateOnOrBefore(LocalDate date) {
+        int index = Arrays.binarySearch(epochDays, 0, size, (int) date.toEpochDay());
+
+        if (index < 0) {
+            index = -index - 2;
+        }
+
+        return index < 0 ? null : rates[index];
+    }
+
+    /**
+     * Returns this series with the given rates merged in, replacing existing rates for the same dates.
+     * Rates after the last date of the series are appended into spare capacity of the arrays this series shares with
+     * earlier versions, which only read up to their own size, so the daily append copies nothing. Any other batch is
+     * merged with the series in a single pass.
+     *
+     * @param newEpochDays the dates as epoch days, ascending and without duplicates
+     * @param newRates     the rate for each date
+     * @param count        the number of rates to merge
+     * @return the new series, or this series if every rate is already in it
+     */
+    RateTimeSeries withAll(int[] newEpochDays, BigDecimal[] newRates, int count) {
+        if (count == 0) {
+            return this;
+        }
+
+        if (size == 0 || newEpochDays[0] > epochDays[size - 1]) {
+            return append(newEpochDays, newRates, count);
+        }
+
+        int[] mergedEpochDays = new int[size + count];
+        BigDecimal[] mergedRates = new BigDecimal[size + count];
+        int i = 0;
+        int j = 0;
+        int merged = 0;
+        boolean changed = false;
+
+        while (i < size || j < count) {
+            if (j == count || (i < size && epochDays[i] < newEpochDays[j])) {
+                mergedEpochDays[merged] = epochDays[i];
+                mergedRates[merged] = rates[i++];
+            } else {
+                if (i < size && epochDays[i] == newEpochDays[j]) {
+                    // By value, since rates read back from the database have the scale of the column
+                    changed |= rates[i].compareTo(newRates[j]) != 0;
+                    i++;
+                } else {
+                    changed = true;
+                }
+                mergedEpochDays[merged] = newEpochDays[j];
+                mergedRates[merged] = newRates[j++];
+            }
+            merged++;
+        }
+
+        // Refreshes that store rates again unchanged leave the series as it is
+        return changed ? new RateTimeSeries(mergedEpochDays, mergedRates, merged, new AtomicInteger(merged)) : this;
+    }
+
+    private RateTimeSeries append(int[] newEpochDays, BigDecimal[] newRates, int count) {
+        int newSize = size + count;
+
+        // Only the version that last claimed the arrays may extend them in place
+        if (newSize <= epochDays.length && claimed.compareAndSet(size, newSize)) {
+            System.arraycopy(newEpochDays, 0, epochDays, size, count);
+            System.arraycopy(newRates, 0, rates, size, count);
+            return new RateTimeSeries(epochDays, rates, newSize, claimed);
+        }
+
+        int capacity = Math.max(MIN_CAPACITY, newSize + (newSize >> 1));
+        int[] grownEpochDays = Arrays.copyOf(epochDays, capacity);
+        BigDecimal[] grownRates = Arrays.copyOf(rates, capacity);
+        System.arraycopy(newEpochDays, 0, grownEpochDays, size, count);
+        System.arraycopy(newRates, 0, grownRates, size, count);
+
+        return new RateTimeSeries(grownEpochDays, grownRates, newSize, new AtomicInteger(newSize));
+    }
+
+    int size() {
+        return size;
+    }
+
+    LocalDate dateAt(int index) {
+        return LocalDate.ofEpochDay(epochDays[index]);
+    }
+
+    BigDecimal rateAt(int index) {
+        return rates[index];
+    }
+
+    /**
+     * Builds a series from rates added in ascending date order.
+     */
+    static final class Builder {
+
+        private int[] epochDays = new int[MIN_CAPACITY];
+        private BigDecimal[] rates = new BigDecimal[MIN_CAPACITY];
+        private int size;
+
+        void add(LocalDate date, BigDecimal rate) {
+            int epochDay = (int) date.toEpochDay();
+
+            if (size > 0 && epochDays[size - 1] >= epochDay) {
+                if (epochDays[size - 1] == epochDay) {
+                    rates[size - 1] = rate;
+                    return;
+                }
+                throw new IllegalStateException("Rates must be added in ascending date order");
+            }
+
+            if (size == epochDays.length) {
+                epochDays = Arrays.copyOf(epochDays, size * 2);
+                rates = Arrays.copyOf(rates, size * 2);
+            }
+
+            epochDays[size] = epochDay;
+            rates[size] = rate;
+            size++;
+        }
+
+        RateTimeSeries build() {
+            return size == 0 ? EMPTY : new RateTimeSeries(epochDays, rates, size, new AtomicInteger(size));
+        }
+    }
+}
@@ -0,0 +1,228 @@
+package com.rn.currencyexchange.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Pushes the latest rates to Server-Sent Events subscribers whenever a refresh or backfill stores a newer rate date.
+ * <p>
+ * Each update is serialized once, including its SSE framing, and the same bytes are sent to every subscriber.
+ * The event id is the rate date, so a reconnecting client that sends Last-Event-ID only receives the rates if they
+ * are newer than the ones it has seen.
+ * <p>
+ * Every subscriber is served by its own virtual thread that sleeps until there is a newer update or a heartbeat is due.
+ * A slow subscriber only blocks its own thread, and since every update carries the full rate set it skips the updates
+ * published while it was busy and continues with the newest one.
+ */
+@Component
+public class RateUpdateBroadcaster implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(RateUpdateBroadcaster.class);
+
+    static final String EVENT_NAME = "rates";
+
+    @Autowired
+    private LatestRatesDocument latestRatesDocument;
+
+    @Value("${riksbank.events.heartbeat:30s}")
+    private Duration heartbeat = Duration.ofSeconds(30);
+
+    // Subscriber threads wait on a ReentrantLock condition, waiting in a synchronized block would pin their carrier thread
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition updated = lock.newCondition();
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+
+    private volatile RateUpdate current;
+    private volatile boolean closed;
+
+    /**
+     * Opens a subscription. The latest rates are sent right away unless the client has already seen them.
+     *
+     * @param lastEventId the Last-Event-ID sent by a reconnecting client, or null
+     * @return the emitter of the subscription
+     */
+    public SseEmitter subscribe(String lastEventId) {
+        if (current == null) {
+            publishLatest();
+        }
+
+        // Subscriptions stay open until the client disconnects
+        SseEmitter emitter = new SseEmitter(0L);
+        Subscriber subscriber = new Subscriber(emitter, parseRateDate(lastEventId));
+
+        emitter.onCompletion(subscriber::close);
+        emitter.onTimeout(subscriber::close);
+        emitter.onError(ex -> subscriber.close());
+
+        subscribers.add(subscriber);
+        subscriber.thread = Thread.ofVirtual().name("rate-subscriber").start(subscriber::run);
+
+        return emitter;
+    }
+
+    /**
+     * Broadcasts the latest rates if the update stored a newer rate date than the last broadcast.
+     */
+    @EventListener
+    public void onRatesUpdated(RatesUpdatedEvent event) {
+        publishLatest();
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    @Override
+    public void destroy() {
+        closed = true;
+        signalAll();
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+    }
+
+    private void publishLatest() {
+        LatestRatesDocument.Document document;
+
+        try {
+            document = latestRatesDocument.get();
+        } catch (IllegalArgumentException ex) {
+            // No rates yet
+            return;
+        }
+
+        lock.lock();
+        try {
+            if (current == null || document.getRateDate().isAfter(current.rateDate)) {
+                current = new RateUpdate(document.getRateDate(), SseEmitter.event()
+                        .id(document.getRateDate().toString())
+                        .name(EVENT_NAME)
+                        .data(document.getBody(), MediaType.APPLICATION_JSON)
+                        .build());
+                updated.signalAll();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Waits until there is an update newer than the given rate date, the timeout elapses or the broadcaster is closed.
+     *
+     * @return the newer update, or null if there is none
+     */
+    private RateUpdate awaitNewerThan(LocalDate lastSent, long timeoutNanos) throws InterruptedException {
+        lock.lock();
+        try {
+            long remaining = timeoutNanos;
+
+            while (!isNewer(current, lastSent) && remaining > 0 && !closed) {
+                remaining = updated.awaitNanos(remaining);
+            }
+
+            return isNewer(current, lastSent) ? current : null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void signalAll() {
+        lock.lock();
+        try {
+            updated.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static boolean isNewer(RateUpdate update, LocalDate lastSent) {
+        return update != null && (lastSent == null || update.rateDate.isAfter(lastSent));
+    }
+
+    private static LocalDate parseRateDate(String lastEventId) {
+        try {
+            return lastEventId == null ? null : LocalDate.parse(lastEventId);
+        } catch (DateTimeParseException ex) {
+            return null;
+        }
+    }
+
+    /**
+     * An update with its SSE event already serialized.
+     */
+    private static final class RateUpdate {
+
+        private final LocalDate rateDate;
+        private final Set<ResponseBodyEmitter.DataWithMediaType> event;
+
+        RateUpdate(LocalDate rateDate, Set<ResponseBodyEmitter.DataWithMediaType> event) {
+            this.rateDate = rateDate;
+            this.event = event;
+        }
+    }
+
+    private final class Subscriber {
+
+        private final SseEmitter emitter;
+        private LocalDate lastSent;
+        private volatile Thread thread;
+        private volatile boolean done;
+
+        Subscriber(SseEmitter emitter, LocalDate lastSent) {
+            this.emitter = emitter;
+            this.lastSent = lastSent;
+        }
+
+        void run() {
+            try {
+                while (!done && !closed) {
+                    RateUpdate update = awaitNewerThan(lastSent, heartbeat.toNanos());
+
+                    if (done || closed) {
+                        break;
+                    }
+
+                    if (update == null) {
+                        // Keeps proxies from closing idle connections and detects clients that have gone away
+                        emitter.send(SseEmitter.event().comment("heartbeat"));
+                    } else {
+                        emitter.send(update.event);
+                        lastSent = update.rateDate;
+                    }
+                }
+            } catch (IOException | IllegalStateException ex) {
+                log.debug("Rate subscriber disconnected: {}", ex.getMessage());
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            } finally {
+                subscribers.remove(this);
+            }
+        }
+
+        void close() {
+            done = true;
+            subscribers.remove(this);
+
+            // Wakes only this subscriber, signalling the condition would wake every idle subscriber
+            Thread current = thread;
+            if (current != null) {
+                current.interrupt();
+            }
+        }
+    }
+}
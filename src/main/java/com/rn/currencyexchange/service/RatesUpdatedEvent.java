@@ -0,0 +1,27 @@
+package com.rn.currencyexchange.service;
+
+import com.rn.currencyexchange.model.ExchangeRate;
+
+import java.util.List;
+
+/**
+ * Published after new rates have been stored and the in-memory latest rates and history have been updated,
+ * either by a refresh or by a completed backfill.
+ */
+public class RatesUpdatedEvent {
+
+    private final List<ExchangeRate> latestRates;
+
+    public RatesUpdatedEvent(List<ExchangeRate> latestRates) {
+        this.latestRates = latestRates;
+    }
+
+    /**
+     * Returns the latest rate of every currency pair after the update.
+     *
+     * @return the latest rates
+     */
+    public List<ExchangeRate> getLatestRates() {
+        return latestRates;
+    }
+}
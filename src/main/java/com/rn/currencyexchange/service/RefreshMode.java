@@ -0,0 +1,15 @@
+package com.rn.currencyexchange.service;
+
+/**
+ * How the latest exchange rates are fetched from Riksbanken.
+ */
+public enum RefreshMode {
+    /**
+     * Fetches every currency pair from the CrossRates endpoint, which grows quadratically with the number of currencies.
+     */
+    CROSS_RATES,
+    /**
+     * Fetches the SEK series of every currency once and computes all cross and inverse rates locally.
+     */
+    TRIANGULATE
+}
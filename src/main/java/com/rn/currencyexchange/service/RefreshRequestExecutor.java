@@ -0,0 +1,68 @@
+package com.rn.currencyexchange.service;
+
+import com.rn.currencyexchange.exception.RiksbankApiException;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Runs refresh requests, either on the request thread or, in async mode, on a bounded executor of their own.
+ * <p>
+ * In async mode a refresh that blocks on Riksbanken holds one of a few executor threads instead of a request thread,
+ * so conversions are still served while refreshes are slow. At most {@code threads} refresh requests run at once and
+ * {@code queue-capacity} more wait, requests beyond that are rejected with 503 Service Unavailable.
+ */
+@Component
+public class RefreshRequestExecutor implements DisposableBean {
+
+    private final boolean async;
+    private final ThreadPoolExecutor executor;
+
+    public RefreshRequestExecutor(@Value("${riksbank.refresh.requests.async:false}") boolean async,
+                                  @Value("${riksbank.refresh.requests.threads:4}") int threads,
+                                  @Value("${riksbank.refresh.requests.queue-capacity:100}") int queueCapacity) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("riksbank.refresh.requests.threads must be at least 1");
+        }
+
+        this.async = async;
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(queueCapacity, 1)), new CustomizableThreadFactory("refresh-request-"));
+    }
+
+    /**
+     * Runs a refresh request.
+     *
+     * @param request the refresh request
+     * @return the result, already completed unless in async mode
+     * @throws RuntimeException thrown by the request itself when not in async mode
+     */
+    public <T> CompletableFuture<T> submit(Supplier<T> request) {
+        if (!async) {
+            return CompletableFuture.completedFuture(request.get());
+        }
+
+        try {
+            return CompletableFuture.supplyAsync(request, executor);
+        } catch (RejectedExecutionException ex) {
+            return CompletableFuture.failedFuture(new RiksbankApiException("Too many refresh requests in progress"));
+        }
+    }
+
+    public boolean isAsync() {
+        return async;
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+}
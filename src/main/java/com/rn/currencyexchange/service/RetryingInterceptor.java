@@ -0,0 +1,70 @@
+package com.rn.currencyexchange.service;
+
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.time.Duration;
+
+/**
+ * Retries idempotent GET requests on I/O errors, timeouts, 429 and 5xx responses with exponential backoff.
+ * The response of the last attempt is returned as is, so the caller still sees the final error.
+ */
+class RetryingInterceptor implements ClientHttpRequestInterceptor {
+
+    private final int maxAttempts;
+    private final Duration initialBackoff;
+
+    RetryingInterceptor(int maxAttempts, Duration initialBackoff) {
+        if (maxAttempts < 1) {
+            throw new IllegalArgumentException("maxAttempts must be at least 1");
+        }
+
+        this.maxAttempts = maxAttempts;
+        this.initialBackoff = initialBackoff;
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution) throws IOException {
+        if (request.getMethod() != HttpMethod.GET) {
+            return execution.execute(request, body);
+        }
+
+        for (int attempt = 1; ; attempt++) {
+            try {
+                ClientHttpResponse response = execution.execute(request, body);
+
+                if (attempt >= maxAttempts || !isRetryable(response.getStatusCode())) {
+                    return response;
+                }
+
+                response.close();
+            } catch (IOException ex) {
+                if (attempt >= maxAttempts) {
+                    throw ex;
+                }
+            }
+
+            sleep(initialBackoff.multipliedBy(1L << Math.min(attempt - 1, 20)));
+        }
+    }
+
+    private static boolean isRetryable(HttpStatusCode statusCode) {
+        return statusCode.is5xxServerError() || statusCode.value() == HttpStatus.TOO_MANY_REQUESTS.value();
+    }
+
+    private static void sleep(Duration backoff) throws InterruptedIOException {
+        try {
+            Thread.sleep(backoff);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting to retry");
+        }
+    }
+}
@@ -4,41 +4,81 @@ import com.rn.currencyexchange.exception.RiksbankApiException;
 import com.rn.currencyexchange.model.CalendarDay;
 import com.rn.currencyexchange.model.CrossRate;
 import com.rn.currencyexchange.model.Currency;
+import com.rn.currencyexchange.model.Observation;
+import com.rn.currencyexchange.model.Series;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.http.*;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
+import org.springframework.web.client.RestClientException;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
-import java.util.Arrays;
+import java.time.ZoneId;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
 
 @Service
 public class RiksbankApiService {
 
-    private static final String BASE_URL = "https://api.riksbank.se/swea/v1/";
     private static final String SUBSCRIPTION_KEY = "Ocp-Apim-Subscription-Key";
-    private static final LocalTime PUBLISH_TIME = LocalTime.of(16, 15);
+    private static final String SEK_EXCHANGE_RATE_GROUP = "130";
+    public static final LocalTime PUBLISH_TIME = LocalTime.of(16, 15);
+    public static final ZoneId PUBLISH_ZONE = ZoneId.of("Europe/Stockholm");
 
-    private final RestTemplate restTemplate = new RestTemplate();
+    private final AtomicReference<BankDayCalendar> calendar = new AtomicReference<>(BankDayCalendar.EMPTY);
+
+    @Autowired
+    private RiksbankRestClients restClients;
+
+    @Autowired
+    private ExchangeRateMetrics metrics;
 
     @Value("${riksbank.api.key}")
     private String apiKey;
 
     /**
-     * Returns the latest Swedish bank day based on the current date and the Riksbankens publishing time.
-     * If the current time is before the publishing cutoff, it returns the previous day.
+     * Returns the latest Swedish bank day with published rates based on the current date and the Riksbankens publishing time.
+     * If the current time is before the publishing cutoff, the search starts from the previous day.
+     * Weekends and holidays are skipped using the cached bank day calendar.
      *
      * @return the latest bank day as a LocalDate
+     * @throws RiksbankApiException if the calendar could not be loaded or contains no bank day
      */
     public LocalDate getLatestBankDay() {
-        LocalDateTime now = LocalDateTime.now();
-        LocalDate today = now.toLocalDate();
-        LocalDateTime cutoff = LocalDateTime.of(today, PUBLISH_TIME);
+        return getBankDayOnOrBefore(latestPublishedDate());
+    }
 
-        return now.isBefore(cutoff) ? today.minusDays(1) : today;
+    /**
+     * Returns the latest bank day with published rates if the cached calendar covers it, without calling Riksbanken.
+     *
+     * @return the latest bank day, or null if the cached calendar does not cover the current date
+     */
+    public LocalDate getCachedLatestBankDay() {
+        LocalDate date = latestPublishedDate();
+        BankDayCalendar current = calendar.get();
+
+        return current.covers(date) ? current.latestBankDayOnOrBefore(date) : null;
+    }
+
+    /**
+     * Returns the latest Swedish bank day on or before the given date.
+     * The answer comes from the cached calendar, which is loaded from Riksbanken when the date falls outside of it.
+     *
+     * @param date the date to look up
+     * @return the latest bank day on or before the date
+     * @throws RiksbankApiException if the calendar could not be loaded or contains no bank day
+     */
+    public LocalDate getBankDayOnOrBefore(LocalDate date) {
+        LocalDate bankDay = getCalendarCovering(date).latestBankDayOnOrBefore(date);
+
+        if (bankDay == null) {
+            throw new RiksbankApiException("No valid Swedish bank day found on or before " + date);
+        }
+
+        return bankDay;
     }
 
     /**
@@ -50,44 +90,145 @@ public class RiksbankApiService {
      * @throws RiksbankApiException if no rates are returned from the API
      */
     public List<CrossRate> getLatestCrossRates(Currency fromCurrency, Currency toCurrency) {
-        HttpHeaders headers = createHeaders();
-        HttpEntity<Void> entity = new HttpEntity<>(headers);
-
-        CalendarDay bankDay = getLatestCalendarBankDate(entity);
-
-        String url = BASE_URL + "CrossRates/" +
+        String path = "CrossRates/" +
                 fromCurrency.getSeriesId() + "/" +
                 toCurrency.getSeriesId() + "/" +
-                bankDay.getCalendarDate();
+                getLatestBankDay();
 
-        ResponseEntity<CrossRate[]> response = restTemplate.exchange(url, HttpMethod.GET, entity, CrossRate[].class);
+        CrossRate[] crossRates = get("CrossRates", ExchangeRateMetrics.pair(fromCurrency, toCurrency), path, CrossRate[].class);
 
-        if (response.getBody() == null || response.getBody().length == 0) {
+        if (crossRates == null || crossRates.length == 0) {
             throw new RiksbankApiException("No cross rates returned from Riksbanken for " + fromCurrency + " to " + toCurrency);
         }
 
-        return List.of(response.getBody());
+        return List.of(crossRates);
+    }
+
+    /**
+     * Fetches the metadata of every SEK exchange rate series, including closed series.
+     *
+     * @return the series of the SEK exchange rate group
+     * @throws RiksbankApiException if no series are returned from the API
+     */
+    public List<Series> getSekExchangeRateSeries() {
+        String path = "Series/ByGroup/" + SEK_EXCHANGE_RATE_GROUP;
+
+        Series[] series = get("SeriesByGroup", ExchangeRateMetrics.NO_PAIR, path, Series[].class);
+
+        if (series == null || series.length == 0) {
+            throw new RiksbankApiException("No series returned from Riksbanken for group " + SEK_EXCHANGE_RATE_GROUP);
+        }
+
+        return List.of(series);
+    }
+
+    /**
+     * Fetches the latest observation of every SEK exchange rate series in a single request.
+     * Each observation value is the number of SEK per {@link Currency#getUnit()} units of the foreign currency.
+     *
+     * @return the latest observations of all SEK exchange rate series
+     * @throws RiksbankApiException if no observations are returned from the API
+     */
+    public List<Observation> getLatestSekObservations() {
+        String path = "Observations/Latest/ByGroup/" + SEK_EXCHANGE_RATE_GROUP;
+
+        Observation[] observations = get("ObservationsLatestByGroup", ExchangeRateMetrics.NO_PAIR, path, Observation[].class);
+
+        if (observations == null || observations.length == 0) {
+            throw new RiksbankApiException("No observations returned from Riksbanken for group " + SEK_EXCHANGE_RATE_GROUP);
+        }
+
+        return List.of(observations);
+    }
+
+    /**
+     * Fetches all observations of a currency's SEK series within a date range.
+     * Each observation value is the number of SEK per {@link Currency#getUnit()} units of the currency.
+     *
+     * @param currency the currency whose SEK series is fetched
+     * @param fromDate first date of the range, inclusive
+     * @param toDate   last date of the range, inclusive
+     * @return the observations in the range, which is empty if there were no bank days in it
+     */
+    public List<Observation> getSekObservations(Currency currency, LocalDate fromDate, LocalDate toDate) {
+        String path = "Observations/" + currency.getSeriesId() + "/" + fromDate + "/" + toDate;
+
+        Observation[] observations = get("Observations", ExchangeRateMetrics.pair(Currency.SEK, currency), path, Observation[].class);
+
+        if (observations == null) {
+            return List.of();
+        }
+
+        for (Observation observation : observations) {
+            observation.setSeriesId(currency.getSeriesId());
+        }
+
+        return List.of(observations);
+    }
+
+    /**
+     * Returns today if Riksbanken has passed its publishing time, otherwise yesterday.
+     */
+    private LocalDate latestPublishedDate() {
+        LocalDateTime now = LocalDateTime.now(PUBLISH_ZONE);
+        LocalDate today = now.toLocalDate();
+        LocalDateTime cutoff = LocalDateTime.of(today, PUBLISH_TIME);
+
+        return now.isBefore(cutoff) ? today.minusDays(1) : today;
+    }
+
+    private BankDayCalendar getCalendarCovering(LocalDate date) {
+        BankDayCalendar current = calendar.get();
+
+        if (current.covers(date)) {
+            return current;
+        }
+
+        synchronized (calendar) {
+            // Another thread may have loaded the calendar while we were waiting
+            current = calendar.get();
+            if (current.covers(date)) {
+                return current;
+            }
+
+            BankDayCalendar loaded = loadCalendar(date.minusYears(1).withDayOfYear(1), date.withDayOfYear(date.lengthOfYear()));
+            calendar.set(loaded);
+            return loaded;
+        }
     }
 
-    private CalendarDay getLatestCalendarBankDate(HttpEntity<Void> entity) {
-        String url = BASE_URL + "CalendarDays/" + getLatestBankDay();
+    private BankDayCalendar loadCalendar(LocalDate firstDay, LocalDate lastDay) {
+        String path = "CalendarDays/" + firstDay + "/" + lastDay;
 
-        ResponseEntity<CalendarDay[]> response = restTemplate.exchange(url, HttpMethod.GET, entity, CalendarDay[].class);
+        CalendarDay[] calendarDays = get("CalendarDays", ExchangeRateMetrics.NO_PAIR, path, CalendarDay[].class);
 
-        if (response.getBody() == null || response.getBody().length == 0) {
+        if (calendarDays == null || calendarDays.length == 0) {
             throw new RiksbankApiException("No bank days found in Riksbankens API response");
         }
 
-        return Arrays.stream(response.getBody())
-                .filter(CalendarDay::isSwedishBankday)
-                .findFirst()
-                .orElseThrow(() -> new RiksbankApiException("No valid Swedish bank day found"));
+        return BankDayCalendar.of(firstDay, lastDay, calendarDays);
+    }
+
+    /**
+     * Calls an endpoint with its own timeout and retry policy. Transport errors and error responses
+     * that remain after retrying are reported as a RiksbankApiException.
+     */
+    private <T> T get(String endpoint, String pair, String path, Class<T> responseType) {
+        return metrics.timeUpstreamCall(endpoint, pair, () -> {
+            try {
+                return restClients.forEndpoint(endpoint).get()
+                        .uri(path)
+                        .headers(this::addHeaders)
+                        .retrieve()
+                        .body(responseType);
+            } catch (RestClientException ex) {
+                throw new RiksbankApiException("Call to Riksbanken " + endpoint + " failed: " + ex.getMessage(), ex);
+            }
+        });
     }
 
-    private HttpHeaders createHeaders() {
-        HttpHeaders headers = new HttpHeaders();
+    private void addHeaders(HttpHeaders headers) {
         headers.set(SUBSCRIPTION_KEY, apiKey);
         headers.setAccept(List.of(MediaType.APPLICATION_JSON));
-        return headers;
     }
 }
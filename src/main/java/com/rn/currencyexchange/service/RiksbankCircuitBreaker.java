@@ -0,0 +1,109 @@
+package com.rn.currencyexchange.service;
+
+import com.rn.currencyexchange.exception.RiksbankApiException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+/**
+ * Stops calling Riksbanken after repeated failures.
+ * After {@code failure-threshold} consecutive failures the breaker opens and rejects calls without reaching upstream.
+ * Once {@code open-duration} has passed a single trial call is let through: if it succeeds the breaker closes,
+ * otherwise it opens again. Only {@link RiksbankApiException}s count as failures.
+ */
+@Component
+public class RiksbankCircuitBreaker {
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final int failureThreshold;
+    private final long openDurationNanos;
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openedAtNanos;
+
+    public RiksbankCircuitBreaker(@Value("${riksbank.circuit-breaker.failure-threshold:3}") int failureThreshold,
+                                  @Value("${riksbank.circuit-breaker.open-duration:1m}") Duration openDuration) {
+        if (failureThreshold < 1) {
+            throw new IllegalArgumentException("riksbank.circuit-breaker.failure-threshold must be at least 1");
+        }
+
+        this.failureThreshold = failureThreshold;
+        this.openDurationNanos = openDuration.toNanos();
+    }
+
+    /**
+     * Runs the call unless the breaker is open.
+     *
+     * @param call the upstream call
+     * @return the result of the call
+     * @throws RiksbankApiException if the breaker is open, or if the call itself fails
+     */
+    public <T> T call(Supplier<T> call) {
+        acquire();
+
+        try {
+            T result = call.get();
+            onSuccess();
+            return result;
+        } catch (RiksbankApiException ex) {
+            onFailure();
+            throw ex;
+        } catch (RuntimeException ex) {
+            // Not an upstream failure, release a trial call without changing the state
+            onIgnored();
+            throw ex;
+        }
+    }
+
+    /**
+     * Returns the current state. An open breaker whose open duration has passed is reported as half open.
+     *
+     * @return the state
+     */
+    public synchronized State getState() {
+        if (state == State.OPEN && System.nanoTime() - openedAtNanos >= openDurationNanos) {
+            return State.HALF_OPEN;
+        }
+        return state;
+    }
+
+    private synchronized void acquire() {
+        if (state == State.CLOSED) {
+            return;
+        }
+
+        if (state == State.OPEN && System.nanoTime() - openedAtNanos >= openDurationNanos) {
+            // Let exactly one trial call through, the state stays half open until it completes
+            state = State.HALF_OPEN;
+            return;
+        }
+
+        throw new RiksbankApiException("Riksbank API calls are suspended after " + consecutiveFailures + " consecutive failures");
+    }
+
+    private synchronized void onSuccess() {
+        state = State.CLOSED;
+        consecutiveFailures = 0;
+    }
+
+    private synchronized void onFailure() {
+        consecutiveFailures++;
+
+        if (state == State.HALF_OPEN || consecutiveFailures >= failureThreshold) {
+            state = State.OPEN;
+            openedAtNanos = System.nanoTime();
+        }
+    }
+
+    private synchronized void onIgnored() {
+        if (state == State.HALF_OPEN) {
+            state = State.OPEN;
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.rn.currencyexchange.service;
+
+import com.rn.currencyexchange.exception.RiksbankApiException;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+/**
+ * Runs blocking Riksbank calls concurrently on virtual threads.
+ * The number of calls in flight is capped so the upstream rate limit is respected, and every call is bounded by a timeout.
+ */
+@Component
+public class RiksbankFetchExecutor implements DisposableBean {
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Semaphore permits;
+    private final Duration callTimeout;
+
+    public RiksbankFetchExecutor(@Value("${riksbank.refresh.max-concurrency:4}") int maxConcurrency,
+                                 @Value("${riksbank.refresh.pair-timeout:10s}") Duration callTimeout) {
+        if (maxConcurrency < 1) {
+            throw new IllegalArgumentException("riksbank.refresh.max-concurrency must be at least 1");
+        }
+
+        this.permits = new Semaphore(maxConcurrency);
+        this.callTimeout = callTimeout;
+    }
+
+    /**
+     * Runs all tasks concurrently and returns their results in the same order as the tasks.
+     * If any task fails or times out the remaining tasks are cancelled and the failure is rethrown.
+     *
+     * @param tasks the calls to run
+     * @return the results, in task order
+     * @throws RiksbankApiException if a call times out or the calling thread is interrupted
+     */
+    public <T> List<T> invokeAll(List<Callable<T>> tasks) {
+        List<Future<T>> futures = new ArrayList<>(tasks.size());
+
+        for (Callable<T> task : tasks) {
+            futures.add(executor.submit(() -> callWithPermit(task)));
+        }
+
+        List<T> results = new ArrayList<>(tasks.size());
+
+        try {
+            for (Future<T> future : futures) {
+                results.add(await(future));
+            }
+        } finally {
+            futures.forEach(future -> future.cancel(true));
+        }
+
+        return results;
+    }
+
+    private <T> T callWithPermit(Callable<T> task) throws Exception {
+        permits.acquire();
+
+        // The permit is held until the upstream call actually returns, even if we stop waiting for it
+        Future<T> call = executor.submit(() -> {
+            try {
+                return task.call();
+            } finally {
+                permits.release();
+            }
+        });
+
+        try {
+            return call.get(callTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException ex) {
+            // Cancelled because another task failed, so the upstream call is not needed either
+            call.cancel(true);
+            throw ex;
+        } catch (TimeoutException ex) {
+            call.cancel(true);
+            throw new RiksbankApiException("Riksbank call timed out after " + callTimeout.toMillis() + " ms");
+        } catch (ExecutionException ex) {
+            throw unwrap(ex);
+        }
+    }
+
+    private <T> T await(Future<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new RiksbankApiException("Interrupted while waiting for Riksbank calls");
+        } catch (ExecutionException ex) {
+            throw unwrap(ex);
+        }
+    }
+
+    private RuntimeException unwrap(ExecutionException ex) {
+        Throwable cause = ex.getCause();
+
+        if (cause instanceof RuntimeException runtimeException) {
+            return runtimeException;
+        }
+
+        return new RiksbankApiException("Riksbank call failed: " + cause.getMessage());
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+}
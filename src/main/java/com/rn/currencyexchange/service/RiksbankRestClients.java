@@ -0,0 +1,69 @@
+package com.rn.currencyexchange.service;
+
+import com.rn.currencyexchange.config.RiksbankHttpProperties;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+
+import java.net.http.HttpClient;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * REST clients for the Riksbank API, one per endpoint.
+ * All clients share a single JDK {@link HttpClient}, and with it one connection pool and HTTP/2 connection,
+ * while each endpoint gets its own read timeout and retry policy.
+ */
+@Component
+public class RiksbankRestClients implements DisposableBean {
+
+    private final RiksbankHttpProperties properties;
+    private final HttpClient httpClient;
+    private final Map<String, RestClient> clients = new ConcurrentHashMap<>();
+
+    public RiksbankRestClients(RiksbankHttpProperties properties) {
+        this.properties = properties;
+        this.httpClient = HttpClient.newBuilder()
+                .version(properties.getVersion())
+                .connectTimeout(properties.getConnectTimeout())
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .build();
+    }
+
+    /**
+     * Returns the client of an endpoint, creating it on first use.
+     *
+     * @param endpoint the endpoint name, e.g. CrossRates
+     * @return the client, with the base URL of the Riksbank API
+     */
+    public RestClient forEndpoint(String endpoint) {
+        return clients.computeIfAbsent(endpoint, this::createClient);
+    }
+
+    private RestClient createClient(String endpoint) {
+        RiksbankHttpProperties.EndpointPolicy policy = properties.policyFor(endpoint);
+
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(httpClient);
+        requestFactory.setReadTimeout(policy.getReadTimeout());
+
+        RestClient.Builder builder = RestClient.builder()
+                .baseUrl(properties.getBaseUrl())
+                .requestFactory(requestFactory);
+
+        // The JDK client does not decompress responses itself
+        if (properties.isCompression()) {
+            builder.requestInterceptor(new GzipDecompressingInterceptor());
+        }
+
+        // Retries must come last so every attempt creates a new request
+        return builder
+                .requestInterceptor(new RetryingInterceptor(policy.getMaxAttempts(), policy.getInitialBackoff()))
+                .build();
+    }
+
+    @Override
+    public void destroy() {
+        httpClient.close();
+    }
+}
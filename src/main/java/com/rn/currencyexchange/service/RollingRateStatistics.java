@@ -0,0 +1,188 @@
+package com.rn.currencyexchange.service;
+
+import com.rn.currencyexchange.dto.RateStatistics;
+import com.rn.currencyexchange.model.Currency;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Rolling statistics of one currency pair over fixed windows of its latest daily rates.
+ * <p>
+ * The latest rates and their daily log returns are kept in ring buffers one longer than the largest window, so adding
+ * or replacing the latest rate updates every window in constant time. The rate sum of a window gains the new rate and
+ * loses the one leaving the window, and the mean and M2 of its returns are updated with Welford's method, applied in
+ * reverse for the return that leaves.
+ */
+final class RollingRateStatistics {
+
+    private final int[] windows;
+    private final double[] rates;
+    private final double[] returns;
+
+    private final double[] rateSums;
+    private final double[] returnMeans;
+    private final double[] returnM2s;
+
+    private long count;
+    private int lastEpochDay;
+    private BigDecimal lastRate;
+
+    RollingRateStatistics(int[] windows) {
+        int capacity = 0;
+        for (int window : windows) {
+            if (window < 1) {
+                throw new IllegalArgumentException("Analytics windows must be at least 1 bank day");
+            }
+            capacity = Math.max(capacity, window + 1);
+        }
+
+        this.windows = windows;
+        this.rates = new double[capacity];
+        this.returns = new double[capacity];
+        this.rateSums = new double[windows.length];
+        this.returnMeans = new double[windows.length];
+        this.returnM2s = new double[windows.length];
+    }
+
+    /**
+     * Creates the statistics of a pair from the latest rates of its series, the only ones any window covers.
+     *
+     * @param windows the window sizes in bank days
+     * @param series  the rates of the pair
+     * @return the statistics
+     */
+    static RollingRateStatistics of(int[] windows, RateTimeSeries series) {
+        RollingRateStatistics statistics = new RollingRateStatistics(windows);
+
+        for (int i = Math.max(0, series.size() - statistics.rates.length); i < series.size(); i++) {
+            statistics.add(series.dateAt(i), series.rateAt(i));
+        }
+
+        return statistics;
+    }
+
+    /**
+     * Adds the rate of a date after the latest one, or replaces the latest rate if the date is the same.
+     *
+     * @param date the rate date
+     * @param rate the rate
+     * @return false if the date is before the latest date, in which case nothing is changed
+     */
+    boolean add(LocalDate date, BigDecimal rate) {
+        int epochDay = (int) date.toEpochDay();
+
+        if (count > 0 && epochDay <= lastEpochDay) {
+            if (epochDay < lastEpochDay) {
+                return false;
+            }
+            if (rate.compareTo(lastRate) != 0) {
+                replaceLast(rate.doubleValue());
+            }
+        } else {
+            append(rate.doubleValue());
+        }
+
+        lastEpochDay = epochDay;
+        lastRate = rate;
+        return true;
+    }
+
+    RateStatistics toStatistics(Currency fromCurrency, Currency toCurrency) {
+        List<RateStatistics.Window> windowStatistics = new ArrayList<>(windows.length);
+
+        for (int w = 0; w < windows.length; w++) {
+            int observations = (int) Math.min(count, windows[w]);
+            int returnCount = (int) Math.min(count - 1, windows[w]);
+            // Removing returns can leave M2 a rounding error below zero
+            Double volatility = returnCount < 2 ? null : Math.sqrt(Math.max(returnM2s[w], 0) / (returnCount - 1));
+
+            windowStatistics.add(new RateStatistics.Window(windows[w], observations, rateSums[w] / observations, volatility));
+        }
+
+        return new RateStatistics(fromCurrency, toCurrency, LocalDate.ofEpochDay(lastEpochDay), lastRate, windowStatistics);
+    }
+
+    private void append(double rate) {
+        if (count > 0) {
+            appendReturn(Math.log(rate / rateAt(count - 1)), count - 1);
+        }
+
+        rates[(int) (count % rates.length)] = rate;
+        count++;
+
+        for (int w = 0; w < windows.length; w++) {
+            rateSums[w] += rate;
+            if (count > windows[w]) {
+                rateSums[w] -= rateAt(count - 1 - windows[w]);
+            }
+        }
+    }
+
+    private void appendReturn(double value, long returnIndex) {
+        returns[(int) (returnIndex % returns.length)] = value;
+
+        for (int w = 0; w < windows.length; w++) {
+            addReturn(w, value, (int) Math.min(returnIndex + 1, windows[w] + 1));
+            if (returnIndex >= windows[w]) {
+                removeReturn(w, returnAt(returnIndex - windows[w]), windows[w]);
+            }
+        }
+    }
+
+    private void replaceLast(double rate) {
+        double replaced = rateAt(count - 1);
+        rates[(int) ((count - 1) % rates.length)] = rate;
+
+        for (int w = 0; w < windows.length; w++) {
+            rateSums[w] += rate - replaced;
+        }
+
+        if (count > 1) {
+            long returnIndex = count - 2;
+            double replacedReturn = returnAt(returnIndex);
+            double value = Math.log(rate / rateAt(count - 2));
+            returns[(int) (returnIndex % returns.length)] = value;
+
+            for (int w = 0; w < windows.length; w++) {
+                int returnCount = (int) Math.min(count - 1, windows[w]);
+                removeReturn(w, replacedReturn, returnCount - 1);
+                addReturn(w, value, returnCount);
+            }
+        }
+    }
+
+    /**
+     * Welford's update for a return added to a window that then holds {@code n} returns.
+     */
+    private void addReturn(int w, double value, int n) {
+        double delta = value - returnMeans[w];
+        returnMeans[w] += delta / n;
+        returnM2s[w] += delta * (value - returnMeans[w]);
+    }
+
+    /**
+     * Welford's update in reverse for a return removed from a window that then holds {@code n} returns.
+     */
+    private void removeReturn(int w, double value, int n) {
+        if (n == 0) {
+            returnMeans[w] = 0;
+            returnM2s[w] = 0;
+            return;
+        }
+
+        double delta = value - returnMeans[w];
+        returnMeans[w] -= delta / n;
+        returnM2s[w] -= delta * (value - returnMeans[w]);
+    }
+
+    private double rateAt(long index) {
+        return rates[(int) (index % rates.length)];
+    }
+
+    private double returnAt(long index) {
+        return returns[(int) (index % returns.length)];
+    }
+}
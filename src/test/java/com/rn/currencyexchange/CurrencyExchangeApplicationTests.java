@@ -3,7 +3,8 @@ package com.rn.currencyexchange;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
 
-@SpringBootTest
+// Keep the application to SEK, EUR and USD, since the currency registry is shared by every test in the JVM
+@SpringBootTest(properties = "riksbank.currencies.load-on-startup=false")
 class CurrencyExchangeApplicationTests {
 
 	@Test
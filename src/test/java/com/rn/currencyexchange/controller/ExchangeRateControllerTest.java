@@ -0,0 +1,229 @@
+package com.rn.currencyexchange.controller;
+
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.rn.currencyexchange.dto.LatestExchangeRates;
+import com.rn.currencyexchange.model.Currency;
+import com.rn.currencyexchange.model.ExchangeRate;
+import com.rn.currencyexchange.service.ExchangeRateRefreshService;
+import com.rn.currencyexchange.service.ExchangeRateService;
+import com.rn.currencyexchange.service.LatestRateSnapshot;
+import com.rn.currencyexchange.service.ExportFormat;
+import com.rn.currencyexchange.service.LatestRatesDocument;
+import com.rn.currencyexchange.service.RateExportService;
+import com.rn.currencyexchange.service.RateUpdateBroadcaster;
+import com.rn.currencyexchange.service.RatesUpdatedEvent;
+import com.rn.currencyexchange.service.RefreshRequestExecutor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@ExtendWith(MockitoExtension.class)
+class ExchangeRateControllerTest {
+
+    private static final LocalDate RATE_DATE = LocalDate.of(2025, 10, 14);
+    private static final String LATEST_RATES_URL = "/api/exchange-rate/latestExchangeRates";
+    private static final String EXPORT_URL = "/api/exchange-rate/export";
+    private static final String EVENTS_URL = "/api/exchange-rate/latestExchangeRates/events";
+    private static final Duration HEARTBEAT = Duration.ofMillis(100);
+    private static final Duration EVENT_TIMEOUT = Duration.ofSeconds(5);
+
+    @Mock
+    private ExchangeRateService exchangeRateService;
+
+    @Mock
+    private RateExportService rateExportService;
+
+    @Mock
+    private ExchangeRateRefreshService exchangeRateRefreshService;
+
+    @InjectMocks
+    private ExchangeRateController exchangeRateController;
+
+    private RateUpdateBroadcaster rateUpdateBroadcaster;
+
+    private RefreshRequestExecutor refreshRequestExecutor;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        LatestRatesDocument latestRatesDocument = new LatestRatesDocument();
+        ReflectionTestUtils.setField(latestRatesDocument, "exchangeRateService", exchangeRateService);
+        ReflectionTestUtils.setField(latestRatesDocument, "objectMapper", Jackson2ObjectMapperBuilder.json()
+            .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS).build());
+        ReflectionTestUtils.setField(exchangeRateController, "latestRatesDocument", latestRatesDocument);
+
+        rateUpdateBroadcaster = new RateUpdateBroadcaster();
+        ReflectionTestUtils.setField(rateUpdateBroadcaster, "latestRatesDocument", latestRatesDocument);
+        ReflectionTestUtils.setField(rateUpdateBroadcaster, "heartbeat", HEARTBEAT);
+        ReflectionTestUtils.setField(exchangeRateController, "rateUpdateBroadcaster", rateUpdateBroadcaster);
+
+        refreshRequestExecutor = new RefreshRequestExecutor(true, 1, 1);
+        ReflectionTestUtils.setField(exchangeRateController, "refreshRequestExecutor", refreshRequestExecutor);
+
+        mockMvc = MockMvcBuilders.standaloneSetup(exchangeRateController).build();
+
+        lenient().when(exchangeRateService.getLatestRateSnapshot()).thenReturn(LatestRateSnapshot.of(List.of(
+                new ExchangeRate(Currency.SEK, Currency.EUR, new BigDecimal("0.0907"), RATE_DATE))));
+    }
+
+    @AfterEach
+    void tearDown() {
+        rateUpdateBroadcaster.destroy();
+        refreshRequestExecutor.destroy();
+    }
+
+    @Test
+    void refresh_in_async_mode_completes_on_refresh_executor() throws Exception {
+        AtomicReference<String> refreshThread = new AtomicReference<>();
+        when(exchangeRateRefreshService.getLatestRates()).thenAnswer(invocation -> {
+            refreshThread.set(Thread.currentThread().getName());
+            return new LatestExchangeRates(List.of(new ExchangeRate(Currency.SEK, Currency.EUR, new BigDecimal("0.0907"), RATE_DATE)),
+                    RATE_DATE, false, false);
+        });
+
+        MvcResult result = mockMvc.perform(post(LATEST_RATES_URL))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].fromCurrency").value("SEK"))
+                .andExpect(header().string(ExchangeRateController.RATE_DATE_HEADER, "2025-10-14"))
+                .andExpect(header().string(ExchangeRateController.STALE_HEADER, "false"))
+                .andExpect(header().doesNotExist(HttpHeaders.WARNING));
+
+        assertTrue(refreshThread.get().startsWith("refresh-request-"));
+    }
+
+    @Test
+    void refresh_returns_stale_rates_as_array_with_stale_headers() throws Exception {
+        when(exchangeRateRefreshService.getLatestRates()).thenReturn(new LatestExchangeRates(
+                List.of(new ExchangeRate(Currency.SEK, Currency.EUR, new BigDecimal("0.0907"), RATE_DATE)), RATE_DATE, true, true));
+
+        MvcResult result = mockMvc.perform(post(LATEST_RATES_URL))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].toCurrency").value("EUR"))
+                .andExpect(header().string(ExchangeRateController.RATE_DATE_HEADER, "2025-10-14"))
+                .andExpect(header().string(ExchangeRateController.STALE_HEADER, "true"))
+                .andExpect(header().string(ExchangeRateController.REVALIDATING_HEADER, "true"))
+                .andExpect(header().string(HttpHeaders.WARNING, ExchangeRateController.STALE_WARNING));
+    }
+
+    @Test
+    void get_latest_exchange_rates_returns_etag_and_last_modified() throws Exception {
+        mockMvc.perform(get(LATEST_RATES_URL))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andExpect(header().exists(HttpHeaders.LAST_MODIFIED))
+                .andExpect(jsonPath("$[0].fromCurrency").value("SEK"))
+                .andExpect(jsonPath("$[0].rateDate").value("2025-10-14"));
+    }
+
+    @Test
+    void get_latest_exchange_rates_with_matching_etag_returns_not_modified() throws Exception {
+        MvcResult first = mockMvc.perform(get(LATEST_RATES_URL)).andReturn();
+        String etag = first.getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get(LATEST_RATES_URL).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().bytes(new byte[0]));
+
+        mockMvc.perform(get(LATEST_RATES_URL).header(HttpHeaders.IF_NONE_MATCH, "\"something-else\""))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void export_streams_rates_as_attachment() throws Exception {
+        when(rateExportService.export(eq(ExportFormat.CSV), eq(Currency.SEK), eq(Currency.EUR), eq(RATE_DATE), isNull(), any(OutputStream.class)))
+                .thenAnswer(invocation -> {
+                    invocation.getArgument(5, OutputStream.class).write("SEK,EUR,2025-10-14,0.0907\n".getBytes(StandardCharsets.UTF_8));
+                    return 1L;
+                });
+
+        MvcResult result = mockMvc.perform(get(EXPORT_URL)
+                        .param("fromCurrency", "SEK")
+                        .param("toCurrency", "EUR")
+                        .param("from", "2025-10-14"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_TYPE, containsString("text/csv")))
+                .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION, containsString("exchange-rates.csv")))
+                .andExpect(content().string("SEK,EUR,2025-10-14,0.0907\n"));
+    }
+
+    @Test
+    void subscribers_receive_newer_rates_once_and_resume_from_last_event_id() throws Exception {
+        MvcResult subscription = mockMvc.perform(get(EVENTS_URL)).andExpect(request().asyncStarted()).andReturn();
+        awaitContent(subscription, "id:2025-10-14");
+
+        LocalDate nextDay = RATE_DATE.plusDays(1);
+        when(exchangeRateService.getLatestRateSnapshot()).thenReturn(LatestRateSnapshot.of(List.of(
+                new ExchangeRate(Currency.SEK, Currency.EUR, new BigDecimal("0.0911"), nextDay))));
+        rateUpdateBroadcaster.onRatesUpdated(new RatesUpdatedEvent(List.of()));
+        // An update without a newer rate date is not broadcast again
+        rateUpdateBroadcaster.onRatesUpdated(new RatesUpdatedEvent(List.of()));
+
+        String events = awaitContent(subscription, "id:2025-10-15");
+        assertEquals(1, events.split("id:2025-10-15", -1).length - 1, events);
+        assertTrue(events.contains("event:rates"), events);
+
+        MvcResult resumed = mockMvc.perform(get(EVENTS_URL).header("Last-Event-ID", nextDay.toString()))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String resumedEvents = awaitContent(resumed, ":heartbeat");
+        assertFalse(resumedEvents.contains("id:"), resumedEvents);
+        assertEquals(2, rateUpdateBroadcaster.getSubscriberCount());
+    }
+
+    private String awaitContent(MvcResult result, String expected) throws Exception {
+        long deadline = System.nanoTime() + EVENT_TIMEOUT.toNanos();
+
+        while (System.nanoTime() < deadline) {
+            String content = result.getResponse().getContentAsString(StandardCharsets.UTF_8);
+            if (content.contains(expected)) {
+                return content;
+            }
+            Thread.sleep(10);
+        }
+
+        return fail("No " + expected + " in " + result.getResponse().getContentAsString(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,177 @@
+package com.rn.currencyexchange.load;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Sends requests at a fixed rate, each on its own virtual thread, and records their latencies.
+ * The schedule does not wait for responses, and latency is measured from the time a request was scheduled to be sent,
+ * so a slow server shows up as higher latency instead of as a lower request rate.
+ */
+final class LoadGenerator {
+
+    private LoadGenerator() {
+    }
+
+    /**
+     * Sends requests at the given rate for the given duration and waits for all of them to complete.
+     *
+     * @param name              name of the scenario in the report
+     * @param requestsPerSecond target request rate
+     * @param duration          how long to send requests for
+     * @param request           sends one request, given its sequence number, and returns whether it succeeded
+     * @return the latencies and throughput of the run
+     */
+    static Result run(String name, int requestsPerSecond, Duration duration, Request request) throws InterruptedException {
+        int count = (int) (duration.toNanos() * requestsPerSecond / 1_000_000_000L);
+        long interval = 1_000_000_000L / requestsPerSecond;
+        long[] latencies = new long[count];
+        AtomicLong errors = new AtomicLong();
+
+        long start = System.nanoTime();
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < count; i++) {
+                long scheduled = start + i * interval;
+                long delay = scheduled - System.nanoTime();
+                if (delay > 0) {
+                    LockSupport.parkNanos(delay);
+                }
+
+                int sequence = i;
+                executor.execute(() -> {
+                    boolean success = send(request, sequence);
+                    latencies[sequence] = System.nanoTime() - scheduled;
+                    if (!success) {
+                        errors.incrementAndGet();
+                    }
+                });
+            }
+        }
+
+        // Closing the executor waits for every request, the array is safely published after that
+        return new Result(name, requestsPerSecond, latencies, errors.get(), System.nanoTime() - start);
+    }
+
+    /**
+     * Keeps a fixed number of requests in flight for the given duration, each client sending its next request as soon
+     * as its previous one has completed. Latency is measured from when each request was sent.
+     *
+     * @param name        name of the scenario in the report
+     * @param concurrency number of requests in flight
+     * @param duration    how long to send requests for
+     * @param request     sends one request, given its sequence number, and returns whether it succeeded
+     * @return the latencies and throughput of the run
+     */
+    static Result runClosed(String name, int concurrency, Duration duration, Request request) throws InterruptedException {
+        AtomicInteger sequence = new AtomicInteger();
+        AtomicLong errors = new AtomicLong();
+        List<List<Long>> clientLatencies = new ArrayList<>();
+
+        long start = System.nanoTime();
+        long end = start + duration.toNanos();
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int client = 0; client < concurrency; client++) {
+                List<Long> latencies = new ArrayList<>();
+                clientLatencies.add(latencies);
+
+                executor.execute(() -> {
+                    while (System.nanoTime() < end) {
+                        long sent = System.nanoTime();
+                        if (!send(request, sequence.getAndIncrement())) {
+                            errors.incrementAndGet();
+                        }
+                        latencies.add(System.nanoTime() - sent);
+                    }
+                });
+            }
+        }
+
+        long[] latencies = clientLatencies.stream().flatMap(List::stream).mapToLong(Long::longValue).toArray();
+        return new Result(name, 0, latencies, errors.get(), System.nanoTime() - start);
+    }
+
+    private static boolean send(Request request, int sequence) {
+        try {
+            return request.send(sequence);
+        } catch (Exception ex) {
+            return false;
+        }
+    }
+
+    interface Request {
+        boolean send(int sequence) throws Exception;
+    }
+
+    static final class Result {
+
+        private final String name;
+        private final int targetRate;
+        private final long[] sortedLatencies;
+        private final long errors;
+        private final long elapsedNanos;
+
+        Result(String name, int targetRate, long[] latencies, long errors, long elapsedNanos) {
+            this.name = name;
+            this.targetRate = targetRate;
+            this.sortedLatencies = latencies.clone();
+            this.errors = errors;
+            this.elapsedNanos = elapsedNanos;
+            Arrays.sort(sortedLatencies);
+        }
+
+        String getName() {
+            return name;
+        }
+
+        long getRequests() {
+            return sortedLatencies.length;
+        }
+
+        long getErrors() {
+            return errors;
+        }
+
+        double getThroughput() {
+            return sortedLatencies.length * 1_000_000_000.0 / elapsedNanos;
+        }
+
+        /**
+         * Returns the latency at the given percentile in nanoseconds, using the nearest rank.
+         */
+        long percentile(double percentile) {
+            if (sortedLatencies.length == 0) {
+                return 0;
+            }
+
+            int rank = (int) Math.ceil(percentile / 100.0 * sortedLatencies.length);
+            return sortedLatencies[Math.max(0, Math.min(rank, sortedLatencies.length) - 1)];
+        }
+
+        static String header() {
+            return String.format(Locale.ROOT, "%-14s %8s %8s %10s %7s %9s %9s %9s %9s",
+                    "scenario", "target/s", "requests", "achieved/s", "errors", "p50 ms", "p99 ms", "p99.9 ms", "max ms");
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT, "%-14s %8s %8d %10.1f %7d %9.2f %9.2f %9.2f %9.2f",
+                    // Closed runs have no target rate
+                    name, targetRate == 0 ? "-" : String.valueOf(targetRate), getRequests(), getThroughput(), errors,
+                    millis(percentile(50)), millis(percentile(99)), millis(percentile(99.9)), millis(percentile(100)));
+        }
+
+        private static double millis(long nanos) {
+            return nanos / 1_000_000.0;
+        }
+    }
+}
@@ -0,0 +1,206 @@
+package com.rn.currencyexchange.load;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.core.env.Environment;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * End to end load test of the conversion and refresh paths against an in-process Riksbank stub.
+ * Excluded from the default build, run with: mvn -Pload-test test
+ * <p>
+ * Settings are passed as system properties, e.g. -Dload.convert.rps=2000 -Dload.stub.failure-rate=0.05:
+ * <ul>
+ *     <li>load.convert.rps, load.refresh.rps: target request rates</li>
+ *     <li>load.refresh.concurrency: refresh requests kept in flight while conversions are measured again</li>
+ *     <li>load.duration, load.warmup: measured and warm-up duration of each scenario</li>
+ *     <li>load.stub.latency, load.stub.failure-rate: Riksbank stub response delay and share of 503 responses</li>
+ *     <li>load.stub.publish-lag: days the stub's cross rates lag the requested date, with a lag every refresh calls the stub</li>
+ *     <li>load.convert.p99-tolerance: how many times the p99 conversion latency without refreshes the p99 with
+ *     refreshes in flight may be</li>
+ * </ul>
+ * The application's execution mode is set the same way, e.g. -Dspring.threads.virtual.enabled=true or
+ * -Driksbank.refresh.requests.async=true, to compare conversion latency with refreshes in flight between modes.
+ * The report is printed and written to target/load-test-report.txt.
+ */
+@Tag("load")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "riksbank.api.key=" + LoadTest.API_KEY,
+        "riksbank.currencies.load-on-startup=false",
+        "riksbank.snapshot.enabled=false",
+        "riksbank.refresh.schedule.enabled=false",
+        // The stub serves CrossRates only
+        "riksbank.refresh.mode=cross-rates",
+        // Every refresh request goes through the refresh path instead of returning stored rates
+        "riksbank.refresh.serve-stale=false"
+})
+class LoadTest {
+
+    static final String API_KEY = "load-test-key";
+
+    private static final int CONVERT_RPS = Integer.getInteger("load.convert.rps", 500);
+    private static final int REFRESH_RPS = Integer.getInteger("load.refresh.rps", 20);
+    // More than the 200 request threads of Tomcat's default pool
+    private static final int REFRESH_CONCURRENCY = Integer.getInteger("load.refresh.concurrency", 250);
+    private static final Duration DURATION = duration("load.duration", "20s");
+    private static final Duration WARMUP = duration("load.warmup", "5s");
+    private static final Duration STUB_LATENCY = duration("load.stub.latency", "20ms");
+    private static final double STUB_FAILURE_RATE = Double.parseDouble(System.getProperty("load.stub.failure-rate", "0"));
+    private static final int STUB_PUBLISH_LAG_DAYS = Integer.getInteger("load.stub.publish-lag", 1);
+    private static final double CONVERT_P99_TOLERANCE = Double.parseDouble(System.getProperty("load.convert.p99-tolerance", "3"));
+    private static final String CONVERT = "convert";
+    private static final String CONVERT_DURING_REFRESHES = "convert-busy";
+    private static final String REFRESHES_IN_FLIGHT = "refresh-busy";
+    private static final Path REPORT = Path.of("target", "load-test-report.txt");
+
+    private static final String[] CONVERSIONS = {
+            "{\"fromCurrency\":\"SEK\",\"toCurrency\":\"EUR\",\"amount\":100}",
+            "{\"fromCurrency\":\"EUR\",\"toCurrency\":\"USD\",\"amount\":250.50}",
+            "{\"fromCurrency\":\"USD\",\"toCurrency\":\"SEK\",\"amount\":19.99}",
+            "{\"fromCurrency\":\"EUR\",\"toCurrency\":\"SEK\",\"amount\":1000}"
+    };
+
+    private static final RiksbankStub STUB = startStub();
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .executor(Executors.newVirtualThreadPerTaskExecutor())
+            .build();
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private Environment environment;
+
+    @DynamicPropertySource
+    static void riksbankStub(DynamicPropertyRegistry registry) {
+        registry.add("riksbank.http.base-url", STUB::getBaseUrl);
+    }
+
+    @AfterAll
+    static void stopStub() {
+        STUB.close();
+    }
+
+    @Test
+    void convert_and_refresh_under_load() throws Exception {
+        // Loads the calendar and the first rates, so conversions have rates to use
+        assertEquals(200, refresh(), "Initial refresh against the stub failed");
+
+        List<LoadGenerator.Result> results = new ArrayList<>();
+        LoadGenerator.Result conversions = scenario(CONVERT, CONVERT_RPS, sequence -> convert(sequence) == 200);
+        results.add(conversions);
+        results.add(scenario("refresh", REFRESH_RPS, sequence -> refresh() == 200));
+        List<LoadGenerator.Result> duringRefreshes = convertDuringRefreshes();
+        results.addAll(duringRefreshes);
+
+        report(results);
+
+        if (STUB_FAILURE_RATE == 0) {
+            // Refreshes beyond the async refresh executor's capacity are rejected by design
+            results.stream()
+                    .filter(result -> !result.getName().equals(REFRESHES_IN_FLIGHT))
+                    .forEach(result -> assertEquals(0, result.getErrors(), result.toString()));
+        }
+
+        // Refreshes in flight must not hold up conversions
+        long baselineP99 = conversions.percentile(99);
+        long busyP99 = duringRefreshes.getFirst().percentile(99);
+        assertTrue(busyP99 <= baselineP99 * CONVERT_P99_TOLERANCE, String.format(Locale.ROOT,
+                "p99 of %s is %.2f ms, more than %s times the %.2f ms of %s", CONVERT_DURING_REFRESHES,
+                busyP99 / 1_000_000.0, CONVERT_P99_TOLERANCE, baselineP99 / 1_000_000.0, CONVERT));
+    }
+
+    /**
+     * Measures conversions again while a fixed number of refresh requests are kept in flight.
+     */
+    private List<LoadGenerator.Result> convertDuringRefreshes() throws Exception {
+        try (ExecutorService background = Executors.newSingleThreadExecutor()) {
+            Future<LoadGenerator.Result> refreshes = background.submit(() -> LoadGenerator.runClosed(
+                    REFRESHES_IN_FLIGHT, REFRESH_CONCURRENCY, WARMUP.plus(DURATION), sequence -> refresh() == 200));
+
+            LoadGenerator.Result conversions = scenario(CONVERT_DURING_REFRESHES, CONVERT_RPS, sequence -> convert(sequence) == 200);
+
+            return List.of(conversions, refreshes.get());
+        }
+    }
+
+    private LoadGenerator.Result scenario(String name, int requestsPerSecond, LoadGenerator.Request request) throws InterruptedException {
+        LoadGenerator.run(name, requestsPerSecond, WARMUP, request);
+        return LoadGenerator.run(name, requestsPerSecond, DURATION, request);
+    }
+
+    private int convert(int sequence) throws IOException, InterruptedException {
+        return post("/convert", CONVERSIONS[sequence % CONVERSIONS.length]);
+    }
+
+    private int refresh() throws IOException, InterruptedException {
+        return post("/latestExchangeRates", "");
+    }
+
+    private int post(String path, String json) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/exchange-rate" + path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json))
+                .build();
+
+        return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    private void report(List<LoadGenerator.Result> results) throws IOException {
+        StringBuilder report = new StringBuilder()
+                .append(String.format("Duration %s after %s warm-up, stub latency %s, stub failure rate %s, stub publish lag %d days%n",
+                        DURATION, WARMUP, STUB_LATENCY, STUB_FAILURE_RATE, STUB_PUBLISH_LAG_DAYS))
+                .append(String.format("Virtual threads %s, async refresh requests %s, %d refreshes in flight during %s%n",
+                        environment.getProperty("spring.threads.virtual.enabled"), environment.getProperty("riksbank.refresh.requests.async"),
+                        REFRESH_CONCURRENCY, CONVERT_DURING_REFRESHES))
+                .append(LoadGenerator.Result.header()).append(System.lineSeparator());
+
+        for (LoadGenerator.Result result : results) {
+            report.append(result).append(System.lineSeparator());
+        }
+
+        report.append(String.format("Riksbank stub requests %d, injected failures %d%n", STUB.getRequests(), STUB.getInjectedFailures()));
+
+        System.out.print(report);
+        Files.createDirectories(REPORT.getParent());
+        Files.writeString(REPORT, report);
+    }
+
+    private static RiksbankStub startStub() {
+        try {
+            return RiksbankStub.start(API_KEY, STUB_LATENCY, STUB_FAILURE_RATE, STUB_PUBLISH_LAG_DAYS);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private static Duration duration(String property, String defaultValue) {
+        return DurationStyle.detectAndParse(System.getProperty(property, defaultValue));
+    }
+}
@@ -0,0 +1,157 @@
+package com.rn.currencyexchange.load;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-process stand-in for the Riksbank SWEA API, emulating the CalendarDays and CrossRates endpoints.
+ * Every response is delayed by a fixed latency, and a configurable share of requests fail with 503 so the retry and
+ * circuit breaker paths are exercised. Requests without the expected subscription key are rejected with 401.
+ * With a publish lag, cross rates are returned for an earlier date than requested, as before Riksbankens publishing
+ * time, so the rates of the requested bank day are never stored and every refresh calls the stub.
+ */
+final class RiksbankStub implements AutoCloseable {
+
+    private static final String SUBSCRIPTION_KEY = "Ocp-Apim-Subscription-Key";
+    private static final Map<String, BigDecimal> SEK_PER_UNIT = Map.of(
+            "SEKETT", BigDecimal.ONE,
+            "SEKEURPMI", new BigDecimal("11.0413"),
+            "SEKUSDPMI", new BigDecimal("9.4527"));
+
+    private final HttpServer server;
+    private final String apiKey;
+    private final Duration latency;
+    private final double failureRate;
+    private final int publishLagDays;
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong injectedFailures = new AtomicLong();
+
+    private RiksbankStub(HttpServer server, String apiKey, Duration latency, double failureRate, int publishLagDays) {
+        this.server = server;
+        this.apiKey = apiKey;
+        this.latency = latency;
+        this.failureRate = failureRate;
+        this.publishLagDays = publishLagDays;
+    }
+
+    /**
+     * Starts the stub on a free loopback port.
+     *
+     * @param apiKey         the subscription key requests must carry
+     * @param latency        delay added to every response
+     * @param failureRate    share of requests, between 0 and 1, answered with 503 Service Unavailable
+     * @param publishLagDays days before the requested date that cross rates are returned for
+     * @return the running stub
+     */
+    static RiksbankStub start(String apiKey, Duration latency, double failureRate, int publishLagDays) throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        // Platform threads, so the stub does not share carrier threads with an application running on virtual threads
+        server.setExecutor(Executors.newCachedThreadPool());
+
+        RiksbankStub stub = new RiksbankStub(server, apiKey, latency, failureRate, publishLagDays);
+        server.createContext("/CalendarDays/", exchange -> stub.handle(exchange, stub::calendarDays));
+        server.createContext("/CrossRates/", exchange -> stub.handle(exchange, stub::crossRates));
+        server.start();
+
+        return stub;
+    }
+
+    String getBaseUrl() {
+        return "http://localhost:" + server.getAddress().getPort() + "/";
+    }
+
+    long getRequests() {
+        return requests.get();
+    }
+
+    long getInjectedFailures() {
+        return injectedFailures.get();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+
+    /**
+     * CalendarDays/{from}/{to}, every weekday is a bank day.
+     */
+    private String calendarDays(String[] path) {
+        LocalDate from = LocalDate.parse(path[2]);
+        LocalDate to = LocalDate.parse(path[3]);
+        StringBuilder json = new StringBuilder("[");
+
+        for (LocalDate day = from; !day.isAfter(to); day = day.plusDays(1)) {
+            boolean bankDay = day.getDayOfWeek() != DayOfWeek.SATURDAY && day.getDayOfWeek() != DayOfWeek.SUNDAY;
+            json.append(json.length() > 1 ? "," : "")
+                    .append("{\"calendarDate\":\"").append(day).append("\",\"swedishBankday\":").append(bankDay).append('}');
+        }
+
+        return json.append(']').toString();
+    }
+
+    /**
+     * CrossRates/{fromSeries}/{toSeries}/{date}, a single rate on the requested date less the publish lag.
+     */
+    private String crossRates(String[] path) {
+        BigDecimal rate = sekPerUnit(path[2]).divide(sekPerUnit(path[3]), MathContext.DECIMAL64);
+        LocalDate date = LocalDate.parse(path[4]).minusDays(publishLagDays);
+
+        return "[{\"date\":\"" + date + "\",\"value\":" + rate.toPlainString() + "}]";
+    }
+
+    private BigDecimal sekPerUnit(String seriesId) {
+        return SEK_PER_UNIT.getOrDefault(seriesId, BigDecimal.TEN);
+    }
+
+    private void handle(HttpExchange exchange, Endpoint endpoint) throws IOException {
+        requests.incrementAndGet();
+
+        try {
+            Thread.sleep(latency);
+
+            if (!apiKey.equals(exchange.getRequestHeaders().getFirst(SUBSCRIPTION_KEY))) {
+                respond(exchange, 401, "{\"error\":\"Missing or invalid subscription key\"}");
+            } else if (failureRate > 0 && ThreadLocalRandom.current().nextDouble() < failureRate) {
+                injectedFailures.incrementAndGet();
+                respond(exchange, 503, "{\"error\":\"Injected failure\"}");
+            } else {
+                respond(exchange, 200, endpoint.respond(exchange.getRequestURI().getPath().split("/")));
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            exchange.close();
+        } catch (RuntimeException ex) {
+            respond(exchange, 400, "{\"error\":\"" + ex.getMessage() + "\"}");
+        }
+    }
+
+    private static void respond(HttpExchange exchange, int status, String json) throws IOException {
+        byte[] body = json.getBytes(StandardCharsets.UTF_8);
+
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private interface Endpoint {
+        String respond(String[] path);
+    }
+}
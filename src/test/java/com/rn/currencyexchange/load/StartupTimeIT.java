@@ -0,0 +1,211 @@
+package com.rn.currencyexchange.load;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.convert.DurationStyle;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Startup benchmark of the packaged application, measuring the time from launching the JVM to the first successful
+ * /convert for each startup mode, from a plain jar to AOT, CDS and lazy initialization combined.
+ * Runs after packaging with: mvn -Pfast-startup verify
+ * <p>
+ * Rates come from a rate snapshot file written by a seed run against the Riksbank stub, as a new instance of an
+ * autoscaled service would load them, so no measured run calls Riksbanken. Settings are passed as system properties:
+ * <ul>
+ *     <li>startup.runs: measured launches per mode</li>
+ *     <li>startup.timeout: longest wait for the first successful conversion of a launch</li>
+ * </ul>
+ * The report is printed and written to target/startup-report.txt, the output of every launch to target/startup/.
+ */
+class StartupTimeIT {
+
+    private static final String API_KEY = "startup-test-key";
+    private static final int RUNS = Integer.getInteger("startup.runs", 3);
+    private static final Duration TIMEOUT = DurationStyle.detectAndParse(System.getProperty("startup.timeout", "60s"));
+    private static final Duration POLL_INTERVAL = Duration.ofMillis(5);
+    private static final Path JAR = Path.of(System.getProperty("startup.jar", "target/fast-startup/currency-exchange-0.0.1-SNAPSHOT.jar"));
+    private static final Path ARCHIVE = Path.of(System.getProperty("startup.archive", "target/fast-startup/application.jsa"));
+    private static final Path OUTPUT = Path.of("target", "startup");
+    private static final Path SNAPSHOT = OUTPUT.resolve("rate-snapshot.bin");
+    private static final Path REPORT = Path.of("target", "startup-report.txt");
+    private static final String CONVERSION = "{\"fromCurrency\":\"SEK\",\"toCurrency\":\"EUR\",\"amount\":100}";
+
+    private static final String LAZY = "-Dspring.profiles.active=fast-startup";
+    private static final String AOT = "-Dspring.aot.enabled=true";
+    private static final String CDS = "-XX:SharedArchiveFile=" + ARCHIVE;
+
+    private static final RiksbankStub STUB = startStub();
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(1))
+            .build();
+
+    @AfterAll
+    static void stopStub() {
+        STUB.close();
+    }
+
+    @Test
+    void time_to_first_successful_conversion() throws Exception {
+        assertTrue(Files.exists(JAR), "Packaged jar not found, run with: mvn -Pfast-startup verify");
+        assertTrue(Files.exists(ARCHIVE), "CDS archive not found, run with: mvn -Pfast-startup verify");
+        Files.createDirectories(OUTPUT);
+
+        seedRateSnapshot();
+
+        List<Mode> modes = List.of(
+                new Mode("jar"),
+                new Mode("lazy", LAZY),
+                new Mode("cds", CDS),
+                new Mode("aot+lazy", AOT, LAZY),
+                new Mode("fast-startup", CDS, AOT, LAZY));
+
+        for (Mode mode : modes) {
+            for (int run = 1; run <= RUNS; run++) {
+                mode.millis.add(timeToFirstConversion(mode, run));
+            }
+        }
+
+        report(modes);
+    }
+
+    /**
+     * Refreshes the rates of a plain launch against the stub, which writes them to the snapshot file.
+     */
+    private void seedRateSnapshot() throws Exception {
+        Files.deleteIfExists(SNAPSHOT);
+        int port = freePort();
+        Process process = launch(new Mode("seed"), 0, port);
+
+        try {
+            awaitStatus(port, "/latestExchangeRates", "", process);
+        } finally {
+            stop(process);
+        }
+
+        assertTrue(Files.exists(SNAPSHOT), "Seed run did not write the rate snapshot");
+    }
+
+    private long timeToFirstConversion(Mode mode, int run) throws Exception {
+        int port = freePort();
+        long start = System.nanoTime();
+        Process process = launch(mode, run, port);
+
+        try {
+            awaitStatus(port, "/convert", CONVERSION, process);
+            return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        } finally {
+            stop(process);
+        }
+    }
+
+    private Process launch(Mode mode, int run, int port) throws IOException {
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(mode.jvmArguments);
+        command.addAll(List.of("-jar", JAR.toString(),
+                "--server.port=" + port,
+                "--riksbank.api.key=" + API_KEY,
+                "--riksbank.http.base-url=" + STUB.getBaseUrl(),
+                "--riksbank.currencies.load-on-startup=false",
+                "--riksbank.refresh.schedule.enabled=false",
+                "--riksbank.refresh.mode=cross-rates",
+                "--riksbank.snapshot.path=" + SNAPSHOT));
+
+        return new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(OUTPUT.resolve(mode.name + "-" + run + ".log").toFile())
+                .start();
+    }
+
+    /**
+     * Posts to the endpoint until it answers 200, retrying while the application is still starting.
+     */
+    private void awaitStatus(int port, String path, String json, Process process) throws InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/exchange-rate" + path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json))
+                .build();
+        long deadline = System.nanoTime() + TIMEOUT.toNanos();
+
+        while (System.nanoTime() < deadline) {
+            assertTrue(process.isAlive(), "Application exited, see " + OUTPUT);
+
+            try {
+                if (client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                    return;
+                }
+            } catch (IOException ex) {
+                // Not listening yet
+            }
+            Thread.sleep(POLL_INTERVAL);
+        }
+
+        fail("No successful " + path + " within " + TIMEOUT + ", see " + OUTPUT);
+    }
+
+    private void report(List<Mode> modes) throws IOException {
+        StringBuilder report = new StringBuilder()
+                .append(String.format("Time to first successful /convert, %d launches per mode, %s%n", RUNS, System.getProperty("java.vm.version")))
+                .append(String.format("%-14s %10s %10s %10s%n", "mode", "min ms", "median ms", "max ms"));
+
+        for (Mode mode : modes) {
+            long[] millis = mode.millis.stream().mapToLong(Long::longValue).sorted().toArray();
+            report.append(String.format("%-14s %10d %10d %10d%n", mode.name, millis[0], millis[millis.length / 2], millis[millis.length - 1]));
+        }
+
+        System.out.print(report);
+        Files.writeString(REPORT, report);
+    }
+
+    private static void stop(Process process) throws InterruptedException {
+        process.destroy();
+
+        if (!process.waitFor(10, TimeUnit.SECONDS)) {
+            process.destroyForcibly().waitFor();
+        }
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private static RiksbankStub startStub() {
+        try {
+            return RiksbankStub.start(API_KEY, Duration.ZERO, 0, 0);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private static final class Mode {
+
+        private final String name;
+        private final List<String> jvmArguments;
+        private final List<Long> millis = new ArrayList<>();
+
+        Mode(String name, String... jvmArguments) {
+            this.name = name;
+            this.jvmArguments = Arrays.asList(jvmArguments);
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package com.rn.currencyexchange.repository;
+
+import com.rn.currencyexchange.dto.ExchangeRateView;
+import com.rn.currencyexchange.model.Currency;
+import com.rn.currencyexchange.model.ExchangeRate;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.rn.currencyexchange.repository.RecordingStatementInspector"
+})
+class ExchangeRateRepositoryTest {
+
+    private static final LocalDate LATEST_DAY = LocalDate.of(2025, 10, 17);
+    private static final int YEARS_OF_HISTORY = 5;
+    private static final String UNIQUE_INDEX = "UK_EXCHANGE_RATE_PAIR_DATE";
+
+    @Autowired
+    private ExchangeRateRepository exchangeRateRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private List<ExchangeRate> history;
+
+    @BeforeEach
+    void setUp() {
+        history = createHistory();
+        exchangeRateRepository.upsertAll(history);
+    }
+
+    @Test
+    void upsert_all_is_idempotent() {
+        exchangeRateRepository.upsertAll(history);
+
+        assertEquals(history.size(), exchangeRateRepository.count());
+    }
+
+    @Test
+    void upsert_all_updates_existing_rate() {
+        BigDecimal correctedRate = new BigDecimal("0.0912345678901234");
+
+        exchangeRateRepository.upsertAll(List.of(new ExchangeRate(Currency.SEK, Currency.EUR, correctedRate, LATEST_DAY)));
+
+        ExchangeRateView latest = exchangeRateRepository.findLatestRate(Currency.SEK, Currency.EUR).orElseThrow();
+        assertEquals(history.size(), exchangeRateRepository.count());
+        assertEquals(0, correctedRate.compareTo(latest.getConversionRate()));
+    }
+
+    @Test
+    void find_latest_rate_returns_newest_date() {
+        ExchangeRateView latest = exchangeRateRepository.findLatestRate(Currency.EUR, Currency.USD).orElseThrow();
+
+        assertEquals(LATEST_DAY, latest.getRateDate());
+    }
+
+    @Test
+    void find_all_latest_rates_reads_every_pair_in_one_statement_without_entities() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        List<ExchangeRateView> latestRates = exchangeRateRepository.findAllLatestRates();
+
+        int currencies = Currency.count();
+        assertEquals(currencies * (currencies - 1), latestRates.size());
+        assertTrue(latestRates.stream().allMatch(rate -> rate.getRateDate().equals(LATEST_DAY)));
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    void find_rate_on_or_before_reads_one_statement_without_entities() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        ExchangeRateView rate = exchangeRateRepository.findRateOnOrBefore(Currency.SEK, Currency.USD, LATEST_DAY.plusDays(3)).orElseThrow();
+
+        assertEquals(LATEST_DAY, rate.getRateDate());
+        assertTrue(exchangeRateRepository.findRateOnOrBefore(Currency.SEK, Currency.USD, LATEST_DAY.minusYears(YEARS_OF_HISTORY + 1)).isEmpty());
+        assertEquals(2, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    void find_latest_rate_query_uses_unique_index() {
+        RecordingStatementInspector.clear();
+        exchangeRateRepository.findLatestRate(Currency.EUR, Currency.USD);
+
+        String plan = explain(RecordingStatementInspector.single(), "EUR", "USD", "EUR", "USD");
+
+        assertTrue(plan.toUpperCase().contains(UNIQUE_INDEX), plan);
+    }
+
+    @Test
+    void find_all_latest_rates_query_reads_table_once() {
+        RecordingStatementInspector.clear();
+        exchangeRateRepository.findAllLatestRates();
+
+        String plan = explain(RecordingStatementInspector.single());
+
+        // H2 comments every table access in the plan, a lookup per row would add an index access on the same table
+        assertEquals(1, plan.split("/\\* PUBLIC\\.", -1).length - 1, plan);
+        assertFalse(plan.toUpperCase().contains(UNIQUE_INDEX), plan);
+    }
+
+    @Test
+    void find_by_pair_and_date_query_uses_unique_index() {
+        RecordingStatementInspector.clear();
+        exchangeRateRepository.findByFromCurrencyAndToCurrencyAndRateDate(Currency.SEK, Currency.USD, LocalDate.of(2024, 6, 3));
+
+        String plan = explain(RecordingStatementInspector.single(), "SEK", "USD", LocalDate.of(2024, 6, 3));
+
+        assertTrue(plan.toUpperCase().contains(UNIQUE_INDEX), plan);
+    }
+
+    @Test
+    void stream_rates_filters_by_pair_and_date_range_in_date_order() {
+        LocalDate fromDate = LATEST_DAY.minusDays(9);
+
+        List<ExchangeRate> rates;
+        try (Stream<ExchangeRate> stream = exchangeRateRepository.streamRates(Currency.SEK, Currency.EUR, fromDate, LATEST_DAY)) {
+            rates = stream.toList();
+        }
+
+        assertEquals(10, rates.size());
+        assertEquals(fromDate, rates.get(0).getRateDate());
+        assertEquals(LATEST_DAY, rates.get(rates.size() - 1).getRateDate());
+        assertTrue(rates.stream().allMatch(rate -> rate.getFromCurrency() == Currency.SEK && rate.getToCurrency() == Currency.EUR));
+    }
+
+    @Test
+    void stream_rates_without_filters_returns_every_rate() {
+        try (Stream<ExchangeRate> stream = exchangeRateRepository.streamRates(null, null, null, null)) {
+            assertEquals(history.size(), stream.count());
+        }
+    }
+
+    /**
+     * Returns the H2 plan of a statement recorded from Hibernate, with its parameters bound in order.
+     */
+    private String explain(String sql, Object... parameters) {
+        String plan = jdbcTemplate.queryForObject("EXPLAIN " + sql, String.class, parameters);
+
+        assertNotNull(plan);
+        return plan;
+    }
+
+    private List<ExchangeRate> createHistory() {
+        List<ExchangeRate> rates = new ArrayList<>();
+
+        for (LocalDate day = LATEST_DAY.minusYears(YEARS_OF_HISTORY); !day.isAfter(LATEST_DAY); day = day.plusDays(1)) {
+            BigDecimal sekPerEur = BigDecimal.valueOf(10 + day.getDayOfYear() / 365.0);
+
+            for (Currency fromCurrency : Currency.values()) {
+                for (Currency toCurrency : Currency.values()) {
+                    if (fromCurrency != toCurrency) {
+                        rates.add(new ExchangeRate(fromCurrency, toCurrency, sekPerEur, day));
+                    }
+                }
+            }
+        }
+
+        return rates;
+    }
+}
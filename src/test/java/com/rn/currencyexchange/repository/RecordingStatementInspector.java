@@ -0,0 +1,41 @@
+package com.rn.currencyexchange.repository;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Records the SQL of every statement Hibernate prepares, so tests can EXPLAIN the queries that actually run.
+ * Registered with the hibernate.session_factory.statement_inspector property.
+ */
+public class RecordingStatementInspector implements StatementInspector {
+
+    private static final List<String> statements = new ArrayList<>();
+
+    @Override
+    public String inspect(String sql) {
+        synchronized (statements) {
+            statements.add(sql);
+        }
+        return sql;
+    }
+
+    static void clear() {
+        synchronized (statements) {
+            statements.clear();
+        }
+    }
+
+    /**
+     * Returns the only statement recorded since the last {@link #clear()}.
+     */
+    static String single() {
+        synchronized (statements) {
+            if (statements.size() != 1) {
+                throw new AssertionError("Expected one statement but got " + statements);
+            }
+            return statements.getFirst();
+        }
+    }
+}
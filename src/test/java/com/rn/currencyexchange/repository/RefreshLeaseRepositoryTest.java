@@ -0,0 +1,109 @@
+package com.rn.currencyexchange.repository;
+
+import com.rn.currencyexchange.model.RefreshLease;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs against a file database that other processes can share through AUTO_SERVER, as replicas would,
+ * and without a test transaction so every lease update is committed on its own connection.
+ */
+@DataJpaTest(properties = "spring.datasource.url=jdbc:h2:file:./target/refresh-lease-test;AUTO_SERVER=TRUE")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class RefreshLeaseRepositoryTest {
+
+    private static final String LEASE = "latest-rates";
+    private static final Duration LEASE_DURATION = Duration.ofMinutes(2);
+    private static final LocalDate RATE_DATE = LocalDate.of(2025, 10, 17);
+    private static final int NO_OF_NODES = 8;
+
+    @Autowired
+    private RefreshLeaseRepository refreshLeaseRepository;
+
+    @BeforeEach
+    void setUp() {
+        refreshLeaseRepository.deleteAll();
+        refreshLeaseRepository.save(new RefreshLease(LEASE));
+    }
+
+    @Test
+    void only_one_of_several_racing_nodes_acquires_the_lease() throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Integer>> results = new ArrayList<>();
+
+        try (ExecutorService nodes = Executors.newFixedThreadPool(NO_OF_NODES)) {
+            for (int i = 0; i < NO_OF_NODES; i++) {
+                String node = "node-" + i;
+                results.add(nodes.submit(() -> {
+                    start.await();
+                    Instant now = Instant.now();
+                    return refreshLeaseRepository.acquire(LEASE, node, now, now.plus(LEASE_DURATION));
+                }));
+            }
+            start.countDown();
+
+            int acquired = 0;
+            for (Future<Integer> result : results) {
+                acquired += result.get();
+            }
+            assertEquals(1, acquired);
+        }
+    }
+
+    @Test
+    void held_lease_is_only_acquired_by_holder_until_it_expires() {
+        Instant now = Instant.now();
+        assertEquals(1, refreshLeaseRepository.acquire(LEASE, "node-a", now, now.plus(LEASE_DURATION)));
+
+        assertEquals(0, refreshLeaseRepository.acquire(LEASE, "node-b", now, now.plus(LEASE_DURATION)));
+        assertEquals(1, refreshLeaseRepository.acquire(LEASE, "node-a", now, now.plus(LEASE_DURATION)));
+
+        Instant afterExpiry = now.plus(LEASE_DURATION).plusSeconds(1);
+        assertEquals(1, refreshLeaseRepository.acquire(LEASE, "node-b", afterExpiry, afterExpiry.plus(LEASE_DURATION)));
+        assertEquals("node-b", refreshLeaseRepository.findById(LEASE).orElseThrow().getHolder());
+    }
+
+    @Test
+    void release_frees_lease_and_publishes_rate_date() {
+        Instant now = Instant.now();
+        refreshLeaseRepository.acquire(LEASE, "node-a", now, now.plus(LEASE_DURATION));
+
+        assertEquals(0, refreshLeaseRepository.release(LEASE, "node-b", RATE_DATE.plusDays(1)));
+        assertEquals(1, refreshLeaseRepository.release(LEASE, "node-a", RATE_DATE));
+
+        RefreshLease lease = refreshLeaseRepository.findById(LEASE).orElseThrow();
+        assertNull(lease.getHolder());
+        assertEquals(RATE_DATE, lease.getRateDate());
+        assertEquals(1, refreshLeaseRepository.acquire(LEASE, "node-b", now, now.plus(LEASE_DURATION)));
+    }
+
+    @Test
+    void failed_refresh_keeps_published_rate_date() {
+        Instant now = Instant.now();
+        refreshLeaseRepository.acquire(LEASE, "node-a", now, now.plus(LEASE_DURATION));
+        refreshLeaseRepository.release(LEASE, "node-a", RATE_DATE);
+        refreshLeaseRepository.acquire(LEASE, "node-b", now, now.plus(LEASE_DURATION));
+
+        refreshLeaseRepository.release(LEASE, "node-b", null);
+
+        assertEquals(RATE_DATE, refreshLeaseRepository.findById(LEASE).orElseThrow().getRateDate());
+    }
+}
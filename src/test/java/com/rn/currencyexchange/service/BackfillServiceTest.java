@@ -0,0 +1,200 @@
+package com.rn.currencyexchange.service;
+
+import com.rn.currencyexchange.exception.BackfillAlreadyRunningException;
+import com.rn.currencyexchange.exception.RiksbankApiException;
+import com.rn.currencyexchange.model.BackfillCheckpoint;
+import com.rn.currencyexchange.model.Currency;
+import com.rn.currencyexchange.model.ExchangeRate;
+import com.rn.currencyexchange.model.Observation;
+import com.rn.currencyexchange.repository.BackfillCheckpointRepository;
+import com.rn.currencyexchange.repository.ExchangeRateRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BackfillServiceTest {
+
+    private static final LocalDate MONDAY = LocalDate.of(2025, 10, 6);
+    private static final LocalDate SUNDAY = LocalDate.of(2025, 10, 12);
+    private static final int NO_OF_RATE_COMBOS = 6;
+    private static final int BANK_DAYS_IN_WEEK = 5;
+
+    @Mock
+    private RiksbankApiService riksbankApiService;
+
+    @Mock
+    private ExchangeRateRepository exchangeRateRepository;
+
+    @Mock
+    private BackfillCheckpointRepository backfillCheckpointRepository;
+
+    @Mock
+    private HistoricalRateStore historicalRateStore;
+
+    @Mock
+    private ExchangeRateService exchangeRateService;
+
+    @Spy
+    private RiksbankFetchExecutor riksbankFetchExecutor = new RiksbankFetchExecutor(2, Duration.ofSeconds(5));
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @InjectMocks
+    private BackfillService backfillService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(backfillService, "pageDays", 3);
+        ReflectionTestUtils.setField(backfillService, "maxAttempts", 2);
+        ReflectionTestUtils.setField(backfillService, "initialBackoff", Duration.ofMillis(1));
+        lenient().when(exchangeRateService.getLatestRateSnapshot()).thenReturn(LatestRateSnapshot.EMPTY);
+    }
+
+    @Test
+    void run_writes_triangulated_rates_for_every_bank_day_and_checkpoints_each_page() {
+        stubObservations();
+        List<LocalDate> checkpointedDates = new ArrayList<>();
+        when(backfillCheckpointRepository.save(any())).thenAnswer(invocation -> {
+            checkpointedDates.add(invocation.<BackfillCheckpoint>getArgument(0).getNextDate());
+            return invocation.getArgument(0);
+        });
+
+        BackfillCheckpoint checkpoint = new BackfillCheckpoint(MONDAY, SUNDAY);
+        backfillService.run(checkpoint);
+
+        assertEquals(BackfillCheckpoint.State.COMPLETED, checkpoint.getState());
+        assertEquals(BANK_DAYS_IN_WEEK * NO_OF_RATE_COMBOS, checkpoint.getRowsWritten());
+        // Three pages of three days, then the final completed state
+        assertEquals(List.of(MONDAY.plusDays(3), MONDAY.plusDays(6), SUNDAY.plusDays(1), SUNDAY.plusDays(1)), checkpointedDates);
+        verify(historicalRateStore).loadFromRepository();
+        verify(exchangeRateService).loadLatestRatesFromRepository();
+        verify(eventPublisher).publishEvent(any(RatesUpdatedEvent.class));
+    }
+
+    @Test
+    void run_writes_each_rate_once_with_the_observed_rate_date() {
+        stubObservations();
+        // The write buffer is reused between batches, so copy each batch as it is written
+        List<ExchangeRate> rates = new ArrayList<>();
+        doAnswer(invocation -> rates.addAll(invocation.getArgument(0))).when(exchangeRateRepository).upsertAll(any());
+
+        backfillService.run(new BackfillCheckpoint(MONDAY, SUNDAY));
+
+        assertEquals(BANK_DAYS_IN_WEEK * NO_OF_RATE_COMBOS, rates.size());
+        assertEquals(BANK_DAYS_IN_WEEK, rates.stream().map(ExchangeRate::getRateDate).distinct().count());
+    }
+
+    @Test
+    void run_resumes_from_checkpoint() {
+        stubObservations();
+        BackfillCheckpoint checkpoint = new BackfillCheckpoint(MONDAY, SUNDAY);
+        checkpoint.setNextDate(MONDAY.plusDays(3));
+
+        backfillService.run(checkpoint);
+
+        verify(riksbankApiService, never()).getSekObservations(any(), eq(MONDAY), any());
+        verify(riksbankApiService).getSekObservations(Currency.EUR, MONDAY.plusDays(3), MONDAY.plusDays(5));
+        assertEquals(2 * NO_OF_RATE_COMBOS, checkpoint.getRowsWritten());
+    }
+
+    @Test
+    void run_marks_backfill_failed_after_retries_and_keeps_checkpoint() {
+        stubObservations();
+        when(riksbankApiService.getSekObservations(Currency.EUR, MONDAY.plusDays(3), MONDAY.plusDays(5)))
+                .thenThrow(new RiksbankApiException("Service unavailable"));
+
+        BackfillCheckpoint checkpoint = new BackfillCheckpoint(MONDAY, SUNDAY);
+        backfillService.run(checkpoint);
+
+        assertEquals(BackfillCheckpoint.State.FAILED, checkpoint.getState());
+        assertEquals("Service unavailable", checkpoint.getLastError());
+        assertEquals(MONDAY.plusDays(3), checkpoint.getNextDate());
+        assertEquals(3 * NO_OF_RATE_COMBOS, checkpoint.getRowsWritten());
+        verify(riksbankApiService, times(2)).getSekObservations(Currency.EUR, MONDAY.plusDays(3), MONDAY.plusDays(5));
+        verify(historicalRateStore, never()).loadFromRepository();
+    }
+
+    @Test
+    void run_truncates_long_errors_to_the_column_length() {
+        stubObservations();
+        when(riksbankApiService.getSekObservations(Currency.EUR, MONDAY, MONDAY.plusDays(2)))
+                .thenThrow(new RiksbankApiException("x".repeat(BackfillCheckpoint.MAX_ERROR_LENGTH + 1)));
+
+        BackfillCheckpoint checkpoint = new BackfillCheckpoint(MONDAY, SUNDAY);
+        backfillService.run(checkpoint);
+
+        assertEquals(BackfillCheckpoint.State.FAILED, checkpoint.getState());
+        assertEquals(BackfillCheckpoint.MAX_ERROR_LENGTH, checkpoint.getLastError().length());
+    }
+
+    @Test
+    void run_releases_the_running_flag_when_the_final_checkpoint_save_fails() {
+        stubObservations();
+        AtomicBoolean running = (AtomicBoolean) ReflectionTestUtils.getField(backfillService, "running");
+        running.set(true);
+        BackfillCheckpoint checkpoint = new BackfillCheckpoint(MONDAY, MONDAY);
+        when(backfillCheckpointRepository.save(any()))
+                .thenReturn(checkpoint)
+                .thenThrow(new IllegalStateException("Database unavailable"));
+
+        backfillService.run(checkpoint);
+
+        assertFalse(running.get());
+    }
+
+    @Test
+    void start_while_a_backfill_is_running_is_rejected() {
+        AtomicBoolean running = (AtomicBoolean) ReflectionTestUtils.getField(backfillService, "running");
+        running.set(true);
+
+        assertThrows(BackfillAlreadyRunningException.class, () -> backfillService.start(MONDAY, SUNDAY));
+        verify(backfillCheckpointRepository, never()).save(any());
+    }
+
+    private void stubObservations() {
+        lenient().when(riksbankApiService.getSekObservations(any(), any(), any())).thenAnswer(invocation -> {
+            Currency currency = invocation.getArgument(0);
+            LocalDate from = invocation.getArgument(1);
+            LocalDate to = invocation.getArgument(2);
+
+            List<Observation> observations = new ArrayList<>();
+            for (LocalDate day = from; !day.isAfter(to); day = day.plusDays(1)) {
+                // Riksbanken only publishes on bank days
+                if (day.getDayOfWeek().getValue() <= BANK_DAYS_IN_WEEK) {
+                    observations.add(createObservation(currency, day));
+                }
+            }
+            return observations;
+        });
+    }
+
+    private Observation createObservation(Currency currency, LocalDate date) {
+        Observation observation = new Observation();
+        observation.setSeriesId(currency.getSeriesId());
+        observation.setDate(date.toString());
+        observation.setValue(currency == Currency.EUR ? new BigDecimal("11.0225") : new BigDecimal("9.4527"));
+
+        return observation;
+    }
+}
@@ -0,0 +1,76 @@
+package com.rn.currencyexchange.service;
+
+import com.rn.currencyexchange.model.CalendarDay;
+import org.junit.jupiter.api.Test;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BankDayCalendarTest {
+
+    private static final LocalDate FIRST_DAY = LocalDate.of(2024, 1, 1);
+    private static final LocalDate LAST_DAY = LocalDate.of(2025, 12, 31);
+    private static final Set<LocalDate> HOLIDAYS = Set.of(
+            LocalDate.of(2024, 1, 1),
+            LocalDate.of(2024, 12, 24),
+            LocalDate.of(2024, 12, 25),
+            LocalDate.of(2024, 12, 26),
+            LocalDate.of(2025, 4, 18),
+            LocalDate.of(2025, 4, 21));
+
+    private final BankDayCalendar calendar = BankDayCalendar.of(FIRST_DAY, LAST_DAY, createCalendarDays());
+
+    @Test
+    void latest_bank_day_on_a_bank_day_returns_same_day() {
+        LocalDate wednesday = LocalDate.of(2025, 3, 12);
+
+        assertEquals(wednesday, calendar.latestBankDayOnOrBefore(wednesday));
+    }
+
+    @Test
+    void latest_bank_day_skips_weekend() {
+        assertEquals(LocalDate.of(2025, 3, 14), calendar.latestBankDayOnOrBefore(LocalDate.of(2025, 3, 16)));
+    }
+
+    @Test
+    void latest_bank_day_skips_holidays_and_weekend() {
+        // Easter 2025, Good Friday and Easter Monday are both holidays
+        assertEquals(LocalDate.of(2025, 4, 17), calendar.latestBankDayOnOrBefore(LocalDate.of(2025, 4, 21)));
+        // Christmas 2024
+        assertEquals(LocalDate.of(2024, 12, 23), calendar.latestBankDayOnOrBefore(LocalDate.of(2024, 12, 26)));
+    }
+
+    @Test
+    void latest_bank_day_returns_null_before_first_bank_day() {
+        assertNull(calendar.latestBankDayOnOrBefore(FIRST_DAY));
+        assertEquals(LocalDate.of(2024, 1, 2), calendar.latestBankDayOnOrBefore(LocalDate.of(2024, 1, 2)));
+    }
+
+    @Test
+    void covers_only_dates_within_range() {
+        assertTrue(calendar.covers(FIRST_DAY));
+        assertTrue(calendar.covers(LAST_DAY));
+        assertFalse(calendar.covers(FIRST_DAY.minusDays(1)));
+        assertFalse(calendar.covers(LAST_DAY.plusDays(1)));
+        assertFalse(BankDayCalendar.EMPTY.covers(FIRST_DAY));
+    }
+
+    private static CalendarDay[] createCalendarDays() {
+        return Stream.iterate(FIRST_DAY, day -> !day.isAfter(LAST_DAY), day -> day.plusDays(1))
+                .map(BankDayCalendarTest::createCalendarDay)
+                .toArray(CalendarDay[]::new);
+    }
+
+    private static CalendarDay createCalendarDay(LocalDate date) {
+        CalendarDay day = new CalendarDay();
+        day.setCalendarDate(date.toString());
+        day.setSwedishBankday(date.getDayOfWeek() != DayOfWeek.SATURDAY
+                && date.getDayOfWeek() != DayOfWeek.SUNDAY
+                && !HOLIDAYS.contains(date));
+        return day;
+    }
+}
@@ -0,0 +1,137 @@
+package com.rn.currencyexchange.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rn.currencyexchange.config.ConversionProperties;
+import com.rn.currencyexchange.exception.RiksbankApiException;
+import com.rn.currencyexchange.model.Currency;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BatchConversionServiceTest {
+
+    private static final BigDecimal SEK_TO_USD = BigDecimal.valueOf(0.11);
+
+    @Mock
+    private ExchangeRateService exchangeRateService;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+
+    @Spy
+    private ExchangeRateMetrics metrics = new ExchangeRateMetrics(new SimpleMeterRegistry());
+
+    @Spy
+    private FixedPointConverter fixedPointConverter = new FixedPointConverter(new ConversionProperties());
+
+    @InjectMocks
+    private BatchConversionService batchConversionService;
+
+    @Test
+    void convert_ndjson_resolves_each_pair_once() throws IOException {
+        when(exchangeRateService.getLatestRate(Currency.SEK, Currency.USD)).thenReturn(SEK_TO_USD);
+
+        List<JsonNode> results = convert("""
+                {"fromCurrency":"SEK","toCurrency":"USD","amount":10}
+                {"fromCurrency":"SEK","toCurrency":"USD","amount":20}
+                {"fromCurrency":"SEK","toCurrency":"USD","amount":30}
+                """);
+
+        assertEquals(3, results.size());
+        assertConverted("3.30", results.get(2));
+        verify(exchangeRateService, times(1)).getLatestRate(Currency.SEK, Currency.USD);
+    }
+
+    @Test
+    void convert_json_array_returns_one_result_per_element() throws IOException {
+        when(exchangeRateService.getLatestRate(Currency.SEK, Currency.USD)).thenReturn(SEK_TO_USD);
+
+        List<JsonNode> results = convert("""
+                [{"fromCurrency":"SEK","toCurrency":"USD","amount":10},
+                 {"fromCurrency":"EUR","toCurrency":"EUR","amount":5}]
+                """);
+
+        assertEquals(2, results.size());
+        assertConverted("1.10", results.get(0));
+        assertConverted("5", results.get(1));
+    }
+
+    @Test
+    void convert_reports_invalid_lines_without_failing_batch() throws IOException {
+        when(exchangeRateService.getLatestRate(Currency.SEK, Currency.USD)).thenReturn(SEK_TO_USD);
+        when(exchangeRateService.getLatestRate(Currency.SEK, Currency.EUR))
+                .thenThrow(new IllegalArgumentException("No exchange rate found"));
+
+        List<JsonNode> results = convert("""
+                {"fromCurrency":"SEK","toCurrency":"XYZ","amount":10}
+                {"fromCurrency":"SEK","toCurrency":"EUR","amount":10}
+                {"fromCurrency":"SEK","toCurrency":"USD"}
+                {"fromCurrency":"SEK","toCurrency":"USD","amount":10}
+                """);
+
+        assertEquals(4, results.size());
+        assertTrue(results.get(0).has("error"));
+        assertEquals("No exchange rate found", results.get(1).get("error").asText());
+        assertTrue(results.get(2).has("error"));
+        assertEquals(4, results.get(3).get("line").asLong());
+        assertConverted("1.10", results.get(3));
+    }
+
+    @Test
+    void convert_reports_any_conversion_failure_on_its_line() throws IOException {
+        when(exchangeRateService.getLatestRate(Currency.SEK, Currency.USD)).thenReturn(SEK_TO_USD);
+        when(exchangeRateService.getLatestRate(Currency.SEK, Currency.EUR))
+                .thenThrow(new RiksbankApiException("Riksbanken unavailable"));
+
+        List<JsonNode> results = convert("""
+                {"fromCurrency":"SEK","toCurrency":"EUR","amount":10}
+                {"fromCurrency":"SEK","toCurrency":"USD","amount":10}
+                """);
+
+        assertEquals(2, results.size());
+        assertEquals("Riksbanken unavailable", results.get(0).get("error").asText());
+        assertConverted("1.10", results.get(1));
+    }
+
+    @Test
+    void convert_numbers_malformed_first_value_as_line_one_and_ends_with_newline() throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        batchConversionService.convert(new ByteArrayInputStream("{\"fromCurrency\":".getBytes(StandardCharsets.UTF_8)), output);
+
+        String body = output.toString(StandardCharsets.UTF_8);
+        assertTrue(body.endsWith("\n"), body);
+        assertEquals(1, objectMapper.readTree(body).get("line").asLong());
+    }
+
+    private void assertConverted(String expected, JsonNode result) {
+        assertEquals(0, new BigDecimal(expected).compareTo(result.get("convertedAmount").decimalValue()));
+    }
+
+    private List<JsonNode> convert(String body) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        batchConversionService.convert(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)), output);
+
+        List<JsonNode> results = new ArrayList<>();
+        objectMapper.readerFor(JsonNode.class).readValues(output.toByteArray()).forEachRemaining(node -> results.add((JsonNode) node));
+        return results;
+    }
+}
@@ -0,0 +1,65 @@
+package com.rn.currencyexchange.service;
+
+import com.rn.currencyexchange.model.Currency;
+import com.rn.currencyexchange.model.ExchangeRate;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CrossRateTriangulatorTest {
+
+    private static final LocalDate RATE_DATE = LocalDate.of(2025, 10, 16);
+    private static final MathContext MATH_CONTEXT = MathContext.DECIMAL64;
+
+    @Test
+    void series_quoted_per_100_units_are_normalized_before_triangulating() {
+        // EUR quoted as SEK per 100 EUR gives the same rates as SEK per 1 EUR
+        List<ExchangeRate> perUnit = CrossRateTriangulator.triangulate(quotes("11.0413"), units(1), RATE_DATE, MATH_CONTEXT);
+        List<ExchangeRate> per100 = CrossRateTriangulator.triangulate(quotes("1104.13"), units(100), RATE_DATE, MATH_CONTEXT);
+
+        assertEquals(perUnit.size(), per100.size());
+        for (int i = 0; i < perUnit.size(); i++) {
+            assertEquals(0, perUnit.get(i).getConversionRate().compareTo(per100.get(i).getConversionRate()), "rate " + i);
+        }
+
+        assertEquals(0, new BigDecimal("11.0413").compareTo(rate(per100, Currency.EUR, Currency.SEK)));
+        assertEquals(0, new BigDecimal("1.17").compareTo(rate(per100, Currency.EUR, Currency.USD).round(new MathContext(3))));
+    }
+
+    private static BigDecimal[] quotes(String sekPerEur) {
+        BigDecimal[] quotes = new BigDecimal[Currency.count()];
+        quotes[Currency.SEK.getIndex()] = BigDecimal.ONE;
+        quotes[Currency.EUR.getIndex()] = new BigDecimal(sekPerEur);
+        quotes[Currency.USD.getIndex()] = new BigDecimal("9.4321");
+
+        for (Currency currency : Currency.values()) {
+            if (quotes[currency.getIndex()] == null) {
+                quotes[currency.getIndex()] = BigDecimal.TEN;
+            }
+        }
+
+        return quotes;
+    }
+
+    private static int[] units(int eurUnit) {
+        int[] units = new int[Currency.count()];
+        Arrays.fill(units, 1);
+        units[Currency.EUR.getIndex()] = eurUnit;
+
+        return units;
+    }
+
+    private static BigDecimal rate(List<ExchangeRate> rates, Currency fromCurrency, Currency toCurrency) {
+        return rates.stream()
+                .filter(rate -> rate.getFromCurrency() == fromCurrency && rate.getToCurrency() == toCurrency)
+                .findFirst()
+                .orElseThrow()
+                .getConversionRate();
+    }
+}
@@ -0,0 +1,135 @@
+package com.rn.currencyexchange.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rn.currencyexchange.exception.RiksbankApiException;
+import com.rn.currencyexchange.model.Currency;
+import com.rn.currencyexchange.model.Series;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CurrencyRegistryTest {
+
+    private static final Duration CACHE_MAX_AGE = Duration.ofDays(7);
+
+    @TempDir
+    private Path tempDir;
+
+    @Mock
+    private RiksbankApiService riksbankApiService;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+
+    @InjectMocks
+    private CurrencyRegistry currencyRegistry;
+
+    private Path cachePath;
+
+    @BeforeEach
+    void setUp() {
+        cachePath = tempDir.resolve("cache/currencies.json");
+        ReflectionTestUtils.setField(currencyRegistry, "cachePath", cachePath);
+        ReflectionTestUtils.setField(currencyRegistry, "cacheMaxAge", CACHE_MAX_AGE);
+    }
+
+    @Test
+    void series_by_code_keeps_open_sek_series_ordered_by_code() {
+        Map<String, CurrencyRegistry.CurrencySeries> seriesByCode = CurrencyRegistry.seriesByCode(List.of(
+                createSeries("SEKUSDPMI", false),
+                createSeries("SEKETT", false),
+                createSeries("SEKNOKPMI", false),
+                createSeries("SEKDEMPMI", true),
+                createSeries("SEKEURPMI", false)));
+
+        assertEquals(List.of("EUR", "NOK", "USD"), List.copyOf(seriesByCode.keySet()));
+        assertEquals("SEKNOKPMI", seriesByCode.get("NOK").getSeriesId());
+        assertEquals(1, seriesByCode.get("NOK").getUnit());
+    }
+
+    @Test
+    void series_quoted_per_100_units_are_registered_with_their_unit() {
+        Series jpy = createSeries("SEKJPYPMI", false);
+        jpy.setShortDescription("100 JPY");
+        Series eur = createSeries("SEKEURPMI", false);
+        eur.setShortDescription("EUR");
+        eur.setLongDescription("Euro, SEK per 1 EUR");
+
+        Map<String, CurrencyRegistry.CurrencySeries> seriesByCode = CurrencyRegistry.seriesByCode(List.of(jpy, eur));
+
+        assertEquals(100, seriesByCode.get("JPY").getUnit());
+        assertEquals(1, seriesByCode.get("EUR").getUnit());
+    }
+
+    @Test
+    void fetched_currencies_are_cached_and_reused() {
+        when(riksbankApiService.getSekExchangeRateSeries()).thenReturn(List.of(createSeries("SEKNOKPMI", false)));
+
+        Map<String, CurrencyRegistry.CurrencySeries> fetched = currencyRegistry.resolveSeriesByCode();
+        Map<String, CurrencyRegistry.CurrencySeries> cached = currencyRegistry.resolveSeriesByCode();
+
+        assertEquals("SEKNOKPMI", fetched.get("NOK").getSeriesId());
+        assertEquals(fetched.keySet(), cached.keySet());
+        assertEquals("SEKNOKPMI", cached.get("NOK").getSeriesId());
+        assertTrue(Files.exists(cachePath));
+        verify(riksbankApiService, times(1)).getSekExchangeRateSeries();
+    }
+
+    @Test
+    void expired_cache_is_refetched_and_used_if_riksbanken_fails() throws IOException {
+        Files.createDirectories(cachePath.getParent());
+        Files.writeString(cachePath, "{\"NOK\":{\"seriesId\":\"SEKNOKPMI\",\"unit\":1}}");
+        Files.setLastModifiedTime(cachePath, FileTime.from(Instant.now().minus(CACHE_MAX_AGE).minusSeconds(60)));
+        when(riksbankApiService.getSekExchangeRateSeries()).thenThrow(new RiksbankApiException("Service unavailable"));
+
+        assertEquals("SEKNOKPMI", currencyRegistry.resolveSeriesByCode().get("NOK").getSeriesId());
+        verify(riksbankApiService).getSekExchangeRateSeries();
+    }
+
+    @Test
+    void without_cache_and_riksbanken_no_currencies_are_added() {
+        when(riksbankApiService.getSekExchangeRateSeries()).thenThrow(new RiksbankApiException("Service unavailable"));
+
+        assertTrue(currencyRegistry.resolveSeriesByCode().isEmpty());
+    }
+
+    @Test
+    void registered_currencies_are_unique_by_code_and_dense() {
+        assertSame(Currency.EUR, Currency.register("EUR", "SEKEURPMI"));
+        assertSame(Currency.USD, Currency.valueOf("USD"));
+        assertSame(Currency.SEK, Currency.ofSeriesId("SEKETT"));
+        assertThrows(IllegalArgumentException.class, () -> Currency.valueOf("XXX"));
+
+        Currency[] currencies = Currency.values();
+        for (int i = 0; i < currencies.length; i++) {
+            assertEquals(i, currencies[i].getIndex());
+            assertSame(currencies[i], Currency.ofIndex(i));
+        }
+    }
+
+    private Series createSeries(String seriesId, boolean closed) {
+        Series series = new Series();
+        series.setSeriesId(seriesId);
+        series.setSeriesClosed(closed);
+        return series;
+    }
+}
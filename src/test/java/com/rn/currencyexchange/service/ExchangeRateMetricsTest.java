@@ -0,0 +1,115 @@
+package com.rn.currencyexchange.service;
+
+import com.rn.currencyexchange.exception.RiksbankApiException;
+import com.rn.currencyexchange.model.Currency;
+import com.rn.currencyexchange.model.ExchangeRate;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.config.MeterFilter;
+import io.micrometer.core.instrument.distribution.DistributionStatisticConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ExchangeRateMetricsTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ExchangeRateMetrics metrics = new ExchangeRateMetrics(meterRegistry);
+
+    @Mock
+    private ExchangeRateService exchangeRateService;
+
+    @Test
+    void time_upstream_call_tags_endpoint_and_outcome_with_and_without_pair() {
+        metrics.timeUpstreamCall("CrossRates", "SEK/EUR", () -> "rates");
+        assertThrows(RiksbankApiException.class, () -> metrics.timeUpstreamCall("CrossRates", "SEK/EUR", () -> {
+            throw new RiksbankApiException("Service unavailable");
+        }));
+
+        assertEquals(1, meterRegistry.get(ExchangeRateMetrics.UPSTREAM_PAIR_REQUESTS)
+                .tags("endpoint", "CrossRates", "pair", "SEK/EUR", "outcome", "success").timer().count());
+        assertEquals(1, meterRegistry.get(ExchangeRateMetrics.UPSTREAM_PAIR_REQUESTS)
+                .tags("endpoint", "CrossRates", "pair", "SEK/EUR", "outcome", "error").timer().count());
+        assertEquals(1, meterRegistry.get(ExchangeRateMetrics.UPSTREAM_REQUESTS)
+                .tags("endpoint", "CrossRates", "outcome", "success").timer().count());
+        assertEquals(1, meterRegistry.get(ExchangeRateMetrics.UPSTREAM_REQUESTS)
+                .tags("endpoint", "CrossRates", "outcome", "error").timer().count());
+    }
+
+    @Test
+    void upstream_timers_are_reused_and_only_meters_without_pair_tag_publish_histograms() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        Map<String, Boolean> histogramByMeter = new HashMap<>();
+        registry.config().meterFilter(new MeterFilter() {
+            @Override
+            public DistributionStatisticConfig configure(Meter.Id id, DistributionStatisticConfig config) {
+                histogramByMeter.put(id.getName() + (id.getTag("pair") == null ? "" : " pair"), Boolean.TRUE.equals(config.isPercentileHistogram()));
+                return config;
+            }
+        });
+        ExchangeRateMetrics pairMetrics = new ExchangeRateMetrics(registry);
+
+        pairMetrics.timeUpstreamCall("Observations", "SEK/EUR", () -> "observations");
+        pairMetrics.timeUpstreamCall("Observations", "SEK/EUR", () -> "observations");
+        pairMetrics.recordConversion(Currency.SEK, Currency.EUR, 1_000);
+
+        assertEquals(2, registry.get(ExchangeRateMetrics.UPSTREAM_PAIR_REQUESTS).tag("pair", "SEK/EUR").timer().count());
+        assertEquals(1, registry.find(ExchangeRateMetrics.UPSTREAM_PAIR_REQUESTS).timers().size());
+        assertEquals(1, registry.find(ExchangeRateMetrics.UPSTREAM_REQUESTS).timers().size());
+        assertEquals(Map.of(
+                ExchangeRateMetrics.UPSTREAM_PAIR_REQUESTS + " pair", false,
+                ExchangeRateMetrics.PAIR_CONVERSIONS + " pair", false,
+                ExchangeRateMetrics.UPSTREAM_REQUESTS, true,
+                ExchangeRateMetrics.CONVERSIONS, true,
+                ExchangeRateMetrics.REFRESHES, true), histogramByMeter);
+    }
+
+    @Test
+    void record_conversion_counts_per_pair_and_in_total() {
+        metrics.recordConversion(Currency.SEK, Currency.EUR, 1_000);
+        metrics.recordConversion(Currency.SEK, Currency.EUR, 2_000);
+        metrics.recordConversion(Currency.EUR, Currency.USD, 3_000);
+
+        assertEquals(2, meterRegistry.get(ExchangeRateMetrics.PAIR_CONVERSIONS).tag("pair", "SEK/EUR").timer().count());
+        assertEquals(1, meterRegistry.get(ExchangeRateMetrics.PAIR_CONVERSIONS).tag("pair", "EUR/USD").timer().count());
+        assertEquals(3, meterRegistry.get(ExchangeRateMetrics.CONVERSIONS).timer().count());
+    }
+
+    @Test
+    void record_refresh_counts_rows_of_successful_refreshes() {
+        metrics.recordRefresh(1_000, 6, true);
+        metrics.recordRefresh(1_000, 0, false);
+
+        assertEquals(1, meterRegistry.get(ExchangeRateMetrics.REFRESHES).tag("outcome", "success").timer().count());
+        assertEquals(1, meterRegistry.get(ExchangeRateMetrics.REFRESHES).tag("outcome", "error").timer().count());
+        assertEquals(6, meterRegistry.get(ExchangeRateMetrics.REFRESH_ROWS).counter().count());
+    }
+
+    @Test
+    void rate_age_gauge_reports_time_since_publishing_and_nan_for_missing_pairs() {
+        LocalDate rateDate = LocalDate.now(RiksbankApiService.PUBLISH_ZONE).minusDays(2);
+        when(exchangeRateService.getLatestRateSnapshot()).thenReturn(LatestRateSnapshot.of(List.of(
+                new ExchangeRate(Currency.SEK, Currency.EUR, new BigDecimal("0.0907"), rateDate))));
+
+        RateAgeMetrics rateAgeMetrics = new RateAgeMetrics();
+        ReflectionTestUtils.setField(rateAgeMetrics, "exchangeRateService", exchangeRateService);
+        ReflectionTestUtils.setField(rateAgeMetrics, "currencyRegistry", new CurrencyRegistry());
+        rateAgeMetrics.bindTo(meterRegistry);
+
+        double age = meterRegistry.get(RateAgeMetrics.RATE_AGE).tag("pair", "SEK/EUR").gauge().value();
+        assertTrue(age > 24 * 3600 && age < 3 * 24 * 3600, "age was " + age);
+        assertTrue(Double.isNaN(meterRegistry.get(RateAgeMetrics.RATE_AGE).tag("pair", "EUR/SEK").gauge().value()));
+    }
+}
@@ -0,0 +1,301 @@
+package com.rn.currencyexchange.service;
+
+import com.rn.currencyexchange.dto.LatestExchangeRates;
+import com.rn.currencyexchange.dto.RefreshStatus;
+import com.rn.currencyexchange.exception.RiksbankApiException;
+import com.rn.currencyexchange.model.Currency;
+import com.rn.currencyexchange.model.ExchangeRate;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ExchangeRateRefreshServiceTest {
+
+    private static final LocalDate TODAY = LocalDate.now();
+    private static final int NO_OF_CALLERS = 8;
+    private static final int FAILURE_THRESHOLD = 2;
+
+    @Mock
+    private ExchangeRateService exchangeRateService;
+
+    @Mock
+    private RiksbankApiService riksbankApiService;
+
+    @Mock
+    private TaskScheduler taskScheduler;
+
+    @Spy
+    private ExchangeRateMetrics metrics = new ExchangeRateMetrics(new SimpleMeterRegistry());
+
+    @Spy
+    private RiksbankCircuitBreaker circuitBreaker = new RiksbankCircuitBreaker(FAILURE_THRESHOLD, Duration.ofMinutes(1));
+
+    @Mock
+    private ClusterRefreshLease clusterLease;
+
+    @InjectMocks
+    private ExchangeRateRefreshService exchangeRateRefreshService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(exchangeRateRefreshService, "initialBackoff", Duration.ofMinutes(1));
+        ReflectionTestUtils.setField(exchangeRateRefreshService, "maxBackoff", Duration.ofMinutes(30));
+        ReflectionTestUtils.setField(exchangeRateRefreshService, "maxAttempts", 3);
+    }
+
+    @Test
+    void concurrent_refreshes_share_a_single_in_flight_refresh() throws Exception {
+        List<ExchangeRate> rates = List.of(createExchangeRate(TODAY));
+        CountDownLatch refreshStarted = new CountDownLatch(1);
+        CountDownLatch releaseRefresh = new CountDownLatch(1);
+
+        when(exchangeRateService.updateAndFetchLatestExchangeRates()).thenAnswer(invocation -> {
+            refreshStarted.countDown();
+            releaseRefresh.await();
+            return rates;
+        });
+
+        try (ExecutorService callers = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<List<ExchangeRate>>> results = new ArrayList<>();
+            results.add(callers.submit(exchangeRateRefreshService::refresh));
+            refreshStarted.await();
+
+            for (int i = 1; i < NO_OF_CALLERS; i++) {
+                results.add(callers.submit(exchangeRateRefreshService::refresh));
+            }
+
+            // Give the other callers time to join the in-flight refresh before it completes
+            Thread.sleep(100);
+            assertTrue(exchangeRateRefreshService.getStatus().isRefreshInProgress());
+            releaseRefresh.countDown();
+
+            for (Future<List<ExchangeRate>> result : results) {
+                assertSame(rates, result.get(5, TimeUnit.SECONDS));
+            }
+        }
+
+        verify(exchangeRateService, times(1)).updateAndFetchLatestExchangeRates();
+        assertFalse(exchangeRateRefreshService.getStatus().isRefreshInProgress());
+    }
+
+    @Test
+    void refresh_records_time_duration_and_rate_date() {
+        when(exchangeRateService.updateAndFetchLatestExchangeRates()).thenReturn(List.of(createExchangeRate(TODAY)));
+
+        exchangeRateRefreshService.refresh();
+
+        RefreshStatus status = exchangeRateRefreshService.getStatus();
+        assertNotNull(status.getLastSuccessAt());
+        assertEquals(TODAY, status.getLastRateDate());
+        assertNull(status.getLastError());
+        assertTrue(status.getLastDurationMillis() >= 0);
+    }
+
+    @Test
+    void refresh_failure_is_recorded_and_rethrown() {
+        when(exchangeRateService.updateAndFetchLatestExchangeRates()).thenThrow(new RiksbankApiException("No cross rates"));
+
+        assertThrows(RiksbankApiException.class, () -> exchangeRateRefreshService.refresh());
+
+        RefreshStatus status = exchangeRateRefreshService.getStatus();
+        assertEquals("No cross rates", status.getLastError());
+        assertNull(status.getLastSuccessAt());
+    }
+
+    @Test
+    void scheduled_refresh_retries_with_backoff_until_rates_are_published() {
+        when(riksbankApiService.getLatestBankDay()).thenReturn(TODAY);
+        when(exchangeRateService.updateAndFetchLatestExchangeRates())
+                .thenThrow(new RiksbankApiException("No cross rates"))
+                .thenReturn(List.of(createExchangeRate(TODAY.minusDays(1))))
+                .thenReturn(List.of(createExchangeRate(TODAY)));
+
+        ArgumentCaptor<Runnable> retry = ArgumentCaptor.forClass(Runnable.class);
+        ArgumentCaptor<Instant> retryAt = ArgumentCaptor.forClass(Instant.class);
+
+        Instant before = Instant.now();
+        exchangeRateRefreshService.scheduledRefresh(1);
+        verify(taskScheduler).schedule(retry.capture(), retryAt.capture());
+        assertFalse(retryAt.getValue().isBefore(before.plus(Duration.ofMinutes(1))));
+
+        retry.getValue().run();
+        verify(taskScheduler, times(2)).schedule(retry.capture(), retryAt.capture());
+        assertFalse(retryAt.getValue().isBefore(before.plus(Duration.ofMinutes(2))));
+
+        retry.getValue().run();
+        verify(taskScheduler, times(2)).schedule(any(Runnable.class), any(Instant.class));
+        verify(exchangeRateService, times(3)).updateAndFetchLatestExchangeRates();
+    }
+
+    @Test
+    void scheduled_refresh_gives_up_after_max_attempts() {
+        when(riksbankApiService.getLatestBankDay()).thenReturn(TODAY);
+        when(exchangeRateService.updateAndFetchLatestExchangeRates()).thenThrow(new RiksbankApiException("No cross rates"));
+
+        exchangeRateRefreshService.scheduledRefresh(3);
+
+        verify(taskScheduler, never()).schedule(any(Runnable.class), any(Instant.class));
+    }
+
+    @Test
+    void get_latest_rates_returns_fresh_stored_rates_without_refreshing() {
+        when(exchangeRateService.getLatestRateSnapshot()).thenReturn(LatestRateSnapshot.of(List.of(createExchangeRate(TODAY))));
+        when(riksbankApiService.getCachedLatestBankDay()).thenReturn(TODAY);
+
+        LatestExchangeRates latestRates = exchangeRateRefreshService.getLatestRates();
+
+        assertFalse(latestRates.isStale());
+        assertEquals(TODAY, latestRates.getRateDate());
+        assertEquals(1, latestRates.getRates().size());
+        verify(exchangeRateService, never()).updateAndFetchLatestExchangeRates();
+    }
+
+    @Test
+    void get_latest_rates_serves_stale_rates_immediately_and_revalidates_in_background() {
+        when(exchangeRateService.getLatestRateSnapshot()).thenReturn(LatestRateSnapshot.of(List.of(createExchangeRate(TODAY.minusDays(1)))));
+        when(riksbankApiService.getCachedLatestBankDay()).thenReturn(TODAY);
+
+        LatestExchangeRates latestRates = exchangeRateRefreshService.getLatestRates();
+
+        assertTrue(latestRates.isStale());
+        assertTrue(latestRates.isRevalidating());
+        assertEquals(TODAY.minusDays(1), latestRates.getRateDate());
+        verify(exchangeRateService, never()).updateAndFetchLatestExchangeRates();
+
+        ArgumentCaptor<Runnable> revalidation = ArgumentCaptor.forClass(Runnable.class);
+        verify(taskScheduler).schedule(revalidation.capture(), any(Instant.class));
+        revalidation.getValue().run();
+
+        verify(exchangeRateService).updateAndFetchLatestExchangeRates();
+    }
+
+    @Test
+    void stale_rates_are_revalidated_at_most_once_per_interval() {
+        when(exchangeRateService.getLatestRateSnapshot()).thenReturn(LatestRateSnapshot.of(List.of(createExchangeRate(TODAY.minusDays(1)))));
+        when(riksbankApiService.getCachedLatestBankDay()).thenReturn(null);
+
+        for (int i = 0; i < NO_OF_CALLERS; i++) {
+            assertTrue(exchangeRateRefreshService.getLatestRates().isStale());
+        }
+
+        verify(taskScheduler, times(1)).schedule(any(Runnable.class), any(Instant.class));
+    }
+
+    @Test
+    void stale_rates_are_not_revalidated_while_circuit_is_open() {
+        when(exchangeRateService.updateAndFetchLatestExchangeRates()).thenThrow(new RiksbankApiException("Service unavailable"));
+        for (int i = 0; i < FAILURE_THRESHOLD; i++) {
+            assertThrows(RiksbankApiException.class, () -> exchangeRateRefreshService.refresh());
+        }
+        when(exchangeRateService.getLatestRateSnapshot()).thenReturn(LatestRateSnapshot.of(List.of(createExchangeRate(TODAY.minusDays(1)))));
+        when(riksbankApiService.getCachedLatestBankDay()).thenReturn(TODAY);
+
+        LatestExchangeRates latestRates = exchangeRateRefreshService.getLatestRates();
+
+        assertTrue(latestRates.isStale());
+        assertFalse(latestRates.isRevalidating());
+        verify(taskScheduler, never()).schedule(any(Runnable.class), any(Instant.class));
+    }
+
+    @Test
+    void get_latest_rates_refreshes_synchronously_when_nothing_is_stored() {
+        when(exchangeRateService.getLatestRateSnapshot()).thenReturn(LatestRateSnapshot.EMPTY);
+        when(exchangeRateService.updateAndFetchLatestExchangeRates()).thenReturn(List.of(createExchangeRate(TODAY)));
+
+        LatestExchangeRates latestRates = exchangeRateRefreshService.getLatestRates();
+
+        assertFalse(latestRates.isStale());
+        assertEquals(TODAY, latestRates.getRateDate());
+    }
+
+    @Test
+    void refresh_stops_calling_upstream_once_circuit_is_open() {
+        when(exchangeRateService.updateAndFetchLatestExchangeRates()).thenThrow(new RiksbankApiException("Service unavailable"));
+
+        for (int i = 0; i < FAILURE_THRESHOLD + 2; i++) {
+            assertThrows(RiksbankApiException.class, () -> exchangeRateRefreshService.refresh());
+        }
+
+        verify(exchangeRateService, times(FAILURE_THRESHOLD)).updateAndFetchLatestExchangeRates();
+        assertEquals("OPEN", exchangeRateRefreshService.getStatus().getCircuitState());
+    }
+
+    @Test
+    void cluster_leader_refreshes_and_releases_lease_with_rate_date() {
+        when(clusterLease.isEnabled()).thenReturn(true);
+        when(clusterLease.tryAcquire()).thenReturn(true);
+        when(exchangeRateService.updateAndFetchLatestExchangeRates()).thenReturn(List.of(createExchangeRate(TODAY)));
+
+        exchangeRateRefreshService.refresh();
+
+        verify(clusterLease).release(TODAY);
+        verify(exchangeRateService, never()).reloadLatestRates();
+    }
+
+    @Test
+    void cluster_leader_releases_lease_without_rate_date_when_refresh_fails() {
+        when(clusterLease.isEnabled()).thenReturn(true);
+        when(clusterLease.tryAcquire()).thenReturn(true);
+        when(exchangeRateService.updateAndFetchLatestExchangeRates()).thenThrow(new RiksbankApiException("No cross rates"));
+
+        assertThrows(RiksbankApiException.class, () -> exchangeRateRefreshService.refresh());
+
+        verify(clusterLease).release(null);
+    }
+
+    @Test
+    void cluster_follower_waits_for_leader_and_reloads_without_calling_upstream() {
+        List<ExchangeRate> rates = List.of(createExchangeRate(TODAY));
+        when(clusterLease.isEnabled()).thenReturn(true);
+        when(clusterLease.tryAcquire()).thenReturn(false);
+        when(exchangeRateService.reloadLatestRates()).thenReturn(rates);
+
+        assertSame(rates, exchangeRateRefreshService.refresh());
+
+        InOrder inOrder = inOrder(clusterLease, exchangeRateService);
+        inOrder.verify(clusterLease).awaitRelease();
+        inOrder.verify(exchangeRateService).reloadLatestRates();
+        verify(exchangeRateService, never()).updateAndFetchLatestExchangeRates();
+        verify(clusterLease, never()).release(any());
+    }
+
+    @Test
+    void cluster_sync_reloads_only_when_another_node_stored_a_newer_rate_date() {
+        LatestRateSnapshot snapshot = LatestRateSnapshot.of(List.of(createExchangeRate(TODAY.minusDays(1))));
+        when(exchangeRateService.getLatestRateSnapshot()).thenReturn(snapshot);
+        when(clusterLease.getPublishedRateDate()).thenReturn(TODAY.minusDays(1), TODAY);
+
+        exchangeRateRefreshService.syncFromCluster();
+        verify(exchangeRateService, never()).reloadLatestRates();
+
+        exchangeRateRefreshService.syncFromCluster();
+        verify(exchangeRateService).reloadLatestRates();
+        verifyNoInteractions(riksbankApiService);
+    }
+
+    private ExchangeRate createExchangeRate(LocalDate rateDate) {
+        return new ExchangeRate(Currency.SEK, Currency.EUR, BigDecimal.ONE, rateDate);
+    }
+}
@@ -1,22 +1,35 @@
 package com.rn.currencyexchange.service;
 
+import com.rn.currencyexchange.config.ConversionProperties;
 import com.rn.currencyexchange.dto.ConversionRequest;
+import com.rn.currencyexchange.dto.ExchangeRateView;
 import com.rn.currencyexchange.model.CrossRate;
 import com.rn.currencyexchange.model.Currency;
 import com.rn.currencyexchange.model.ExchangeRate;
+import com.rn.currencyexchange.model.Observation;
 import com.rn.currencyexchange.repository.ExchangeRateRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.MockedStatic;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -28,6 +41,14 @@ class ExchangeRateServiceTest {
     public static final BigDecimal AMOUNT = BigDecimal.valueOf(10);
     public static final int NO_OF_RATE_COMBOS = 6;
     private static final LocalDate TODAY = LocalDate.now();
+    // SEK per unit and the matching cross rates as published by Riksbanken, rounded to four decimals
+    private static final BigDecimal SEK_PER_EUR = new BigDecimal("11.0225");
+    private static final BigDecimal SEK_PER_USD = new BigDecimal("9.4527");
+    private static final BigDecimal PUBLISHED_SEK_TO_EUR = new BigDecimal("0.0907");
+    private static final BigDecimal PUBLISHED_SEK_TO_USD = new BigDecimal("0.1058");
+    private static final BigDecimal PUBLISHED_EUR_TO_USD = new BigDecimal("1.1661");
+    private static final BigDecimal PUBLISHED_RATE_TOLERANCE = new BigDecimal("0.0001");
+    private static final BigDecimal INVERSE_RATE_RELATIVE_TOLERANCE = new BigDecimal("0.001");
 
     @Mock
     private RiksbankApiService riksbankApiService;
@@ -35,9 +56,30 @@ class ExchangeRateServiceTest {
     @Mock
     private ExchangeRateRepository exchangeRateRepository;
 
+    @Spy
+    private RiksbankFetchExecutor riksbankFetchExecutor = new RiksbankFetchExecutor(2, Duration.ofSeconds(5));
+
+    @Spy
+    private HistoricalRateStore historicalRateStore = RateAnalyticsTest.newHistoricalRateStore();
+
+    @Spy
+    private ExchangeRateMetrics metrics = new ExchangeRateMetrics(new SimpleMeterRegistry());
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Spy
+    private FixedPointConverter fixedPointConverter = new FixedPointConverter(new ConversionProperties());
+
     @InjectMocks
     private ExchangeRateService exchangeRateService;
 
+    @BeforeEach
+    void setUp() {
+        // Tests of the triangulate mode set it themselves
+        ReflectionTestUtils.setField(exchangeRateService, "refreshMode", RefreshMode.CROSS_RATES);
+    }
+
     @Test
     void convert_amount_returns_converted_value() {
         ConversionRequest request = new ConversionRequest();
@@ -45,10 +87,9 @@ class ExchangeRateServiceTest {
         request.setToCurrency(Currency.USD);
         request.setAmount(AMOUNT);
 
-        ExchangeRate rate = new ExchangeRate(Currency.SEK, Currency.USD, SEK_TO_USD, TODAY);
+        ExchangeRateView rate = new ExchangeRateView(Currency.SEK, Currency.USD, SEK_TO_USD, TODAY);
 
-        when(exchangeRateRepository.findFirstByFromCurrencyAndToCurrencyOrderByRateDateDesc(Currency.SEK, Currency.USD))
-                .thenReturn(Optional.of(rate));
+        when(exchangeRateRepository.findLatestRate(Currency.SEK, Currency.USD)).thenReturn(Optional.of(rate));
 
         BigDecimal result = exchangeRateService.convertAmount(request);
 
@@ -67,6 +108,30 @@ class ExchangeRateServiceTest {
         assertEquals(AMOUNT, result);
     }
 
+    @Test
+    void convert_amount_rounds_to_minor_units_of_target_currency() {
+        stubRiksbankCrossRatesAndReturnNothingWhenFetchingFromRepository();
+        exchangeRateService.updateAndFetchLatestExchangeRates();
+
+        ConversionRequest request = new ConversionRequest();
+        request.setFromCurrency(Currency.SEK);
+        request.setToCurrency(Currency.USD);
+        request.setAmount(new BigDecimal("1234.56"));
+
+        BigDecimal result = exchangeRateService.convertAmount(request);
+
+        assertEquals(request.getAmount().multiply(SEK_TO_USD).setScale(2, RoundingMode.HALF_EVEN), result);
+    }
+
+    @Test
+    void inverse_rate_keeps_configured_precision() {
+        ExchangeRate rate = new ExchangeRate(Currency.SEK, Currency.EUR, new BigDecimal("0.0907235"), TODAY);
+
+        ExchangeRate inverse = exchangeRateService.createInverseExchangeRate(rate);
+
+        assertEquals(new BigDecimal("11.02250243872866"), inverse.getConversionRate());
+    }
+
     @Test
     void update_and_fetch_latest_exchange_rates_creates_all_rates_including_inverse() {
         stubRiksbankCrossRatesAndReturnNothingWhenFetchingFromRepository();
@@ -75,7 +140,8 @@ class ExchangeRateServiceTest {
 
         assertEquals(NO_OF_RATE_COMBOS, rates.size());
 
-        verify(exchangeRateRepository, times(NO_OF_RATE_COMBOS / 2)).saveAll(anyList());
+        // Every fetched rate and its inverse in one batch
+        verify(exchangeRateRepository, times(1)).upsertAll(anyList());
     }
 
     @Test
@@ -93,10 +159,214 @@ class ExchangeRateServiceTest {
 
         exchangeRateService.updateAndFetchLatestExchangeRates();
 
-        verify(exchangeRateRepository, never()).saveAll(anyList());
+        verify(exchangeRateRepository, never()).upsertAll(anyList());
         verify(riksbankApiService, never()).getLatestCrossRates(any(), any());
     }
 
+    @Test
+    void snapshot_matches_saved_rates_after_refresh() {
+        stubRiksbankCrossRatesAndReturnNothingWhenFetchingFromRepository();
+
+        exchangeRateService.updateAndFetchLatestExchangeRates();
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<ExchangeRate>> savedRates = ArgumentCaptor.forClass(List.class);
+        verify(exchangeRateRepository, times(1)).upsertAll(savedRates.capture());
+
+        assertEquals(NO_OF_RATE_COMBOS, savedRates.getValue().size());
+        assertSnapshotMatches(savedRates.getValue());
+    }
+
+    @Test
+    void refresh_publishes_latest_rates_once_snapshot_is_updated() {
+        stubRiksbankCrossRatesAndReturnNothingWhenFetchingFromRepository();
+
+        exchangeRateService.updateAndFetchLatestExchangeRates();
+
+        ArgumentCaptor<RatesUpdatedEvent> event = ArgumentCaptor.forClass(RatesUpdatedEvent.class);
+        verify(eventPublisher).publishEvent(event.capture());
+        assertEquals(NO_OF_RATE_COMBOS, event.getValue().getLatestRates().size());
+    }
+
+    @Test
+    void snapshot_matches_existing_rates_after_refresh() {
+        stubExistingRatesInRepository();
+
+        List<ExchangeRate> rates = exchangeRateService.updateAndFetchLatestExchangeRates();
+
+        assertSnapshotMatches(rates);
+    }
+
+    @Test
+    void load_latest_rates_from_repository_reads_all_pairs_in_one_query() {
+        when(exchangeRateRepository.findAllLatestRates()).thenReturn(List.of(
+                new ExchangeRateView(Currency.SEK, Currency.EUR, SEK_TO_EUR, TODAY),
+                new ExchangeRateView(Currency.EUR, Currency.SEK, SEK_PER_EUR, TODAY)));
+
+        exchangeRateService.loadLatestRatesFromRepository();
+
+        assertEquals(SEK_TO_EUR, exchangeRateService.getLatestRate(Currency.SEK, Currency.EUR));
+        assertEquals(2, exchangeRateService.getLatestRateSnapshot().getPairCount());
+        verify(exchangeRateRepository).findAllLatestRates();
+        verify(exchangeRateRepository, never()).findLatestRate(any(), any());
+    }
+
+    @Test
+    void convert_amount_after_refresh_does_not_query_repository() {
+        stubRiksbankCrossRatesAndReturnNothingWhenFetchingFromRepository();
+        exchangeRateService.updateAndFetchLatestExchangeRates();
+
+        ConversionRequest request = new ConversionRequest();
+        request.setFromCurrency(Currency.SEK);
+        request.setToCurrency(Currency.USD);
+        request.setAmount(AMOUNT);
+
+        BigDecimal result = exchangeRateService.convertAmount(request);
+
+        assertEquals(AMOUNT.multiply(SEK_TO_USD), result);
+        verify(exchangeRateRepository, never()).findLatestRate(any(), any());
+    }
+
+    @Test
+    void convert_amount_with_rate_date_uses_rate_on_or_before_date() {
+        stubRiksbankCrossRatesAndReturnNothingWhenFetchingFromRepository();
+        exchangeRateService.updateAndFetchLatestExchangeRates();
+
+        ConversionRequest request = new ConversionRequest();
+        request.setFromCurrency(Currency.SEK);
+        request.setToCurrency(Currency.USD);
+        request.setAmount(AMOUNT);
+        request.setRateDate(TODAY.plusDays(3));
+
+        BigDecimal result = exchangeRateService.convertAmount(request);
+
+        assertEquals(AMOUNT.multiply(SEK_TO_USD), result);
+        verify(exchangeRateRepository, never()).findRateOnOrBefore(any(), any(), any());
+    }
+
+    @Test
+    void convert_amount_with_rate_date_before_history_falls_back_to_repository() {
+        LocalDate invoiceDate = TODAY.minusYears(1);
+        ConversionRequest request = new ConversionRequest();
+        request.setFromCurrency(Currency.SEK);
+        request.setToCurrency(Currency.EUR);
+        request.setAmount(AMOUNT);
+        request.setRateDate(invoiceDate);
+
+        when(exchangeRateRepository.findRateOnOrBefore(Currency.SEK, Currency.EUR, invoiceDate))
+                .thenReturn(Optional.of(new ExchangeRateView(Currency.SEK, Currency.EUR, SEK_TO_EUR, invoiceDate)));
+
+        BigDecimal result = exchangeRateService.convertAmount(request);
+
+        assertEquals(AMOUNT.multiply(SEK_TO_EUR), result);
+    }
+
+    @Test
+    void triangulated_rates_match_cross_rates_endpoint_within_tolerance() {
+        when(riksbankApiService.getLatestBankDay()).thenReturn(TODAY);
+        when(exchangeRateRepository.findByFromCurrencyAndToCurrencyAndRateDate(any(), any(), any())).thenReturn(Optional.empty());
+        when(riksbankApiService.getLatestCrossRates(Currency.SEK, Currency.EUR)).thenReturn(List.of(createCrossRate(PUBLISHED_SEK_TO_EUR)));
+        when(riksbankApiService.getLatestCrossRates(Currency.SEK, Currency.USD)).thenReturn(List.of(createCrossRate(PUBLISHED_SEK_TO_USD)));
+        when(riksbankApiService.getLatestCrossRates(Currency.EUR, Currency.USD)).thenReturn(List.of(createCrossRate(PUBLISHED_EUR_TO_USD)));
+
+        List<ExchangeRate> crossRates = exchangeRateService.updateAndFetchLatestExchangeRates();
+
+        stubSekObservations();
+        ReflectionTestUtils.setField(exchangeRateService, "refreshMode", RefreshMode.TRIANGULATE);
+
+        List<ExchangeRate> triangulatedRates = exchangeRateService.updateAndFetchLatestExchangeRates();
+
+        assertEquals(NO_OF_RATE_COMBOS, triangulatedRates.size());
+
+        for (int i = 0; i < NO_OF_RATE_COMBOS; i++) {
+            ExchangeRate expected = crossRates.get(i);
+            ExchangeRate actual = triangulatedRates.get(i);
+
+            assertEquals(expected.getFromCurrency(), actual.getFromCurrency());
+            assertEquals(expected.getToCurrency(), actual.getToCurrency());
+
+            BigDecimal difference = expected.getConversionRate().subtract(actual.getConversionRate()).abs();
+
+            if (expected.getFromCurrency().getIndex() < expected.getToCurrency().getIndex()) {
+                assertTrue(difference.compareTo(PUBLISHED_RATE_TOLERANCE) <= 0, "Published rate differs for " + expected.getFromCurrency() + " to " + expected.getToCurrency());
+            } else {
+                // Inverse rates are computed from rounded published rates, so compare relative to the rate
+                BigDecimal tolerance = actual.getConversionRate().multiply(INVERSE_RATE_RELATIVE_TOLERANCE);
+                assertTrue(difference.compareTo(tolerance) <= 0, "Inverse rate differs for " + expected.getFromCurrency() + " to " + expected.getToCurrency());
+            }
+        }
+    }
+
+    @Test
+    void triangulate_fetches_all_series_in_one_request_and_saves_once() {
+        ReflectionTestUtils.setField(exchangeRateService, "refreshMode", RefreshMode.TRIANGULATE);
+        when(riksbankApiService.getLatestBankDay()).thenReturn(TODAY);
+        when(exchangeRateRepository.findByRateDate(TODAY)).thenReturn(List.of());
+        stubSekObservations();
+
+        List<ExchangeRate> rates = exchangeRateService.updateAndFetchLatestExchangeRates();
+
+        assertEquals(NO_OF_RATE_COMBOS, rates.size());
+        assertSnapshotMatches(rates);
+        verify(riksbankApiService, times(1)).getLatestSekObservations();
+        verify(riksbankApiService, never()).getLatestCrossRates(any(), any());
+        verify(exchangeRateRepository, times(1)).upsertAll(anyList());
+    }
+
+    @Test
+    void cross_rates_mode_falls_back_to_triangulate_with_more_than_the_built_in_currencies() {
+        assertEquals(RefreshMode.CROSS_RATES, exchangeRateService.effectiveRefreshMode());
+
+        try (MockedStatic<Currency> currency = mockStatic(Currency.class)) {
+            currency.when(Currency::count).thenReturn(30);
+
+            assertEquals(RefreshMode.TRIANGULATE, exchangeRateService.effectiveRefreshMode());
+        }
+    }
+
+    @Test
+    void triangulate_does_not_call_api_when_rates_exist() {
+        ReflectionTestUtils.setField(exchangeRateService, "refreshMode", RefreshMode.TRIANGULATE);
+        when(riksbankApiService.getLatestBankDay()).thenReturn(TODAY);
+        when(exchangeRateRepository.findByRateDate(TODAY)).thenReturn(List.of(
+                createExchangeRate(Currency.SEK, Currency.EUR), createExchangeRate(Currency.EUR, Currency.SEK),
+                createExchangeRate(Currency.SEK, Currency.USD), createExchangeRate(Currency.USD, Currency.SEK),
+                createExchangeRate(Currency.EUR, Currency.USD), createExchangeRate(Currency.USD, Currency.EUR)));
+
+        List<ExchangeRate> rates = exchangeRateService.updateAndFetchLatestExchangeRates();
+
+        assertEquals(NO_OF_RATE_COMBOS, rates.size());
+        verify(riksbankApiService, never()).getLatestSekObservations();
+        verify(exchangeRateRepository, never()).upsertAll(anyList());
+    }
+
+    private void stubSekObservations() {
+        when(riksbankApiService.getLatestSekObservations()).thenReturn(List.of(
+                createObservation(Currency.EUR, SEK_PER_EUR),
+                createObservation(Currency.USD, SEK_PER_USD)));
+    }
+
+    private Observation createObservation(Currency currency, BigDecimal sekPerUnit) {
+        Observation observation = new Observation();
+        observation.setSeriesId(currency.getSeriesId());
+        observation.setDate(TODAY.toString());
+        observation.setValue(sekPerUnit);
+
+        return observation;
+    }
+
+    private void assertSnapshotMatches(List<ExchangeRate> rates) {
+        LatestRateSnapshot snapshot = exchangeRateService.getLatestRateSnapshot();
+
+        assertEquals(NO_OF_RATE_COMBOS, rates.size());
+        assertEquals(NO_OF_RATE_COMBOS, snapshot.getPairCount());
+
+        for (ExchangeRate rate : rates) {
+            assertEquals(rate.getConversionRate(), snapshot.getRate(rate.getFromCurrency(), rate.getToCurrency()));
+            assertEquals(rate.getRateDate(), snapshot.getRateDate(rate.getFromCurrency(), rate.getToCurrency()));
+        }
+    }
+
     private void stubRiksbankCrossRatesAndReturnNothingWhenFetchingFromRepository() {
         when(riksbankApiService.getLatestBankDay()).thenReturn(TODAY);
 
@@ -0,0 +1,109 @@
+package com.rn.currencyexchange.service;
+
+import com.rn.currencyexchange.config.ConversionProperties;
+import com.rn.currencyexchange.model.Currency;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FixedPointConverterTest {
+
+    private static final RoundingMode[] ROUNDING_MODES = {
+            RoundingMode.UP, RoundingMode.DOWN, RoundingMode.CEILING, RoundingMode.FLOOR,
+            RoundingMode.HALF_UP, RoundingMode.HALF_DOWN, RoundingMode.HALF_EVEN
+    };
+
+    private final FixedPointConverter converter = new FixedPointConverter(new ConversionProperties());
+
+    @Test
+    void multiply_matches_big_decimal_reference_for_random_values() {
+        Random random = new Random(42);
+
+        for (int i = 0; i < 100_000; i++) {
+            long rate = random.nextLong(1, 10_000_000_000_000_000L) * (random.nextBoolean() ? 1 : -1);
+            int rateScale = random.nextInt(0, 24);
+            long amount = random.nextLong(0, 1L << random.nextInt(1, 50));
+            int amountScale = random.nextInt(-2, 5);
+            int scale = random.nextInt(0, 5);
+            RoundingMode roundingMode = ROUNDING_MODES[random.nextInt(ROUNDING_MODES.length)];
+
+            long result = FixedPointConverter.multiply(rate, rateScale, amount, amountScale, scale, roundingMode);
+            BigDecimal expected = BigDecimal.valueOf(rate, rateScale).multiply(BigDecimal.valueOf(amount, amountScale)).setScale(scale, roundingMode);
+
+            if (result == FixedPointConverter.OVERFLOW) {
+                assertTrue(expected.precision() > FixedPointConverter.MAX_DIGITS
+                                || BigDecimal.valueOf(rate).multiply(BigDecimal.valueOf(amount)).abs().compareTo(BigDecimal.valueOf(Long.MAX_VALUE)) > 0,
+                        () -> "Unexpected overflow for " + rate + "e-" + rateScale + " * " + amount + "e-" + amountScale);
+            } else {
+                assertEquals(expected, BigDecimal.valueOf(result, scale),
+                        () -> rate + "e-" + rateScale + " * " + amount + "e-" + amountScale + " " + roundingMode);
+            }
+        }
+    }
+
+    @Test
+    void multiply_rounds_ties_by_rounding_mode() {
+        // 0.125 and -0.125 rounded to two decimals
+        assertEquals(12, FixedPointConverter.multiply(125, 3, 1, 0, 2, RoundingMode.HALF_EVEN));
+        assertEquals(13, FixedPointConverter.multiply(125, 3, 1, 0, 2, RoundingMode.HALF_UP));
+        assertEquals(12, FixedPointConverter.multiply(125, 3, 1, 0, 2, RoundingMode.HALF_DOWN));
+        assertEquals(-13, FixedPointConverter.multiply(-125, 3, 1, 0, 2, RoundingMode.HALF_UP));
+        assertEquals(-12, FixedPointConverter.multiply(-125, 3, 1, 0, 2, RoundingMode.CEILING));
+        assertEquals(-13, FixedPointConverter.multiply(-125, 3, 1, 0, 2, RoundingMode.FLOOR));
+    }
+
+    @Test
+    void multiply_rounds_products_smaller_than_one_unit() {
+        // 0.006 and 0.005 rounded to two decimals divide by 10^19, 0.0000092 divides by 10^22
+        assertEquals(1, FixedPointConverter.multiply(6_000_000_000_000_000_000L, 21, 1, 0, 2, RoundingMode.HALF_EVEN));
+        assertEquals(0, FixedPointConverter.multiply(5_000_000_000_000_000_000L, 21, 1, 0, 2, RoundingMode.HALF_EVEN));
+        assertEquals(1, FixedPointConverter.multiply(5_000_000_000_000_000_000L, 21, 1, 0, 2, RoundingMode.HALF_UP));
+        assertEquals(0, FixedPointConverter.multiply(Long.MAX_VALUE, 24, 1, 0, 2, RoundingMode.HALF_UP));
+        assertEquals(1, FixedPointConverter.multiply(Long.MAX_VALUE, 24, 1, 0, 2, RoundingMode.UP));
+    }
+
+    @Test
+    void multiply_with_rounding_unnecessary_throws_like_big_decimal() {
+        assertEquals(125, FixedPointConverter.multiply(125, 3, 1, 0, 3, RoundingMode.UNNECESSARY));
+        assertThrows(ArithmeticException.class, () -> FixedPointConverter.multiply(125, 3, 1, 0, 2, RoundingMode.UNNECESSARY));
+    }
+
+    @Test
+    void multiply_reports_overflow() {
+        assertEquals(FixedPointConverter.OVERFLOW, FixedPointConverter.multiply(Long.MAX_VALUE / 2, 0, 3, 0, 0, RoundingMode.HALF_EVEN));
+        assertEquals(FixedPointConverter.OVERFLOW, FixedPointConverter.multiply(Long.MAX_VALUE / 10, 0, 1, 0, 2, RoundingMode.HALF_EVEN));
+    }
+
+    @Test
+    void convert_rounds_to_minor_units_of_target_currency() {
+        BigDecimal result = converter.convert(new BigDecimal("1234.56"), new BigDecimal("0.0907235"), Currency.EUR);
+
+        assertEquals(new BigDecimal("112.00"), result);
+    }
+
+    @Test
+    void convert_falls_back_to_big_decimal_on_overflow() {
+        BigDecimal amount = new BigDecimal("98765432109876543.21");
+        BigDecimal rate = new BigDecimal("11.0413");
+
+        BigDecimal result = converter.convert(amount, rate, Currency.SEK);
+
+        assertEquals(rate.multiply(amount).setScale(2, RoundingMode.HALF_EVEN), result);
+    }
+
+    @Test
+    void convert_uses_configured_minor_units_and_rounding() {
+        ConversionProperties properties = new ConversionProperties();
+        properties.setCurrencies(Map.of("SEK", new ConversionProperties.CurrencyPolicy(0, RoundingMode.DOWN)));
+        FixedPointConverter configured = new FixedPointConverter(properties);
+
+        BigDecimal result = configured.convert(new BigDecimal("10"), new BigDecimal("11.0413"), Currency.SEK);
+
+        assertEquals(new BigDecimal("110"), result);
+    }
+}
@@ -0,0 +1,173 @@
+package com.rn.currencyexchange.service;
+
+import com.rn.currencyexchange.model.Currency;
+import com.rn.currencyexchange.model.ExchangeRate;
+import com.rn.currencyexchange.repository.ExchangeRateRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class HistoricalRateStoreTest {
+
+    private static final LocalDate FRIDAY = LocalDate.of(2025, 10, 10);
+    private static final LocalDate MONDAY = LocalDate.of(2025, 10, 13);
+    private static final LocalDate TUESDAY = LocalDate.of(2025, 10, 14);
+    private static final BigDecimal FRIDAY_RATE = new BigDecimal("0.0911");
+    private static final BigDecimal MONDAY_RATE = new BigDecimal("0.0913");
+    private static final BigDecimal TUESDAY_RATE = new BigDecimal("0.0915");
+
+    @Mock
+    private ExchangeRateRepository exchangeRateRepository;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Spy
+    private RateAnalytics rateAnalytics;
+
+    @InjectMocks
+    private HistoricalRateStore historicalRateStore;
+
+    @Test
+    void get_rate_on_or_before_returns_rate_on_exact_date() {
+        historicalRateStore.addAll(createHistory());
+
+        assertEquals(MONDAY_RATE, historicalRateStore.getRateOnOrBefore(Currency.SEK, Currency.EUR, MONDAY));
+    }
+
+    @Test
+    void get_rate_on_or_before_returns_most_recent_earlier_rate() {
+        historicalRateStore.addAll(createHistory());
+
+        // Saturday and Sunday fall back to Friday's rate
+        assertEquals(FRIDAY_RATE, historicalRateStore.getRateOnOrBefore(Currency.SEK, Currency.EUR, FRIDAY.plusDays(1)));
+        assertEquals(FRIDAY_RATE, historicalRateStore.getRateOnOrBefore(Currency.SEK, Currency.EUR, FRIDAY.plusDays(2)));
+        assertEquals(TUESDAY_RATE, historicalRateStore.getRateOnOrBefore(Currency.SEK, Currency.EUR, TUESDAY.plusYears(1)));
+    }
+
+    @Test
+    void get_rate_on_or_before_returns_null_before_first_rate_or_for_unknown_pair() {
+        historicalRateStore.addAll(createHistory());
+
+        assertNull(historicalRateStore.getRateOnOrBefore(Currency.SEK, Currency.EUR, FRIDAY.minusDays(1)));
+        assertNull(historicalRateStore.getRateOnOrBefore(Currency.SEK, Currency.USD, TUESDAY));
+    }
+
+    @Test
+    void add_all_replaces_rate_for_same_date() {
+        historicalRateStore.addAll(createHistory());
+        BigDecimal correctedRate = new BigDecimal("0.0914");
+
+        historicalRateStore.addAll(List.of(new ExchangeRate(Currency.SEK, Currency.EUR, correctedRate, MONDAY)));
+
+        assertEquals(correctedRate, historicalRateStore.getRateOnOrBefore(Currency.SEK, Currency.EUR, MONDAY));
+        assertEquals(FRIDAY_RATE, historicalRateStore.getRateOnOrBefore(Currency.SEK, Currency.EUR, FRIDAY));
+    }
+
+    @Test
+    void version_changes_only_when_rates_change() {
+        historicalRateStore.addAll(createHistory());
+        long version = historicalRateStore.getVersion();
+
+        historicalRateStore.addAll(createHistory());
+        assertEquals(version, historicalRateStore.getVersion());
+
+        historicalRateStore.addAll(List.of(new ExchangeRate(Currency.SEK, Currency.EUR, new BigDecimal("0.0914"), MONDAY)));
+        assertNotEquals(version, historicalRateStore.getVersion());
+    }
+
+    @Test
+    void same_rate_with_the_scale_of_the_database_column_is_not_a_change() {
+        historicalRateStore.addAll(List.of(new ExchangeRate(Currency.SEK, Currency.EUR, new BigDecimal("0.0907235"), MONDAY)));
+        long version = historicalRateStore.getVersion();
+        RateTimeSeries series = pairSeries(Currency.SEK, Currency.EUR);
+
+        historicalRateStore.addAll(List.of(new ExchangeRate(Currency.SEK, Currency.EUR, new BigDecimal("0.0907235000000000"), MONDAY)));
+
+        assertEquals(version, historicalRateStore.getVersion());
+        assertSame(series, pairSeries(Currency.SEK, Currency.EUR));
+    }
+
+    @Test
+    void add_all_merges_unordered_batch_per_pair_and_last_duplicate_wins() {
+        historicalRateStore.addAll(List.of(new ExchangeRate(Currency.SEK, Currency.EUR, MONDAY_RATE, MONDAY)));
+        BigDecimal correctedRate = new BigDecimal("0.0914");
+
+        historicalRateStore.addAll(List.of(
+                new ExchangeRate(Currency.SEK, Currency.EUR, TUESDAY_RATE, TUESDAY),
+                new ExchangeRate(Currency.SEK, Currency.USD, TUESDAY_RATE, TUESDAY),
+                new ExchangeRate(Currency.SEK, Currency.EUR, FRIDAY_RATE, FRIDAY),
+                new ExchangeRate(Currency.SEK, Currency.EUR, MONDAY_RATE, MONDAY),
+                new ExchangeRate(Currency.SEK, Currency.EUR, correctedRate, MONDAY)));
+
+        assertEquals(FRIDAY_RATE, historicalRateStore.getRateOnOrBefore(Currency.SEK, Currency.EUR, FRIDAY));
+        assertEquals(correctedRate, historicalRateStore.getRateOnOrBefore(Currency.SEK, Currency.EUR, MONDAY));
+        assertEquals(TUESDAY_RATE, historicalRateStore.getRateOnOrBefore(Currency.SEK, Currency.EUR, TUESDAY));
+        assertEquals(TUESDAY_RATE, historicalRateStore.getRateOnOrBefore(Currency.SEK, Currency.USD, TUESDAY));
+        assertEquals(4, historicalRateStore.getAllRates().size());
+    }
+
+    @Test
+    void appending_to_an_earlier_series_version_leaves_later_versions_unchanged() {
+        RateTimeSeries friday = RateTimeSeries.EMPTY.withAll(new int[]{(int) FRIDAY.toEpochDay()}, new BigDecimal[]{FRIDAY_RATE}, 1);
+        RateTimeSeries monday = friday.withAll(new int[]{(int) MONDAY.toEpochDay()}, new BigDecimal[]{MONDAY_RATE}, 1);
+        RateTimeSeries tuesday = friday.withAll(new int[]{(int) TUESDAY.toEpochDay()}, new BigDecimal[]{TUESDAY_RATE}, 1);
+
+        assertEquals(1, friday.size());
+        assertEquals(MONDAY_RATE, monday.rateOnOrBefore(TUESDAY));
+        assertEquals(FRIDAY_RATE, tuesday.rateOnOrBefore(MONDAY));
+        assertEquals(TUESDAY_RATE, tuesday.rateOnOrBefore(TUESDAY));
+    }
+
+    @Test
+    void load_from_repository_rebuilds_history_in_one_pass() {
+        when(exchangeRateRepository.streamAllOrderedByRateDate()).thenReturn(createHistory().stream()
+                .sorted((a, b) -> a.getRateDate().compareTo(b.getRateDate())));
+
+        historicalRateStore.loadFromRepository();
+
+        assertEquals(FRIDAY_RATE, historicalRateStore.getRateOnOrBefore(Currency.SEK, Currency.EUR, FRIDAY));
+        assertEquals(TUESDAY_RATE, historicalRateStore.getRateOnOrBefore(Currency.SEK, Currency.EUR, TUESDAY));
+    }
+
+    @Test
+    void load_from_repository_replaces_existing_history() {
+        historicalRateStore.addAll(createHistory());
+        when(exchangeRateRepository.streamAllOrderedByRateDate()).thenReturn(Stream.empty());
+
+        historicalRateStore.loadFromRepository();
+
+        assertNull(historicalRateStore.getRateOnOrBefore(Currency.SEK, Currency.EUR, TUESDAY));
+    }
+
+    private List<ExchangeRate> createHistory() {
+        // Deliberately out of order, the store keeps each series sorted by date
+        return List.of(
+                new ExchangeRate(Currency.SEK, Currency.EUR, TUESDAY_RATE, TUESDAY),
+                new ExchangeRate(Currency.SEK, Currency.EUR, FRIDAY_RATE, FRIDAY),
+                new ExchangeRate(Currency.SEK, Currency.EUR, MONDAY_RATE, MONDAY));
+    }
+
+    private RateTimeSeries pairSeries(Currency fromCurrency, Currency toCurrency) {
+        RateTimeSeries[] series = (RateTimeSeries[]) ReflectionTestUtils.getField(historicalRateStore, "series");
+
+        return series[HistoricalRateStore.pairIndex(fromCurrency, toCurrency)];
+    }
+}
@@ -0,0 +1,93 @@
+package com.rn.currencyexchange.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.rn.currencyexchange.model.Currency;
+import com.rn.currencyexchange.model.ExchangeRate;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.ZonedDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LatestRatesDocumentTest {
+
+    private static final LocalDate RATE_DATE = LocalDate.of(2025, 10, 14);
+
+    @Mock
+    private ExchangeRateService exchangeRateService;
+
+    @Spy
+    private ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json()
+            .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS).build();
+
+    @InjectMocks
+    private LatestRatesDocument latestRatesDocument;
+
+    @Test
+    void document_is_serialized_once_per_snapshot() throws Exception {
+        when(exchangeRateService.getLatestRateSnapshot()).thenReturn(createSnapshot(new BigDecimal("0.0907")));
+
+        LatestRatesDocument.Document first = latestRatesDocument.get();
+        LatestRatesDocument.Document second = latestRatesDocument.get();
+
+        assertSame(first, second);
+        verify(objectMapper, times(1)).writeValueAsBytes(any());
+
+        JsonNode rates = objectMapper.readTree(first.getBody());
+        assertEquals(2, rates.size());
+        assertEquals("2025-10-14", rates.get(0).get("rateDate").asText());
+    }
+
+    @Test
+    void etag_is_strong_and_changes_with_the_rates() {
+        when(exchangeRateService.getLatestRateSnapshot())
+                .thenReturn(createSnapshot(new BigDecimal("0.0907")))
+                .thenReturn(createSnapshot(new BigDecimal("0.0907")))
+                .thenReturn(createSnapshot(new BigDecimal("0.0911")));
+
+        String etag = latestRatesDocument.get().getEtag();
+        String sameRatesEtag = latestRatesDocument.get().getEtag();
+        String changedRatesEtag = latestRatesDocument.get().getEtag();
+
+        assertTrue(etag.startsWith("\"") && etag.endsWith("\""));
+        assertEquals(etag, sameRatesEtag);
+        assertNotEquals(etag, changedRatesEtag);
+    }
+
+    @Test
+    void last_modified_is_publishing_time_on_rate_date() {
+        when(exchangeRateService.getLatestRateSnapshot()).thenReturn(createSnapshot(new BigDecimal("0.0907")));
+
+        ZonedDateTime lastModified = latestRatesDocument.get().getLastModified().atZone(RiksbankApiService.PUBLISH_ZONE);
+
+        assertEquals(RATE_DATE, lastModified.toLocalDate());
+        assertEquals(RiksbankApiService.PUBLISH_TIME, lastModified.toLocalTime());
+    }
+
+    @Test
+    void empty_snapshot_is_rejected() {
+        when(exchangeRateService.getLatestRateSnapshot()).thenReturn(LatestRateSnapshot.EMPTY);
+
+        assertThrows(IllegalArgumentException.class, () -> latestRatesDocument.get());
+    }
+
+    private LatestRateSnapshot createSnapshot(BigDecimal sekToEur) {
+        return LatestRateSnapshot.of(List.of(
+                new ExchangeRate(Currency.SEK, Currency.EUR, sekToEur, RATE_DATE),
+                new ExchangeRate(Currency.EUR, Currency.SEK, BigDecimal.ONE.divide(sekToEur, 16, RoundingMode.HALF_EVEN), RATE_DATE)));
+    }
+}
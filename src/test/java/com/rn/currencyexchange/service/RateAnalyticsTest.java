@@ -0,0 +1,184 @@
+package com.rn.currencyexchange.service;
+
+import com.rn.currencyexchange.dto.RateStatistics;
+import com.rn.currencyexchange.model.Currency;
+import com.rn.currencyexchange.model.ExchangeRate;
+import com.rn.currencyexchange.repository.ExchangeRateRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class RateAnalyticsTest {
+
+    private static final int[] WINDOWS = {5, 20};
+    private static final LocalDate FIRST_DAY = LocalDate.of(2025, 1, 2);
+    private static final double TOLERANCE = 1e-12;
+
+    @Mock
+    private ExchangeRateRepository exchangeRateRepository;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Spy
+    private RateAnalytics rateAnalytics;
+
+    @InjectMocks
+    private HistoricalRateStore historicalRateStore;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(rateAnalytics, "windows", WINDOWS);
+    }
+
+    static HistoricalRateStore newHistoricalRateStore() {
+        HistoricalRateStore historicalRateStore = new HistoricalRateStore();
+        ReflectionTestUtils.setField(historicalRateStore, "rateAnalytics", new RateAnalytics());
+
+        return historicalRateStore;
+    }
+
+    @Test
+    void statistics_after_every_new_rate_match_full_recomputation() {
+        List<ExchangeRate> history = createRandomWalk(100, 1);
+
+        for (int i = 0; i < history.size(); i++) {
+            historicalRateStore.addAll(List.of(history.get(i)));
+
+            assertStatistics(history.subList(0, i + 1));
+        }
+    }
+
+    @Test
+    void corrected_rate_for_latest_date_replaces_it() {
+        List<ExchangeRate> history = new ArrayList<>(createRandomWalk(30, 2));
+        historicalRateStore.addAll(history);
+
+        ExchangeRate latest = history.getLast();
+        ExchangeRate corrected = new ExchangeRate(Currency.SEK, Currency.EUR, new BigDecimal("0.0950"), latest.getRateDate());
+        historicalRateStore.addAll(List.of(corrected));
+        history.set(history.size() - 1, corrected);
+
+        assertStatistics(history);
+        assertEquals(corrected.getConversionRate(), rateAnalytics.getStatistics(Currency.SEK, Currency.EUR).getConversionRate());
+    }
+
+    @Test
+    void backfilled_rate_before_latest_date_reseeds_pair() {
+        List<ExchangeRate> history = createRandomWalk(30, 3);
+        List<ExchangeRate> missingDay = List.of(history.get(25));
+        List<ExchangeRate> stored = new ArrayList<>(history);
+        stored.remove(25);
+
+        historicalRateStore.addAll(stored);
+        historicalRateStore.addAll(missingDay);
+
+        assertStatistics(history);
+    }
+
+    @Test
+    void load_from_repository_seeds_statistics_from_one_ordered_pass() {
+        List<ExchangeRate> history = createRandomWalk(60, 4);
+        when(exchangeRateRepository.streamAllOrderedByRateDate()).thenReturn(history.stream());
+
+        historicalRateStore.loadFromRepository();
+
+        assertStatistics(history);
+        verify(exchangeRateRepository, times(1)).streamAllOrderedByRateDate();
+    }
+
+    @Test
+    void volatility_is_missing_until_pair_has_two_returns() {
+        List<ExchangeRate> history = createRandomWalk(2, 5);
+        historicalRateStore.addAll(history);
+
+        RateStatistics statistics = rateAnalytics.getStatistics(Currency.SEK, Currency.EUR);
+
+        assertEquals(2, statistics.getWindows().getFirst().getObservations());
+        assertNull(statistics.getWindows().getFirst().getVolatility());
+        assertNull(rateAnalytics.getStatistics(Currency.SEK, Currency.USD));
+    }
+
+    private void assertStatistics(List<ExchangeRate> history) {
+        RateStatistics statistics = rateAnalytics.getStatistics(Currency.SEK, Currency.EUR);
+
+        assertEquals(history.getLast().getRateDate(), statistics.getRateDate());
+
+        for (int w = 0; w < WINDOWS.length; w++) {
+            RateStatistics.Window window = statistics.getWindows().get(w);
+            int observations = Math.min(history.size(), WINDOWS[w]);
+            List<ExchangeRate> latest = history.subList(history.size() - observations, history.size());
+
+            assertEquals(WINDOWS[w], window.getBankDays());
+            assertEquals(observations, window.getObservations());
+            assertEquals(latest.stream().mapToDouble(rate -> rate.getConversionRate().doubleValue()).average().orElseThrow(),
+                    window.getMovingAverage(), TOLERANCE);
+
+            Double expectedVolatility = volatility(history.subList(Math.max(0, history.size() - WINDOWS[w] - 1), history.size()));
+            if (expectedVolatility == null) {
+                assertNull(window.getVolatility());
+            } else {
+                assertEquals(expectedVolatility, window.getVolatility(), TOLERANCE);
+            }
+        }
+    }
+
+    /**
+     * Sample standard deviation of the daily log returns, computed from scratch.
+     */
+    private static Double volatility(List<ExchangeRate> rates) {
+        int n = rates.size() - 1;
+        if (n < 2) {
+            return null;
+        }
+
+        double[] returns = new double[n];
+        for (int i = 0; i < n; i++) {
+            returns[i] = Math.log(rates.get(i + 1).getConversionRate().doubleValue() / rates.get(i).getConversionRate().doubleValue());
+        }
+
+        double mean = 0;
+        for (double value : returns) {
+            mean += value / n;
+        }
+
+        double sumOfSquares = 0;
+        for (double value : returns) {
+            sumOfSquares += (value - mean) * (value - mean);
+        }
+
+        return Math.sqrt(sumOfSquares / (n - 1));
+    }
+
+    private static List<ExchangeRate> createRandomWalk(int days, long seed) {
+        Random random = new Random(seed);
+        List<ExchangeRate> rates = new ArrayList<>();
+        BigDecimal rate = new BigDecimal("0.0907");
+
+        for (int i = 0; i < days; i++) {
+            rate = rate.multiply(BigDecimal.valueOf(1 + random.nextGaussian() * 0.005), new MathContext(6));
+            rates.add(new ExchangeRate(Currency.SEK, Currency.EUR, rate, FIRST_DAY.plusDays(i)));
+        }
+
+        return rates;
+    }
+}
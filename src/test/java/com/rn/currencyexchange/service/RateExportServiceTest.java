@@ -0,0 +1,89 @@
+package com.rn.currencyexchange.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rn.currencyexchange.model.Currency;
+import com.rn.currencyexchange.model.ExchangeRate;
+import com.rn.currencyexchange.repository.ExchangeRateRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class RateExportServiceTest {
+
+    private static final LocalDate MONDAY = LocalDate.of(2025, 10, 13);
+    private static final LocalDate TUESDAY = LocalDate.of(2025, 10, 14);
+
+    @Mock
+    private ExchangeRateRepository exchangeRateRepository;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+
+    @InjectMocks
+    private RateExportService rateExportService;
+
+    private final AtomicBoolean streamClosed = new AtomicBoolean();
+
+    @Test
+    void csv_export_writes_header_and_one_line_per_rate() throws IOException {
+        when(exchangeRateRepository.streamRates(Currency.SEK, Currency.EUR, MONDAY, TUESDAY)).thenReturn(createRates());
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        long count = rateExportService.export(ExportFormat.CSV, Currency.SEK, Currency.EUR, MONDAY, TUESDAY, output);
+
+        assertEquals(2, count);
+        assertEquals("""
+                fromCurrency,toCurrency,rateDate,conversionRate
+                SEK,EUR,2025-10-13,0.0907
+                SEK,EUR,2025-10-14,0.09072580
+                """, output.toString(StandardCharsets.UTF_8));
+        assertTrue(streamClosed.get());
+    }
+
+    @Test
+    void ndjson_export_writes_one_object_per_line() throws IOException {
+        when(exchangeRateRepository.streamRates(null, null, null, null)).thenReturn(createRates());
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        rateExportService.export(ExportFormat.NDJSON, null, null, null, null, output);
+
+        String[] lines = output.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, lines.length);
+        JsonNode last = objectMapper.readTree(lines[1]);
+        assertEquals("SEK", last.get("fromCurrency").asText());
+        assertEquals("2025-10-14", last.get("rateDate").asText());
+        assertEquals(0, new BigDecimal("0.09072580").compareTo(last.get("conversionRate").decimalValue()));
+        assertTrue(streamClosed.get());
+    }
+
+    @Test
+    void invalid_format_and_range_are_rejected() {
+        assertEquals(ExportFormat.NDJSON, ExportFormat.of("ndjson"));
+        assertThrows(IllegalArgumentException.class, () -> ExportFormat.of("xml"));
+        assertThrows(IllegalArgumentException.class, () -> rateExportService.checkRange(TUESDAY, MONDAY));
+        assertDoesNotThrow(() -> rateExportService.checkRange(MONDAY, null));
+    }
+
+    private Stream<ExchangeRate> createRates() {
+        return Stream.of(
+                        new ExchangeRate(Currency.SEK, Currency.EUR, new BigDecimal("0.0907"), MONDAY),
+                        new ExchangeRate(Currency.SEK, Currency.EUR, new BigDecimal("0.09072580"), TUESDAY))
+                .onClose(() -> streamClosed.set(true));
+    }
+}
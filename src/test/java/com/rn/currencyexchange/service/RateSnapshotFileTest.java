@@ -0,0 +1,170 @@
+package com.rn.currencyexchange.service;
+
+import com.rn.currencyexchange.model.Currency;
+import com.rn.currencyexchange.model.ExchangeRate;
+import com.rn.currencyexchange.repository.ExchangeRateRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RateSnapshotFileTest {
+
+    private static final LocalDate MONDAY = LocalDate.of(2025, 10, 13);
+    private static final LocalDate TUESDAY = LocalDate.of(2025, 10, 14);
+
+    @TempDir
+    private Path tempDir;
+
+    @Mock
+    private HistoricalRateStore historicalRateStore;
+
+    @Mock
+    private ExchangeRateRepository exchangeRateRepository;
+
+    @InjectMocks
+    private RateSnapshotFile rateSnapshotFile;
+
+    private Path snapshotPath;
+
+    @BeforeEach
+    void setUp() {
+        snapshotPath = tempDir.resolve("snapshot/rates.bin");
+        ReflectionTestUtils.setField(rateSnapshotFile, "path", snapshotPath);
+    }
+
+    @Test
+    void written_snapshot_reads_back_identical_rates() throws IOException {
+        List<ExchangeRate> rates = createRates();
+
+        RateSnapshotFile.write(snapshotPath, rates);
+        List<ExchangeRate> read = RateSnapshotFile.read(snapshotPath);
+
+        assertEquals(rates.size(), read.size());
+        for (int i = 0; i < rates.size(); i++) {
+            assertEquals(rates.get(i).getFromCurrency(), read.get(i).getFromCurrency());
+            assertEquals(rates.get(i).getToCurrency(), read.get(i).getToCurrency());
+            assertEquals(rates.get(i).getRateDate(), read.get(i).getRateDate());
+            // Scale is kept as well, not only the numeric value
+            assertEquals(rates.get(i).getConversionRate(), read.get(i).getConversionRate());
+        }
+    }
+
+    @Test
+    void corrupted_snapshot_fails_checksum() throws IOException {
+        RateSnapshotFile.write(snapshotPath, createRates());
+        byte[] bytes = Files.readAllBytes(snapshotPath);
+        bytes[bytes.length / 2] ^= 0x01;
+        Files.write(snapshotPath, bytes);
+
+        IOException ex = assertThrows(IOException.class, () -> RateSnapshotFile.read(snapshotPath));
+        assertEquals("Snapshot checksum mismatch", ex.getMessage());
+    }
+
+    @Test
+    void unsupported_version_is_rejected() throws IOException {
+        Files.createDirectories(snapshotPath.getParent());
+        ByteBuffer content = ByteBuffer.allocate(Integer.BYTES + Short.BYTES).putInt(RateSnapshotFile.MAGIC).putShort((short) 99);
+        CRC32 crc = new CRC32();
+        crc.update(content.array());
+        Files.write(snapshotPath, ByteBuffer.allocate(content.capacity() + Long.BYTES).put(content.array()).putLong(crc.getValue()).array());
+
+        IOException ex = assertThrows(IOException.class, () -> RateSnapshotFile.read(snapshotPath));
+        assertEquals("Unsupported snapshot version 99", ex.getMessage());
+    }
+
+    @Test
+    void rates_updated_writes_history_and_startup_hydrates_repository() throws InterruptedException {
+        List<ExchangeRate> rates = createRates();
+        when(historicalRateStore.getAllRates()).thenReturn(rates);
+
+        rateSnapshotFile.onRatesUpdated(new RatesUpdatedEvent(List.of()));
+        // Waits for the pending write
+        rateSnapshotFile.destroy();
+        rateSnapshotFile.loadOnStartup();
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Collection<ExchangeRate>> loaded = ArgumentCaptor.forClass(Collection.class);
+        verify(exchangeRateRepository).upsertAll(loaded.capture());
+        assertEquals(rates.size(), loaded.getValue().size());
+    }
+
+    @Test
+    void unchanged_history_is_not_written_again() {
+        when(historicalRateStore.getVersion()).thenReturn(3L);
+        when(historicalRateStore.getAllRates()).thenReturn(createRates());
+
+        rateSnapshotFile.writeLatest();
+        rateSnapshotFile.writeLatest();
+        rateSnapshotFile.onRatesUpdated(new RatesUpdatedEvent(List.of()));
+
+        verify(historicalRateStore, times(1)).getAllRates();
+        assertTrue(Files.exists(snapshotPath));
+    }
+
+    @Test
+    void updates_during_a_pending_write_are_coalesced_into_one_write() throws InterruptedException {
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(historicalRateStore.getVersion()).thenReturn(1L);
+        when(historicalRateStore.getAllRates()).thenAnswer(invocation -> {
+            writing.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return createRates();
+        });
+
+        rateSnapshotFile.onRatesUpdated(new RatesUpdatedEvent(List.of()));
+        assertTrue(writing.await(5, TimeUnit.SECONDS));
+
+        // Updates while the first write is in progress
+        for (long version = 2; version <= 5; version++) {
+            when(historicalRateStore.getVersion()).thenReturn(version);
+            rateSnapshotFile.onRatesUpdated(new RatesUpdatedEvent(List.of()));
+        }
+        release.countDown();
+        rateSnapshotFile.destroy();
+
+        verify(historicalRateStore, times(2)).getAllRates();
+    }
+
+    @Test
+    void startup_without_snapshot_or_with_corrupt_snapshot_continues() throws IOException {
+        rateSnapshotFile.loadOnStartup();
+
+        Files.createDirectories(snapshotPath.getParent());
+        Files.write(snapshotPath, new byte[]{1, 2, 3});
+        rateSnapshotFile.loadOnStartup();
+
+        verify(exchangeRateRepository, never()).upsertAll(any());
+    }
+
+    private List<ExchangeRate> createRates() {
+        return List.of(
+                new ExchangeRate(Currency.SEK, Currency.EUR, new BigDecimal("0.0907"), MONDAY),
+                new ExchangeRate(Currency.SEK, Currency.EUR, new BigDecimal("0.09072580"), TUESDAY),
+                new ExchangeRate(Currency.EUR, Currency.USD, new BigDecimal("1.1661000000000000"), TUESDAY),
+                new ExchangeRate(Currency.USD, Currency.SEK, new BigDecimal("9.4527"), TUESDAY));
+    }
+}
@@ -0,0 +1,75 @@
+package com.rn.currencyexchange.service;
+
+import com.rn.currencyexchange.exception.RiksbankApiException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RefreshRequestExecutorTest {
+
+    private static final int THREADS = 2;
+    private static final int QUEUE_CAPACITY = 3;
+
+    private RefreshRequestExecutor executor;
+
+    @AfterEach
+    void tearDown() {
+        executor.destroy();
+    }
+
+    @Test
+    void sync_mode_runs_request_on_calling_thread() {
+        executor = new RefreshRequestExecutor(false, THREADS, QUEUE_CAPACITY);
+        Thread caller = Thread.currentThread();
+
+        CompletableFuture<Thread> result = executor.submit(Thread::currentThread);
+
+        assertTrue(result.isDone());
+        assertSame(caller, result.join());
+    }
+
+    @Test
+    void async_mode_runs_request_on_refresh_executor() throws Exception {
+        executor = new RefreshRequestExecutor(true, THREADS, QUEUE_CAPACITY);
+
+        Thread thread = executor.submit(Thread::currentThread).get(5, TimeUnit.SECONDS);
+
+        assertNotSame(Thread.currentThread(), thread);
+        assertTrue(thread.getName().startsWith("refresh-request-"));
+    }
+
+    @Test
+    void async_mode_rejects_requests_beyond_threads_and_queue() throws Exception {
+        executor = new RefreshRequestExecutor(true, THREADS, QUEUE_CAPACITY);
+        CountDownLatch release = new CountDownLatch(1);
+        List<CompletableFuture<Boolean>> accepted = new ArrayList<>();
+
+        for (int i = 0; i < THREADS + QUEUE_CAPACITY; i++) {
+            accepted.add(executor.submit(() -> {
+                try {
+                    return release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException ex) {
+                    throw new IllegalStateException(ex);
+                }
+            }));
+        }
+
+        CompletableFuture<Boolean> rejected = executor.submit(() -> true);
+
+        ExecutionException failure = assertThrows(ExecutionException.class, () -> rejected.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(RiksbankApiException.class, failure.getCause());
+
+        release.countDown();
+        for (CompletableFuture<Boolean> result : accepted) {
+            assertTrue(result.get(5, TimeUnit.SECONDS));
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package com.rn.currencyexchange.service;
+
+import com.rn.currencyexchange.config.RiksbankHttpProperties;
+import com.rn.currencyexchange.exception.RiksbankApiException;
+import com.rn.currencyexchange.model.Currency;
+import com.rn.currencyexchange.model.Observation;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the Riksbank client against a local stub server.
+ */
+class RiksbankApiServiceTest {
+
+    private static final LocalDate FROM_DATE = LocalDate.of(2025, 10, 13);
+    private static final LocalDate TO_DATE = LocalDate.of(2025, 10, 14);
+    private static final String OBSERVATIONS_PATH = "/Observations/SEKEURPMI/" + FROM_DATE + "/" + TO_DATE;
+    private static final String OBSERVATIONS_JSON = "[{\"date\":\"2025-10-13\",\"value\":11.0225},{\"date\":\"2025-10-14\",\"value\":11.0413}]";
+    private static final Duration READ_TIMEOUT = Duration.ofSeconds(1);
+    private static final Duration STALL = Duration.ofSeconds(10);
+    private static final int MAX_ATTEMPTS = 2;
+    private static final int NO_OF_REQUESTS = 10;
+
+    private final Set<InetSocketAddress> clientConnections = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger requestCount = new AtomicInteger();
+
+    private HttpServer server;
+    private RiksbankRestClients restClients;
+    private RiksbankApiService riksbankApiService;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.start();
+
+        RiksbankHttpProperties properties = new RiksbankHttpProperties();
+        properties.setBaseUrl("http://localhost:" + server.getAddress().getPort() + "/");
+        properties.setDefaults(new RiksbankHttpProperties.EndpointPolicy(READ_TIMEOUT, MAX_ATTEMPTS, Duration.ofMillis(10)));
+
+        restClients = new RiksbankRestClients(properties);
+        riksbankApiService = new RiksbankApiService();
+        ReflectionTestUtils.setField(riksbankApiService, "restClients", restClients);
+        ReflectionTestUtils.setField(riksbankApiService, "metrics", new ExchangeRateMetrics(new SimpleMeterRegistry()));
+        ReflectionTestUtils.setField(riksbankApiService, "apiKey", "test-key");
+    }
+
+    @AfterEach
+    void tearDown() {
+        restClients.destroy();
+        server.stop(0);
+    }
+
+    @Test
+    void sequential_requests_reuse_one_connection() {
+        server.createContext(OBSERVATIONS_PATH, exchange -> respond(exchange, OBSERVATIONS_JSON, false));
+
+        for (int i = 0; i < NO_OF_REQUESTS; i++) {
+            assertEquals(2, riksbankApiService.getSekObservations(Currency.EUR, FROM_DATE, TO_DATE).size());
+        }
+
+        assertEquals(NO_OF_REQUESTS, requestCount.get());
+        assertEquals(1, clientConnections.size());
+    }
+
+    @Test
+    void stalled_upstream_fails_within_read_timeout_for_every_attempt() {
+        server.createContext(OBSERVATIONS_PATH, exchange -> {
+            requestCount.incrementAndGet();
+            try {
+                Thread.sleep(STALL);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            exchange.close();
+        });
+
+        long start = System.nanoTime();
+        assertThrows(RiksbankApiException.class, () -> riksbankApiService.getSekObservations(Currency.EUR, FROM_DATE, TO_DATE));
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+
+        assertEquals(MAX_ATTEMPTS, requestCount.get());
+        // Bounded by the attempts times the read timeout, far below the stall itself
+        assertTrue(elapsed.compareTo(READ_TIMEOUT.multipliedBy(MAX_ATTEMPTS + 2)) < 0, "took " + elapsed);
+    }
+
+    @Test
+    void server_errors_are_retried() {
+        server.createContext(OBSERVATIONS_PATH, exchange -> {
+            if (requestCount.get() == 0) {
+                requestCount.incrementAndGet();
+                exchange.sendResponseHeaders(503, -1);
+                exchange.close();
+            } else {
+                respond(exchange, OBSERVATIONS_JSON, false);
+            }
+        });
+
+        List<Observation> observations = riksbankApiService.getSekObservations(Currency.EUR, FROM_DATE, TO_DATE);
+
+        assertEquals(2, observations.size());
+        assertEquals(2, requestCount.get());
+    }
+
+    @Test
+    void client_errors_are_not_retried() {
+        server.createContext(OBSERVATIONS_PATH, exchange -> {
+            requestCount.incrementAndGet();
+            exchange.sendResponseHeaders(404, -1);
+            exchange.close();
+        });
+
+        assertThrows(RiksbankApiException.class, () -> riksbankApiService.getSekObservations(Currency.EUR, FROM_DATE, TO_DATE));
+        assertEquals(1, requestCount.get());
+    }
+
+    @Test
+    void gzip_responses_are_decompressed() {
+        AtomicInteger compressedResponses = new AtomicInteger();
+        server.createContext(OBSERVATIONS_PATH, exchange -> {
+            boolean gzip = "gzip".equals(exchange.getRequestHeaders().getFirst("Accept-Encoding"));
+            if (gzip) {
+                compressedResponses.incrementAndGet();
+            }
+            respond(exchange, OBSERVATIONS_JSON, gzip);
+        });
+
+        List<Observation> observations = riksbankApiService.getSekObservations(Currency.EUR, FROM_DATE, TO_DATE);
+
+        assertEquals(1, compressedResponses.get());
+        assertEquals(new BigDecimal("11.0413"), observations.get(1).getValue());
+        assertEquals("SEKEURPMI", observations.get(1).getSeriesId());
+    }
+
+    private void respond(HttpExchange exchange, String json, boolean gzip) throws IOException {
+        requestCount.incrementAndGet();
+        clientConnections.add(exchange.getRemoteAddress());
+
+        byte[] body = json.getBytes(StandardCharsets.UTF_8);
+        if (gzip) {
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+            try (GZIPOutputStream out = new GZIPOutputStream(compressed)) {
+                out.write(body);
+            }
+            body = compressed.toByteArray();
+            exchange.getResponseHeaders().set("Content-Encoding", "gzip");
+        }
+
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+}
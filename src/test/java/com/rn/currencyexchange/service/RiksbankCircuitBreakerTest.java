@@ -0,0 +1,87 @@
+package com.rn.currencyexchange.service;
+
+import com.rn.currencyexchange.exception.RiksbankApiException;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RiksbankCircuitBreakerTest {
+
+    private static final int FAILURE_THRESHOLD = 3;
+    private static final Duration OPEN_DURATION = Duration.ofMillis(100);
+
+    private final RiksbankCircuitBreaker circuitBreaker = new RiksbankCircuitBreaker(FAILURE_THRESHOLD, OPEN_DURATION);
+    private final AtomicInteger upstreamCalls = new AtomicInteger();
+
+    @Test
+    void opens_after_consecutive_failures_and_stops_calling_upstream() {
+        failTimes(FAILURE_THRESHOLD);
+        assertEquals(RiksbankCircuitBreaker.State.OPEN, circuitBreaker.getState());
+
+        assertThrows(RiksbankApiException.class, () -> circuitBreaker.call(succeeding()));
+        assertEquals(FAILURE_THRESHOLD, upstreamCalls.get());
+    }
+
+    @Test
+    void success_resets_consecutive_failures() {
+        failTimes(FAILURE_THRESHOLD - 1);
+        circuitBreaker.call(succeeding());
+        failTimes(FAILURE_THRESHOLD - 1);
+
+        assertEquals(RiksbankCircuitBreaker.State.CLOSED, circuitBreaker.getState());
+    }
+
+    @Test
+    void trial_call_after_open_duration_closes_breaker_on_success() throws InterruptedException {
+        failTimes(FAILURE_THRESHOLD);
+        Thread.sleep(OPEN_DURATION.toMillis() + 20);
+        assertEquals(RiksbankCircuitBreaker.State.HALF_OPEN, circuitBreaker.getState());
+
+        assertEquals("rates", circuitBreaker.call(succeeding()));
+
+        assertEquals(RiksbankCircuitBreaker.State.CLOSED, circuitBreaker.getState());
+    }
+
+    @Test
+    void failed_trial_call_opens_breaker_again() throws InterruptedException {
+        failTimes(FAILURE_THRESHOLD);
+        Thread.sleep(OPEN_DURATION.toMillis() + 20);
+
+        failTimes(1);
+
+        assertEquals(RiksbankCircuitBreaker.State.OPEN, circuitBreaker.getState());
+        assertThrows(RiksbankApiException.class, () -> circuitBreaker.call(succeeding()));
+        assertEquals(FAILURE_THRESHOLD + 1, upstreamCalls.get());
+    }
+
+    @Test
+    void non_upstream_failures_do_not_open_breaker() {
+        for (int i = 0; i < FAILURE_THRESHOLD; i++) {
+            assertThrows(IllegalStateException.class, () -> circuitBreaker.call(() -> {
+                throw new IllegalStateException("Database unavailable");
+            }));
+        }
+
+        assertEquals(RiksbankCircuitBreaker.State.CLOSED, circuitBreaker.getState());
+    }
+
+    private void failTimes(int times) {
+        for (int i = 0; i < times; i++) {
+            assertThrows(RiksbankApiException.class, () -> circuitBreaker.call(() -> {
+                upstreamCalls.incrementAndGet();
+                throw new RiksbankApiException("Service unavailable");
+            }));
+        }
+    }
+
+    private Supplier<String> succeeding() {
+        return () -> {
+            upstreamCalls.incrementAndGet();
+            return "rates";
+        };
+    }
+}
@@ -0,0 +1,119 @@
+package com.rn.currencyexchange.service;
+
+import com.rn.currencyexchange.exception.RiksbankApiException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RiksbankFetchExecutorTest {
+
+    private static final int MAX_CONCURRENCY = 3;
+    private static final int NO_OF_TASKS = 12;
+
+    private final RiksbankFetchExecutor executor = new RiksbankFetchExecutor(MAX_CONCURRENCY, Duration.ofMillis(500));
+
+    @AfterEach
+    void tearDown() {
+        executor.destroy();
+    }
+
+    @Test
+    void invoke_all_returns_results_in_task_order() {
+        List<Callable<Integer>> tasks = new ArrayList<>();
+        for (int i = 0; i < NO_OF_TASKS; i++) {
+            int value = i;
+            // Later tasks finish first so ordering cannot come from completion order
+            tasks.add(() -> {
+                Thread.sleep((NO_OF_TASKS - value) * 5L);
+                return value;
+            });
+        }
+
+        List<Integer> results = executor.invokeAll(tasks);
+
+        for (int i = 0; i < NO_OF_TASKS; i++) {
+            assertEquals(i, results.get(i));
+        }
+    }
+
+    @Test
+    void invoke_all_never_exceeds_max_concurrency() {
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (int i = 0; i < NO_OF_TASKS; i++) {
+            tasks.add(() -> {
+                maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                Thread.sleep(20);
+                inFlight.decrementAndGet();
+                return null;
+            });
+        }
+
+        executor.invokeAll(tasks);
+
+        assertTrue(maxInFlight.get() <= MAX_CONCURRENCY);
+    }
+
+    @Test
+    void invoke_all_throws_when_call_times_out() {
+        List<Callable<Integer>> tasks = List.of(() -> 1, () -> {
+            Thread.sleep(5_000);
+            return 2;
+        });
+
+        long start = System.nanoTime();
+
+        assertThrows(RiksbankApiException.class, () -> executor.invokeAll(tasks));
+        assertTrue(Duration.ofNanos(System.nanoTime() - start).toMillis() < 2_000);
+    }
+
+    @Test
+    void invoke_all_rethrows_task_failure() {
+        List<Callable<Integer>> tasks = List.of(() -> {
+            throw new RiksbankApiException("No cross rates");
+        });
+
+        RiksbankApiException ex = assertThrows(RiksbankApiException.class, () -> executor.invokeAll(tasks));
+        assertEquals("No cross rates", ex.getMessage());
+    }
+
+    @Test
+    void invoke_all_interrupts_running_calls_when_a_task_fails() throws InterruptedException {
+        // Longer than the test waits, so only the cancellation can interrupt the running call
+        RiksbankFetchExecutor slowTimeoutExecutor = new RiksbankFetchExecutor(MAX_CONCURRENCY, Duration.ofSeconds(30));
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch interrupted = new CountDownLatch(1);
+
+        List<Callable<Integer>> tasks = List.of(() -> {
+            running.await();
+            throw new RiksbankApiException("No cross rates");
+        }, () -> {
+            running.countDown();
+            try {
+                Thread.sleep(30_000);
+            } catch (InterruptedException ex) {
+                interrupted.countDown();
+                throw ex;
+            }
+            return 2;
+        });
+
+        try {
+            assertThrows(RiksbankApiException.class, () -> slowTimeoutExecutor.invokeAll(tasks));
+            assertTrue(interrupted.await(5, TimeUnit.SECONDS), "Running call was not interrupted");
+        } finally {
+            slowTimeoutExecutor.destroy();
+        }
+    }
+}